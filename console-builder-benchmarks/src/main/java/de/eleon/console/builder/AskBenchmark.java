@@ -0,0 +1,88 @@
+/*
+* Copyright 2014 Dominik Foerderreuther <dominik@eleon.de>
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+* http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package de.eleon.console.builder;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.io.ByteStreams;
+import de.eleon.console.builder.functional.Transformers;
+import de.eleon.console.builder.functional.Validators;
+import de.eleon.console.builder.script.AnswerSources;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Answered questions per second. The console variants read the answer from an endless in-memory input through jline,
+ * the scripted variant answers from an AnswerSource without terminal.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AskBenchmark {
+
+    public enum Answer { YES, NO }
+
+    private ConsoleSession console;
+    private ConsoleSession enumConsole;
+    private ConsoleSession scripted;
+
+    @Setup
+    public void setUp() {
+        console = new ConsoleSession(new ConsoleReaderWrapper(BenchmarkConsoles.repeating("42", ByteStreams.nullOutputStream())));
+        enumConsole = new ConsoleSession(new ConsoleReaderWrapper(BenchmarkConsoles.repeating("yes", ByteStreams.nullOutputStream())));
+        scripted = new ConsoleSession().answerFrom(AnswerSources.fromMap(ImmutableMap.of("age", "42")));
+    }
+
+    @TearDown
+    public void tearDown() {
+        console.close();
+        enumConsole.close();
+    }
+
+    @Benchmark
+    public String answer() {
+        return console.ask("How old are you?").validateWith(Validators.notEmpty("Empty not allowed")).answer();
+    }
+
+    @Benchmark
+    public Integer answerInteger() {
+        return console.ask("How old are you?").answer(Transformers.toInteger());
+    }
+
+    @Benchmark
+    public Answer answerEnum() {
+        return enumConsole.ask("Continue?").answer(Answer.class);
+    }
+
+    @Benchmark
+    public Integer answerScripted() {
+        return scripted.ask("How old are you?").id("age").answer(Transformers.toInteger());
+    }
+
+}
@@ -0,0 +1,94 @@
+/*
+* Copyright 2014 Dominik Foerderreuther <dominik@eleon.de>
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+* http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package de.eleon.console.builder;
+
+import jline.UnsupportedTerminal;
+import jline.console.ConsoleReader;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Headless consoles for benchmarks. They don't touch System.in, System.out or the terminal settings.
+ */
+class BenchmarkConsoles {
+
+    private BenchmarkConsoles() {
+    }
+
+    /**
+     * Create ConsoleReader on given streams with an unsupported terminal
+     *
+     * @param in input of the console
+     * @param out output of the console
+     * @return the ConsoleReader
+     */
+    static ConsoleReader consoleReader(InputStream in, OutputStream out) {
+        try {
+            ConsoleReader consoleReader = new ConsoleReader(in, out, new UnsupportedTerminal());
+            consoleReader.setBellEnabled(false);
+            return consoleReader;
+        } catch (IOException e) {
+            throw new IllegalStateException("Can't create console", e);
+        }
+    }
+
+    /**
+     * Create ConsoleReader without input
+     *
+     * @param out output of the console
+     * @return the ConsoleReader
+     */
+    static ConsoleReader consoleReader(OutputStream out) {
+        return consoleReader(new ByteArrayInputStream(new byte[0]), out);
+    }
+
+    /**
+     * Create ConsoleReader which reads line endlessly
+     *
+     * @param line input line, repeated forever
+     * @param out output of the console
+     * @return the ConsoleReader
+     */
+    static ConsoleReader repeating(String line, OutputStream out) {
+        return consoleReader(new RepeatingInputStream((line + "\n").getBytes()), out);
+    }
+
+    private static class RepeatingInputStream extends InputStream {
+
+        private final byte[] bytes;
+        private int position;
+
+        RepeatingInputStream(byte[] bytes) {
+            this.bytes = bytes;
+        }
+
+        @Override
+        public int read() {
+            int ret = bytes[position];
+            position = (position + 1) % bytes.length;
+            return ret;
+        }
+
+        @Override
+        public int available() {
+            return bytes.length;
+        }
+    }
+
+}
@@ -0,0 +1,115 @@
+/*
+* Copyright 2014 Dominik Foerderreuther <dominik@eleon.de>
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+* http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package de.eleon.console.builder;
+
+import com.google.common.collect.Lists;
+import de.eleon.console.builder.completer.FuzzyCompleter;
+import de.eleon.console.builder.completer.TrieCompleter;
+import de.eleon.console.builder.functional.EnumLookup;
+import jline.console.completer.Completer;
+import jline.console.completer.StringsCompleter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Completions per second of a prefix in a list of candidates with jline's StringsCompleter and with TrieCompleter, of
+ * fragments with FuzzyCompleter, including short fragments common to all candidates, and of an enum
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CompleterBenchmark {
+
+    public enum Gender { MALE, FEMALE, DIVERSE }
+
+    @Param({"100", "10000", "500000"})
+    public int candidates;
+
+    private final List<CharSequence> result = Lists.newArrayList();
+    private final Completer enumCompleter = EnumLookup.of(Gender.class).completer();
+    private Completer stringsCompleter;
+    private Completer trieCompleter;
+    private Completer fuzzyCompleter;
+
+    @Setup
+    public void setUp() {
+        List<String> strings = Lists.newArrayList();
+        for (int i = 0; i < candidates; i++) {
+            strings.add(String.format("host-%06d.example.com", i));
+        }
+        stringsCompleter = new StringsCompleter(strings);
+        trieCompleter = TrieCompleter.of(strings);
+        fuzzyCompleter = FuzzyCompleter.of(strings);
+    }
+
+    @Benchmark
+    public int completeStrings() {
+        result.clear();
+        return stringsCompleter.complete("host-00004", 10, result);
+    }
+
+    @Benchmark
+    public int completeTrie() {
+        result.clear();
+        return trieCompleter.complete("host-00004", 10, result);
+    }
+
+    @Benchmark
+    public int completeFuzzy() {
+        result.clear();
+        return fuzzyCompleter.complete("0042.exa", 8, result);
+    }
+
+    @Benchmark
+    public int completeFuzzySubsequence() {
+        result.clear();
+        return fuzzyCompleter.complete("hst42", 5, result);
+    }
+
+    @Benchmark
+    public int completeFuzzyCommon() {
+        result.clear();
+        return fuzzyCompleter.complete("com", 3, result);
+    }
+
+    @Benchmark
+    public int completeFuzzyShort() {
+        result.clear();
+        return fuzzyCompleter.complete("ex", 2, result);
+    }
+
+    @Benchmark
+    public int completeEnum() {
+        result.clear();
+        return enumCompleter.complete("fe", 2, result);
+    }
+
+}
@@ -0,0 +1,110 @@
+/*
+* Copyright 2014 Dominik Foerderreuther <dominik@eleon.de>
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+* http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package de.eleon.console.builder;
+
+import com.google.common.io.ByteStreams;
+import jline.console.ConsoleReader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency from opening a session to the answer of its first question for every {@link ReaderFactory}. The readers
+ * are headless, so the initialization of a real terminal is not part of the measurement. dumb only measures creating
+ * and releasing a reader on standard input, it doesn't read from it.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 20)
+@Measurement(iterations = 50)
+@Fork(1)
+public class FirstPromptBenchmark {
+
+    @Param({"fresh", "preWarmed", "pooled"})
+    public String factory;
+
+    private final ReaderFactory headless = new ReaderFactory() {
+        @Override
+        public ConsoleReader create() {
+            return BenchmarkConsoles.repeating("42", ByteStreams.nullOutputStream());
+        }
+
+        @Override
+        public void release(ConsoleReader consoleReader) {
+            consoleReader.shutdown();
+        }
+    };
+
+    private ReaderFactory pooled;
+
+    @Setup(Level.Trial)
+    public void setUpTrial() throws IOException {
+        pooled = ReaderFactories.pooled(headless);
+        pooled.release(pooled.create());
+    }
+
+    @Setup(Level.Invocation)
+    public void setUp() throws InterruptedException, ExecutionException {
+        if (factory.equals("fresh")) {
+            ConsoleBuilder.readerFactory(headless);
+        } else if (factory.equals("preWarmed")) {
+            ReaderFactories.PreWarmed preWarmed = (ReaderFactories.PreWarmed) ReaderFactories.preWarmed(headless);
+            preWarmed.awaitWarm();
+            ConsoleBuilder.readerFactory(preWarmed);
+        } else {
+            ConsoleBuilder.readerFactory(pooled);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        ReaderFactories.configure(null);
+    }
+
+    @Benchmark
+    public String firstAnswer() {
+        ConsoleSession session = ConsoleBuilder.session();
+        try {
+            return session.ask("How old are you?").answer();
+        } finally {
+            session.close();
+        }
+    }
+
+    @Benchmark
+    public ConsoleReader dumb() throws IOException {
+        ReaderFactory dumb = ReaderFactories.dumb();
+        ConsoleReader consoleReader = dumb.create();
+        dumb.release(consoleReader);
+        return consoleReader;
+    }
+
+}
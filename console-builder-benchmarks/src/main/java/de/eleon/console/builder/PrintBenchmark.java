@@ -0,0 +1,92 @@
+/*
+* Copyright 2014 Dominik Foerderreuther <dominik@eleon.de>
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+* http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package de.eleon.console.builder;
+
+import com.google.common.collect.ImmutableList;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Printed lines and column blocks per second for each {@link OutputPolicy}. The console writes to a file, so every flush is a real
+ * write to the operating system like it is for a terminal. {@link OutputPolicy#LINE} is the former behaviour with one
+ * flush per line.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PrintBenchmark {
+
+    @Param({"LINE", "BLOCK", "ADAPTIVE"})
+    public OutputPolicy policy;
+
+    private static final List<String> COLUMNS = ImmutableList.of(
+            "host-0001", "host-0002", "host-0003", "host-0004", "host-0005", "host-0006", "host-0007", "host-0008",
+            "host-0009", "host-0010", "host-0011", "host-0012", "host-0013", "host-0014", "host-0015", "host-0016");
+
+    private File file;
+    private FileOutputStream out;
+    private ConsoleReaderWrapper consoleReaderWrapper;
+
+    @Setup
+    public void setUp() throws IOException {
+        file = File.createTempFile("console-builder", ".out");
+        out = new FileOutputStream(file);
+        consoleReaderWrapper = new ConsoleReaderWrapper(BenchmarkConsoles.consoleReader(out));
+        consoleReaderWrapper.setOutputPolicy(policy);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        consoleReaderWrapper.close();
+        out.close();
+        file.delete();
+    }
+
+    @Benchmark
+    public void printLine() {
+        consoleReaderWrapper.print("provisioning host-0042.example.com ... done");
+    }
+
+    @Benchmark
+    public void printColumns() {
+        consoleReaderWrapper.print(COLUMNS);
+    }
+
+    @Benchmark
+    public void printColumnsStreaming() {
+        consoleReaderWrapper.printColumns(COLUMNS.iterator(), 0);
+    }
+
+}
@@ -0,0 +1,83 @@
+/*
+* Copyright 2014 Dominik Foerderreuther <dominik@eleon.de>
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+* http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package de.eleon.console.builder;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cost of counting processed items from 4 threads while the progress bar is redrawn to a file. The AtomicLong
+ * benchmark is the baseline of a single shared counter.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(4)
+@Fork(1)
+public class ProgressBenchmark {
+
+    private final AtomicLong atomicLong = new AtomicLong();
+
+    private File file;
+    private FileOutputStream out;
+    private ConsoleSession session;
+    private Progress progress;
+
+    @Setup
+    public void setUp() throws IOException {
+        file = File.createTempFile("console-builder", ".out");
+        out = new FileOutputStream(file);
+        session = new ConsoleSession(new ConsoleReaderWrapper(BenchmarkConsoles.consoleReader(out)));
+        progress = session.progress("benchmark", Long.MAX_VALUE);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        progress.done();
+        session.close();
+        out.close();
+        file.delete();
+    }
+
+    @Benchmark
+    public void increment() {
+        progress.increment();
+    }
+
+    @Benchmark
+    public long incrementAtomicLong() {
+        return atomicLong.incrementAndGet();
+    }
+
+}
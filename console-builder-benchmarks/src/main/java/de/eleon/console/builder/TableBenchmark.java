@@ -0,0 +1,87 @@
+/*
+* Copyright 2014 Dominik Foerderreuther <dominik@eleon.de>
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+* http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package de.eleon.console.builder;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to print a report of {@link #rows} rows with {@link TableBuilder}. Columns are either measured before printing
+ * or have a declared width, then rows are printed while they are read. The console writes to a file.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TableBenchmark {
+
+    @Param({"1000", "100000"})
+    public int rows;
+
+    private List<List<String>> report;
+    private File file;
+    private FileOutputStream out;
+    private ConsoleSession session;
+
+    @Setup
+    public void setUp() throws IOException {
+        report = Lists.newArrayListWithCapacity(rows);
+        for (int i = 0; i < rows; i++) {
+            report.add(ImmutableList.of(String.format("host-%06d.example.com", i), String.valueOf(i % 100), "running"));
+        }
+        file = File.createTempFile("console-builder", ".out");
+        out = new FileOutputStream(file);
+        session = new ConsoleSession(new ConsoleReaderWrapper(BenchmarkConsoles.consoleReader(out)));
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        session.close();
+        out.close();
+        file.delete();
+    }
+
+    @Benchmark
+    public void tableMeasured() {
+        session.table().column("Host").column("Load", Alignment.RIGHT).column("State").rows(report).print();
+    }
+
+    @Benchmark
+    public void tableFixedWidth() {
+        session.table().column("Host", 24).column("Load", 4, Alignment.RIGHT).column("State", 8).rows(report).print();
+    }
+
+}
@@ -0,0 +1,78 @@
+/*
+* Copyright 2014 Dominik Foerderreuther <dominik@eleon.de>
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+* http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package de.eleon.console.builder.functional;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Validations and transformations per second of the enum and function validators and the transformers
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FunctionalBenchmark {
+
+    public enum Region { EU_CENTRAL, EU_WEST, US_EAST, US_WEST, AP_SOUTH, AP_NORTHEAST, SA_EAST, CA_CENTRAL }
+
+    private final Validator enumValidator = Validators.enumValidator(Region.class, "unknown region");
+    private final Validator functionValidator = Validators.functionValidator(Transformers.toInteger(), "no number");
+    private final Transformer<Region> toEnum = Transformers.toEnum(Region.class);
+    private final Transformer<Integer> toInteger = Transformers.toInteger();
+
+    @Benchmark
+    public boolean enumValidatorValid() {
+        return enumValidator.valid("ca_central");
+    }
+
+    @Benchmark
+    public boolean enumValidatorInvalid() {
+        return enumValidator.valid("moon_base");
+    }
+
+    @Benchmark
+    public boolean functionValidatorValid() {
+        return functionValidator.valid("42");
+    }
+
+    @Benchmark
+    public boolean functionValidatorInvalid() {
+        return functionValidator.valid("forty-two");
+    }
+
+    @Benchmark
+    public Region toEnum() {
+        return toEnum.apply("ca_central");
+    }
+
+    @Benchmark
+    public Integer toInteger() {
+        return toInteger.apply(" 42 ");
+    }
+
+}
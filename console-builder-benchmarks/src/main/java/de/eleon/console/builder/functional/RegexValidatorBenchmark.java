@@ -0,0 +1,63 @@
+/*
+* Copyright 2014 Dominik Foerderreuther <dominik@eleon.de>
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+* http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package de.eleon.console.builder.functional;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Validations per second of a regex validator. inputMatches is the former implementation which compiles the regex on
+ * every validation, regexValidator uses the precompiled pattern and dynamicRegexValidator builds the validator for
+ * every validation from the shared pattern cache.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RegexValidatorBenchmark {
+
+    private static final String REGEX = "[a-zA-Z0-9\\-]{2,}";
+    private static final String INPUT = "host-0042";
+
+    private final Validator validator = Validators.regex(REGEX, "Invalid format");
+
+    @Benchmark
+    public boolean inputMatches() {
+        return INPUT.matches(REGEX);
+    }
+
+    @Benchmark
+    public boolean regexValidator() {
+        return validator.valid(INPUT);
+    }
+
+    @Benchmark
+    public boolean dynamicRegexValidator() {
+        return Validators.regex(REGEX, "Invalid format").valid(INPUT);
+    }
+
+}
@@ -19,6 +19,7 @@ import com.google.common.base.Optional;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Range;
 import de.eleon.console.builder.ConsoleBuilder;
+import de.eleon.console.builder.FormResult;
 import de.eleon.console.builder.functional.Validator;
 import de.eleon.console.builder.functional.Validators;
 import jline.console.completer.StringsCompleter;
@@ -34,42 +35,32 @@ class Main {
 
     private Main() {
 
-        String firstName = ConsoleBuilder.ask("Please enter your first name")
-                .validateWith(Validators.notEmpty("Empty String not allowed"))
-                .validateWith(Validators.regex("[a-zA-Z0-9\\-]{2,}", "Invalid format"))
-                .useHistory()
+        FormResult record = ConsoleBuilder.form()
+                .field("firstName", ask("Please enter your first name")
+                        .validateWith(Validators.notEmpty("Empty String not allowed"))
+                        .validateWith(Validators.regex("[a-zA-Z0-9\\-]{2,}", "Invalid format"))
+                        .useHistory())
+                .field("lastName", ask("Please enter your last name")
+                        .validateWith(Validators.notEmpty("Empty String not allowed"))
+                        .validateWith(Validators.regex("[a-zA-Z0-9\\-]{2,}", "Invalid format"))
+                        .useHistory())
+                .optionalField("company", ask("Please enter your company name")
+                        .validateWith(Validators.regex("[a-zA-Z0-9\\-]{2,}", "Invalid format"))
+                        .useHistory())
+                .field("gender", ask("Please enter your gender"), Gender.class, "Please enter valid gender")
+                .field("favoriteColor", ask("What ist your favorite color?")
+                        .useHistoryFrom("color"))
+                .field("age", ask("how old are you?")
+                        .completeWith(new StringsCompleter("22", "33", "44", "55", "66"))
+                        .validateWith(validateAge("please enter valid age")), toInteger())
                 .answer();
 
-        String lastName = ConsoleBuilder.ask("Please enter your last name")
-                .validateWith(Validators.notEmpty("Empty String not allowed"))
-                .validateWith(Validators.regex("[a-zA-Z0-9\\-]{2,}", "Invalid format"))
-                .useHistory()
-                .answer();
-
-        Optional<String> company = ConsoleBuilder.ask("Please enter your company name")
-                .validateWith(Validators.regex("[a-zA-Z0-9\\-]{2,}", "Invalid format"))
-                .useHistory()
-                .optional()
-                .answer();
-
-        Gender gender = ConsoleBuilder.ask("Please enter your gender")
-                .answer(Gender.class, "Please enter valid gender");
-
-        String favoriteColor = ConsoleBuilder.ask("What ist your favorite color?")
-                .useHistoryFrom("color")
-                .answer();
-
-        Integer age = ConsoleBuilder.ask("how old are you?")
-                .completeWith(new StringsCompleter("22", "33", "44", "55", "66"))
-                .validateWith(validateAge("please enter valid age"))
-                .answer(toInteger());
-
-        ConsoleBuilder.print("First name " + firstName +
-                ", last name " + lastName +
-                ", company " + company.or("-") +
-                ", gender " + gender +
-                ", favoriteColor " + favoriteColor +
-                ", age " + age);
+        ConsoleBuilder.print("First name " + record.getString("firstName") +
+                ", last name " + record.getString("lastName") +
+                ", company " + Optional.fromNullable(record.getString("company")).or("-") +
+                ", gender " + record.get("gender", Gender.class) +
+                ", favoriteColor " + record.getString("favoriteColor") +
+                ", age " + record.get("age", Integer.class));
 
         ConsoleBuilder.newline();
         ConsoleBuilder.newline();
@@ -0,0 +1,179 @@
+/*
+* Copyright 2014 Dominik Foerderreuther <dominik@eleon.de>
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+* http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package de.eleon.console.builder;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Input whose blocking read can be aborted. Reads are passed through until the stream is made abortable for a single
+ * readLine, e.g. of an async answer. From then on a pump thread does the blocking reads of the underlying stream and
+ * hands the bytes over, so {@link #abort()} can end the wait of a read with a line separator, which lets the pending
+ * ConsoleReader.readLine return. The end of the underlying stream, e.g. of a pipe or a disconnected socket, is passed
+ * on as usual. Each reader has its own stream, so aborting it doesn't affect the input of other sessions.
+ */
+class AbortableInputStream extends FilterInputStream {
+
+    private static final int BUFFER_SIZE = 1024;
+
+    private final Object lock = new Object();
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private int position;
+    private int limit;
+    private boolean end;
+    private IOException failure;
+    private Thread pump;
+    private boolean abortable;
+    private boolean aborted;
+
+    AbortableInputStream(InputStream in) {
+        super(in);
+    }
+
+    /**
+     * Start or end the reads which can be aborted. A previous abort is discarded, so it doesn't end a later read.
+     *
+     * @param abortable true to wait for input until aborted, false to read without abort
+     */
+    void setAbortable(boolean abortable) {
+        synchronized (lock) {
+            this.aborted = false;
+            this.abortable = abortable;
+        }
+    }
+
+    /**
+     * Let the current or next read return a line separator, if the stream is abortable
+     */
+    void abort() {
+        synchronized (lock) {
+            aborted = true;
+            lock.notifyAll();
+        }
+    }
+
+    @Override
+    public int read() throws IOException {
+        byte[] single = new byte[1];
+        int read = read(single, 0, 1);
+        return read < 0 ? -1 : single[0] & 0xff;
+    }
+
+    @Override
+    public int read(byte[] bytes, int offset, int length) throws IOException {
+        if (length == 0) return 0;
+        boolean direct;
+        synchronized (lock) {
+            direct = pump == null && !abortable;
+        }
+        if (direct) {
+            return in.read(bytes, offset, length);
+        }
+        synchronized (lock) {
+            startPump();
+            try {
+                while (position == limit && !end && failure == null && !(abortable && aborted)) {
+                    lock.wait();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                aborted = abortable;
+            }
+            if (abortable && aborted) {
+                aborted = false;
+                bytes[offset] = '\n';
+                return 1;
+            }
+            if (position < limit) {
+                int read = Math.min(length, limit - position);
+                System.arraycopy(buffer, position, bytes, offset, read);
+                position += read;
+                lock.notifyAll();
+                return read;
+            }
+            if (failure != null) throw failure;
+            return -1;
+        }
+    }
+
+    @Override
+    public int available() throws IOException {
+        synchronized (lock) {
+            return pump == null ? in.available() : limit - position;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        synchronized (lock) {
+            if (pump != null) {
+                pump.interrupt();
+            }
+        }
+        super.close();
+    }
+
+    /**
+     * Start the thread reading the underlying stream. Once started, all reads take their bytes from it.
+     */
+    private void startPump() {
+        if (pump != null) return;
+        pump = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                pump();
+            }
+        }, "console-builder-input-pump");
+        pump.setDaemon(true);
+        pump.start();
+    }
+
+    private void pump() {
+        byte[] chunk = new byte[BUFFER_SIZE];
+        try {
+            while (true) {
+                int read;
+                try {
+                    read = in.read(chunk);
+                } catch (IOException e) {
+                    synchronized (lock) {
+                        failure = e;
+                        lock.notifyAll();
+                    }
+                    return;
+                }
+                synchronized (lock) {
+                    if (read < 0) {
+                        end = true;
+                        lock.notifyAll();
+                        return;
+                    }
+                    while (position < limit) {
+                        lock.wait();
+                    }
+                    System.arraycopy(chunk, 0, buffer, 0, read);
+                    position = 0;
+                    limit = read;
+                    lock.notifyAll();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+}
@@ -17,6 +17,9 @@ package de.eleon.console.builder;
 
 import com.google.common.base.Function;
 import com.google.common.base.Optional;
+import com.google.common.util.concurrent.ListenableFuture;
+
+import java.util.concurrent.Callable;
 
 import static com.google.common.base.Optional.fromNullable;
 
@@ -86,6 +89,86 @@ public class AnswerOptional {
         return fromNullable(askBuilder.answer(enumClass, validationErrorMessage));
     }
 
+    /**
+     * Ask on the input thread and return immediately
+     *
+     * @return future of the user input as Optional<String>
+     */
+    public ListenableFuture<Optional<String>> answerAsync() {
+        return askBuilder.async(new Callable<Optional<String>>() {
+            @Override
+            public Optional<String> call() {
+                return answer();
+            }
+        });
+    }
+
+    /**
+     * Ask on the input thread and return immediately
+     *
+     * @param function {@link Function} or {@link de.eleon.console.builder.functional.Transformer} for value conversion
+     * @param <T> the return type
+     * @return future of the user input as Optional<T>
+     */
+    public <T> ListenableFuture<Optional<T>> answerAsync(final Function<String, T> function) {
+        return askBuilder.async(new Callable<Optional<T>>() {
+            @Override
+            public Optional<T> call() {
+                return answer(function);
+            }
+        });
+    }
+
+    /**
+     * Ask on the input thread and return immediately
+     *
+     * @param function {@link Function} or {@link de.eleon.console.builder.functional.Transformer} for value conversion
+     * @param validationErrorMessage error message if function conversion fails
+     * @param <T> the return type
+     * @return future of the user input as Optional<T>
+     */
+    public <T> ListenableFuture<Optional<T>> answerAsync(final Function<String, T> function, final String validationErrorMessage) {
+        return askBuilder.async(new Callable<Optional<T>>() {
+            @Override
+            public Optional<T> call() {
+                return answer(function, validationErrorMessage);
+            }
+        });
+    }
+
+    /**
+     * Ask on the input thread and return immediately. Complete with enum values.
+     *
+     * @param enumClass Class of enum to return
+     * @param <T> the return type
+     * @return future of the user input as Optional enum value
+     */
+    public <T extends Enum<T>> ListenableFuture<Optional<T>> answerAsync(final Class<T> enumClass) {
+        return askBuilder.async(new Callable<Optional<T>>() {
+            @Override
+            public Optional<T> call() {
+                return answer(enumClass);
+            }
+        });
+    }
+
+    /**
+     * Ask on the input thread and return immediately. Complete with enum values.
+     *
+     * @param enumClass Class of enum to return
+     * @param validationErrorMessage error message if enum conversion fails
+     * @param <T> the return type
+     * @return future of the user input as Optional enum value
+     */
+    public <T extends Enum<T>> ListenableFuture<Optional<T>> answerAsync(final Class<T> enumClass, final String validationErrorMessage) {
+        return askBuilder.async(new Callable<Optional<T>>() {
+            @Override
+            public Optional<T> call() {
+                return answer(enumClass, validationErrorMessage);
+            }
+        });
+    }
+
     private Optional<String> optionalOf(String answer) {
         if (answer.trim().isEmpty()) return Optional.absent();
         return Optional.of(answer);
@@ -16,20 +16,34 @@
 package de.eleon.console.builder;
 
 import com.google.common.base.Function;
+import com.google.common.base.Functions;
 import com.google.common.base.Optional;
-import com.google.common.base.Predicate;
-import com.google.common.collect.FluentIterable;
-import com.google.common.collect.Iterables;
-import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import de.eleon.console.builder.completer.CompletionPipeline;
+import de.eleon.console.builder.functional.EnumLookup;
+import de.eleon.console.builder.functional.ValidationMode;
+import de.eleon.console.builder.functional.ValidationResult;
 import de.eleon.console.builder.functional.Validator;
+import de.eleon.console.builder.functional.Validators;
+import de.eleon.console.builder.history.HistoryBackend;
+import de.eleon.console.builder.script.AnswerSource;
+import de.eleon.console.builder.script.ScriptedAnswerException;
 import jline.console.completer.Completer;
-import jline.console.completer.EnumCompleter;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
 import static de.eleon.console.builder.functional.Transformers.toEnum;
-import static de.eleon.console.builder.functional.Validators.enumValidator;
-import static de.eleon.console.builder.functional.Validators.functionValidator;
 
 /**
  * Ask is a builder for a single Question console.
@@ -37,17 +51,35 @@ import static de.eleon.console.builder.functional.Validators.functionValidator;
  */
 public class AskBuilder {
 
+    /**
+     * Maximum time of a validator if validators run in parallel
+     */
+    public static final long DEFAULT_VALIDATION_TIMEOUT_SECONDS = 10;
+
+    private final ConsoleSession session;
     private final String question;
-    private final List<Validator> validators = Lists.newArrayList();
-    private final List<Completer> completers = Lists.newArrayList();
+    private final List<Validator> validators = new ArrayList<Validator>();
+    private final CompletionPipeline.Builder completers = CompletionPipeline.builder();
     private Optional<String> history = Optional.absent();
+    private HistoryBackend historyBackend = HistoryBackend.APPEND_ONLY;
     private boolean optional = false;
+    private ValidationMode validationMode = ValidationMode.COLLECT_ALL;
+    private Optional<String> id = Optional.absent();
+    private AtomicBoolean asyncCancelled;
+    private ExecutorService validationExecutor;
+    private long validationTimeoutNanos;
+
 
     static AskBuilder ask(String question) {
-        return new AskBuilder(question);
+        return ask(ConsoleBuilder.sharedSession(), question);
     }
 
-    private AskBuilder(String question) {
+    static AskBuilder ask(ConsoleSession session, String question) {
+        return new AskBuilder(session, question);
+    }
+
+    private AskBuilder(ConsoleSession session, String question) {
+        this.session = session;
         this.question = question;
     }
 
@@ -62,6 +94,55 @@ public class AskBuilder {
         return this;
     }
 
+    /**
+     * Set the id of the question. Scripted sessions look up answers by this id, default is the question itself.
+     *
+     * @param id the id
+     * @return the builder instance
+     */
+    public AskBuilder id(String id) {
+        this.id = Optional.of(id);
+        return this;
+    }
+
+    /**
+     * Stop validation at the first failing validator and print only its error message. By default all validators
+     * are evaluated and all error messages are printed.
+     *
+     * @return the builder instance
+     */
+    public AskBuilder failFast() {
+        this.validationMode = ValidationMode.FAIL_FAST;
+        return this;
+    }
+
+    /**
+     * Run validators in parallel on a shared thread pool with {@link #DEFAULT_VALIDATION_TIMEOUT_SECONDS}. Error
+     * messages are still printed in order of the validators.
+     *
+     * @return the builder instance
+     */
+    public AskBuilder validateInParallel() {
+        return validateInParallel(Validation.EXECUTOR, DEFAULT_VALIDATION_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Run validators in parallel, e.g. for slow validators which read files or indexes. A validator not finished
+     * within timeout after it started running fails with {@link Validators#TIMEOUT_MESSAGE}. With
+     * {@link #failFast()}, validators still running after the first failure are cancelled.
+     *
+     * @param executor executor running the validators, e.g. a ForkJoinPool
+     * @param timeout maximum running time of each validator
+     * @param unit unit of timeout
+     * @return the builder instance
+     */
+    public AskBuilder validateInParallel(ExecutorService executor, long timeout, TimeUnit unit) {
+        checkArgument(timeout > 0, "timeout has to be positive");
+        this.validationExecutor = checkNotNull(executor);
+        this.validationTimeoutNanos = unit.toNanos(timeout);
+        return this;
+    }
+
     /**
      * Add completer for tab completion
      *
@@ -73,6 +154,20 @@ public class AskBuilder {
         return this;
     }
 
+    /**
+     * Add completer for tab completion with priority. Completers with a lower priority are consulted first, completers
+     * with a higher priority only if they found nothing. Completers added without priority have
+     * {@link CompletionPipeline#DEFAULT_PRIORITY}.
+     *
+     * @param completer {@see Completer} to add
+     * @param priority the priority
+     * @return the builder instance
+     */
+    public AskBuilder completeWith(Completer completer, int priority) {
+        this.completers.add(completer, priority);
+        return this;
+    }
+
     /**
      * Enable usage of history. History will be saved to ~/.jline/history
      *
@@ -94,6 +189,19 @@ public class AskBuilder {
         return this;
     }
 
+    /**
+     * Enable usage of history of specific file with specific storage. History will be saved to ~/.jline/{@param file}
+     *
+     * @param file Filename as String
+     * @param backend {@link HistoryBackend} of the file, e.g. {@link HistoryBackend#MAPPED} for large histories
+     * @return the builder instance
+     */
+    public AskBuilder useHistoryFrom(String file, HistoryBackend backend) {
+        this.history = Optional.of(file);
+        this.historyBackend = backend;
+        return this;
+    }
+
     /**
      * Disable validation of empty user inputs
      *
@@ -110,7 +218,7 @@ public class AskBuilder {
      * @return user input as String
      */
     public String answer() {
-        return initConsoleAndGetAnswer();
+        return initConsoleAndGetAnswer(Functions.<String>identity(), "unknown value");
     }
 
     /**
@@ -133,8 +241,7 @@ public class AskBuilder {
      * @return user input as T
      */
     public <T> T answer(Function<String, T> function, final String validationErrorMessage) {
-        validateWith(functionValidator(function, validationErrorMessage));
-        return function.apply(answer());
+        return initConsoleAndGetAnswer(function, validationErrorMessage);
     }
 
     /**
@@ -157,100 +264,265 @@ public class AskBuilder {
      * @return user input as enum value
      */
     public <T extends Enum<T>> T answer(final Class<T> enumClass, final String validationErrorMessage) {
-        validateWith(enumValidator(enumClass, validationErrorMessage));
-        completeWith(new EnumCompleter(enumClass));
-        return toEnum(enumClass).apply(answer());
+        completeWith(EnumLookup.of(enumClass).completer());
+        return answer(toEnum(enumClass), validationErrorMessage);
     }
 
     /**
-     * Initialize console and get user input as answer
+     * Ask on the input thread and return immediately. Cancelling the future aborts the open question, its input is
+     * discarded.
      *
-     * @return user input as String
+     * @return future of the user input
      */
-    private String initConsoleAndGetAnswer() {
+    public ListenableFuture<String> answerAsync() {
+        return async(new Callable<String>() {
+            @Override
+            public String call() {
+                return answer();
+            }
+        });
+    }
 
-        ConsoleReaderWrapper consoleReaderWrapper = initConsole();
+    /**
+     * Ask on the input thread and return immediately
+     *
+     * @param function {@link Function} or {@link de.eleon.console.builder.functional.Transformer} for value conversion
+     * @param <T> the return type
+     * @return future of the user input as T
+     */
+    public <T> ListenableFuture<T> answerAsync(Function<String, T> function) {
+        return answerAsync(function, "unknown value");
+    }
 
-        String input = "";
-        boolean valid = false;
+    /**
+     * Ask on the input thread and return immediately
+     *
+     * @param function {@link Function} or {@link de.eleon.console.builder.functional.Transformer} for value conversion
+     * @param validationErrorMessage error message if function conversion fails
+     * @param <T> the return type
+     * @return future of the user input as T
+     */
+    public <T> ListenableFuture<T> answerAsync(final Function<String, T> function, final String validationErrorMessage) {
+        return async(new Callable<T>() {
+            @Override
+            public T call() {
+                return answer(function, validationErrorMessage);
+            }
+        });
+    }
+
+    /**
+     * Ask on the input thread and return immediately. Complete with enum values.
+     *
+     * @param enumClass Class of enum to return
+     * @param <T> the return type
+     * @return future of the user input as enum value
+     */
+    public <T extends Enum<T>> ListenableFuture<T> answerAsync(Class<T> enumClass) {
+        return answerAsync(enumClass, "unknown value");
+    }
+
+    /**
+     * Ask on the input thread and return immediately. Complete with enum values.
+     *
+     * @param enumClass Class of enum to return
+     * @param validationErrorMessage error message if enum conversion fails
+     * @param <T> the return type
+     * @return future of the user input as enum value
+     */
+    public <T extends Enum<T>> ListenableFuture<T> answerAsync(final Class<T> enumClass, final String validationErrorMessage) {
+        return async(new Callable<T>() {
+            @Override
+            public T call() {
+                return answer(enumClass, validationErrorMessage);
+            }
+        });
+    }
+
+    /**
+     * Run answer on the input thread of the session. Its questions are asked one after another. If the future is
+     * cancelled, the pending input is aborted. Every call has its own cancelled flag, so the builder can be asked
+     * again.
+     */
+    <T> ListenableFuture<T> async(final Callable<T> answer) {
+        final AtomicBoolean cancelled = new AtomicBoolean();
+        final ListenableFuture<T> future = session.inputExecutor().submit(new Callable<T>() {
+            @Override
+            public T call() throws Exception {
+                asyncCancelled = cancelled;
+                try {
+                    return answer.call();
+                } finally {
+                    asyncCancelled = null;
+                }
+            }
+        });
+        future.addListener(new Runnable() {
+            @Override
+            public void run() {
+                if (future.isCancelled()) {
+                    cancelled.set(true);
+                    session.abortInput(cancelled);
+                }
+            }
+        }, MoreExecutors.sameThreadExecutor());
+        return future;
+    }
+
+    /**
+     * Initialize console and get user input as answer. Each input is validated first and then converted with
+     * function. The function is applied once per input which passed the validators, its result is the answer. If it
+     * fails, validationErrorMessage is printed and the user is asked again.
+     *
+     * @param function function for value conversion
+     * @param validationErrorMessage error message if function conversion fails
+     * @param <T> the return type
+     * @return converted user input
+     */
+    private <T> T initConsoleAndGetAnswer(Function<String, T> function, String validationErrorMessage) {
+
+        Optional<AnswerSource> answerSource = session.answerSource();
+        if (answerSource.isPresent()) {
+            return scriptedAnswer(answerSource.get(), function, validationErrorMessage);
+        }
+
+        ConsoleReaderWrapper consoleReaderWrapper = initConsole();
 
-        while (!valid) {
-            input = consoleReaderWrapper.getInput();
-            valid = validate(consoleReaderWrapper, input);
-            if (!valid) {
-                consoleReaderWrapper.print("");
-                consoleReaderWrapper.print(question);
+        while (true) {
+            String input = asyncCancelled != null
+                    ? consoleReaderWrapper.getAbortableInput(asyncCancelled) : consoleReaderWrapper.getInput();
+            if (input == null) {
+                throw new EndOfInputException();
             }
+            if (optional && input.isEmpty()) {
+                return function.apply(input);
+            }
+            if (validate(consoleReaderWrapper, input)) {
+                try {
+                    return function.apply(input);
+                } catch (Exception e) {
+                    consoleReaderWrapper.beep();
+                    consoleReaderWrapper.print(validationErrorMessage);
+                }
+            }
+            consoleReaderWrapper.print("");
+            consoleReaderWrapper.print(question);
         }
+    }
 
-        consoleReaderWrapper.close();
-        return input;
+    /**
+     * Get answer from answerSource without terminal. Validate and convert it like user input, but fail instead of
+     * asking again.
+     *
+     * @param answerSource source of the answer
+     * @param function function for value conversion
+     * @param validationErrorMessage error message if function conversion fails
+     * @param <T> the return type
+     * @return converted answer
+     * @throws ScriptedAnswerException if the answer is missing or invalid
+     */
+    private <T> T scriptedAnswer(AnswerSource answerSource, Function<String, T> function, String validationErrorMessage) {
+        String id = this.id.or(question);
+        Optional<String> answer = answerSource.answer(id, question);
+        if (!answer.isPresent()) {
+            throw new ScriptedAnswerException(id, Collections.<String>emptyList());
+        }
+
+        String input = answer.get().trim();
+        if (optional && input.isEmpty()) {
+            return function.apply(input);
+        }
+        ValidationResult result = validate(input);
+        if (!result.isValid()) {
+            throw new ScriptedAnswerException(id, result.errors());
+        }
+        try {
+            return function.apply(input);
+        } catch (Exception e) {
+            throw new ScriptedAnswerException(id, Collections.singletonList(validationErrorMessage), e);
+        }
     }
 
     /**
-     * Initialize Console, write question, add completers and enable / disable history
+     * Initialize Console of the session, write question, enable / disable history and add completers
      *
      * @return Console instance
      */
     private ConsoleReaderWrapper initConsole() {
-        ConsoleReaderWrapper consoleReaderWrapper = new ConsoleReaderWrapper();
+        ConsoleReaderWrapper consoleReaderWrapper = session.consoleReaderWrapper();
         consoleReaderWrapper.print("");
         consoleReaderWrapper.print(question);
-        consoleReaderWrapper.setCompleters(completers);
         if (history.isPresent()) {
-            consoleReaderWrapper.enableHistoryFrom(history.get());
+            consoleReaderWrapper.enableHistoryFrom(history.get(), historyBackend);
         } else {
             consoleReaderWrapper.disableHistory();
         }
+        consoleReaderWrapper.setCompleters(completers.build());
         return consoleReaderWrapper;
     }
 
     /**
-     * Validate user input with available validators
+     * Get the session asking this question
      *
-     * @param consoleReaderWrapper Console to print errir messages
+     * @return the session
+     */
+    ConsoleSession session() {
+        return session;
+    }
+
+    /**
+     * Read the history and prefetch the completers of this question before it is asked
+     *
+     * @param consoleReaderWrapper the console of the session
+     */
+    void preload(ConsoleReaderWrapper consoleReaderWrapper) {
+        if (history.isPresent()) {
+            consoleReaderWrapper.preloadHistory(history.get(), historyBackend);
+        }
+        completers.build().prefetch();
+    }
+
+    /**
+     * Validate user input with available validators and print error messages
+     *
+     * @param consoleReaderWrapper Console to print error messages
      * @param input User input as String
      * @return boolean of validation result. valid == true
      */
     private boolean validate(ConsoleReaderWrapper consoleReaderWrapper, String input) {
-        Iterable<String> errors = validate(input);
-        if (!Iterables.isEmpty(errors)) {
+        ValidationResult result = validate(input);
+        if (!result.isValid()) {
             consoleReaderWrapper.beep();
-            for (String error : errors) {
+            for (String error : result.errors()) {
                 consoleReaderWrapper.print(error);
             }
-            return false;
-        } else {
-            return true;
         }
+        return result.isValid();
     }
 
     /**
-     * Validate user input with list of {@see Validator} and collect error messages if available
+     * Validate user input with list of {@see Validator}. Each validator is evaluated at most once.
      *
      * @param input user input as String
-     * @return Iterable with error messages. Empty if valid.
+     * @return the ValidationResult with the error messages
+     */
+    ValidationResult validate(String input) {
+        if (validators.isEmpty()) {
+            return ValidationResult.valid();
+        }
+        if (validationExecutor != null) {
+            return Validators.validate(validators, input, validationMode, validationExecutor, validationTimeoutNanos, TimeUnit.NANOSECONDS);
+        }
+        return Validators.validate(validators, input, validationMode);
+    }
+
+    /**
+     * Threads of parallel validators, started on the first parallel validation
      */
-    private Iterable<String> validate(final String input) {
-        if (optional && input.isEmpty()) return Lists.newArrayList();
-        return FluentIterable
-                .from(validators)
-                .filter(new Predicate<Validator>() {
-                    @Override
-                    public boolean apply(Validator validator) {
-                        try {
-                            return !validator.valid(input);
-                        } catch (Exception e) {
-                            return true;
-                        }
-                    }
-                })
-                .transform(new Function<Validator, String>() {
-                    @Override
-                    public String apply(Validator input) {
-                        return input.message();
-                    }
-                });
+    private static class Validation {
+
+        private static final ExecutorService EXECUTOR = Executors.newCachedThreadPool(
+                new ThreadFactoryBuilder().setDaemon(true).setNameFormat("console-builder-validation-%d").build());
     }
 
 }
@@ -0,0 +1,106 @@
+/*
+* Copyright 2014 Dominik Foerderreuther <dominik@eleon.de>
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+* http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package de.eleon.console.builder;
+
+import com.google.common.collect.Iterators;
+import com.google.common.collect.Lists;
+import jline.console.ConsoleReader;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Iterator;
+import java.util.List;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * ColumnPrinter prints items row by row in columns like ConsoleReader.printColumns, but pulls the items from an
+ * iterator and writes every row as soon as it is complete. Only the current row and the sample taken to compute the
+ * column width are held in memory.
+ *
+ * Items longer than the column width span several columns.
+ */
+class ColumnPrinter implements Printer {
+
+    static final int SAMPLE_SIZE = 1000;
+    static final int GAP = 3;
+
+    private final Iterator<? extends CharSequence> items;
+    private final int columnWidth;
+    private final StringBuilder row = new StringBuilder();
+
+    /**
+     * @param items to print
+     * @param columnWidth the width of a column without gap, 0 to use the longest of the first {@link #SAMPLE_SIZE}
+     *                    items
+     */
+    ColumnPrinter(Iterator<? extends CharSequence> items, int columnWidth) {
+        checkArgument(columnWidth >= 0, "columnWidth must not be negative");
+        this.items = items;
+        this.columnWidth = columnWidth;
+    }
+
+    @Override
+    public void print(Writer out, int width) throws IOException {
+        if (columnWidth > 0) {
+            print(out, width, items, columnWidth);
+            return;
+        }
+        List<CharSequence> sample = Lists.newArrayList();
+        int sampledWidth = 1;
+        while (sample.size() < SAMPLE_SIZE && items.hasNext()) {
+            CharSequence item = items.next();
+            sampledWidth = Math.max(sampledWidth, item.length());
+            sample.add(item);
+        }
+        print(out, width, Iterators.concat(sample.iterator(), items), sampledWidth);
+    }
+
+    private void print(Writer out, int width, Iterator<? extends CharSequence> items, int columnWidth) throws IOException {
+        int cell = columnWidth + GAP;
+        int columns = Math.max(1, width / cell);
+        int used = 0;
+        while (items.hasNext()) {
+            CharSequence item = items.next();
+            int cells = Math.max(1, (item.length() + GAP + cell - 1) / cell);
+            if (used > 0 && used + cells > columns) {
+                endRow(out);
+                used = 0;
+            }
+            pad(used * cell);
+            row.append(item);
+            used += cells;
+            if (used >= columns) {
+                endRow(out);
+                used = 0;
+            }
+        }
+        if (used > 0) endRow(out);
+    }
+
+    private void pad(int length) {
+        while (row.length() < length) {
+            row.append(' ');
+        }
+    }
+
+    private void endRow(Writer out) throws IOException {
+        row.append(ConsoleReader.CR);
+        out.append(row);
+        row.setLength(0);
+    }
+
+}
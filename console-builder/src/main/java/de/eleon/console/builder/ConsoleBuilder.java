@@ -1,9 +1,14 @@
 
 package de.eleon.console.builder;
 
-import de.eleon.console.builder.functional.Applyable;
+import de.eleon.console.builder.script.AnswerSource;
 
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.Collection;
+import java.util.Iterator;
+
+import static com.google.common.base.Preconditions.checkNotNull;
 
 /**
  * Use the ConsoleBuilder to build console dialogs or simply to print something on the terminal.
@@ -22,6 +27,17 @@ import java.util.Collection;
  */
 public class ConsoleBuilder {
 
+    private static final ConsoleSession SHARED_SESSION = new ConsoleSession();
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread() {
+            @Override
+            public void run() {
+                SHARED_SESSION.close();
+            }
+        });
+    }
+
     /**
      * Start new AskBuilder to build a user dialog within the terminal
      *
@@ -29,7 +45,85 @@ public class ConsoleBuilder {
      * @return the builder instance
      */
     public static AskBuilder ask(String question) {
-        return AskBuilder.ask(question);
+        return SHARED_SESSION.ask(question);
+    }
+
+    /**
+     * Start new FormBuilder to ask several questions as one form in the terminal
+     *
+     * @return the builder instance
+     */
+    public static FormBuilder form() {
+        return SHARED_SESSION.form();
+    }
+
+    /**
+     * Start new TableBuilder to print a table
+     *
+     * @return the builder instance
+     */
+    public static TableBuilder table() {
+        return SHARED_SESSION.table();
+    }
+
+    /**
+     * Show a progress bar which is redrawn in place
+     *
+     * @param label the label in front of the bar
+     * @param total the number of items to process
+     * @return the Progress to count processed items
+     */
+    public static Progress progress(String label, long total) {
+        return SHARED_SESSION.progress(label, total);
+    }
+
+    /**
+     * Show a spinner with count and throughput for work of unknown size
+     *
+     * @param label the label in front of the spinner
+     * @return the Progress to count processed items
+     */
+    public static Progress spinner(String label) {
+        return SHARED_SESSION.spinner(label);
+    }
+
+    /**
+     * Get the PrintChannel of the shared session to print from many threads without blocking
+     *
+     * @return the PrintChannel
+     */
+    public static PrintChannel channel() {
+        return SHARED_SESSION.channel();
+    }
+
+    /**
+     * Open a new session with its own terminal. Close it after usage.
+     *
+     * @return the session
+     */
+    public static ConsoleSession session() {
+        return new ConsoleSession();
+    }
+
+    /**
+     * Open a new session on streams, e.g. of a socket. The client is expected to edit and echo lines itself, input is
+     * read line by line. Close the session after usage, the streams stay open.
+     *
+     * @param in the input stream
+     * @param out the output stream
+     * @return the session
+     */
+    public static ConsoleSession session(InputStream in, OutputStream out) {
+        return new ConsoleSession(checkNotNull(in), checkNotNull(out));
+    }
+
+    /**
+     * Set the ReaderFactory creating the ConsoleReaders of sessions acquiring their terminal from now on
+     *
+     * @param readerFactory the ReaderFactory, e.g. from {@link ReaderFactories}
+     */
+    public static void readerFactory(ReaderFactory readerFactory) {
+        ReaderFactories.configure(checkNotNull(readerFactory));
     }
 
     /**
@@ -37,12 +131,8 @@ public class ConsoleBuilder {
      *
      * @param line CharSequence to print
      */
-    public static void print(final CharSequence line) {
-        print(new Applyable<ConsoleReaderWrapper>() {
-            public void apply(ConsoleReaderWrapper consoleReaderWrapper) {
-                consoleReaderWrapper.print(line);
-            }
-        });
+    public static void print(CharSequence line) {
+        SHARED_SESSION.print(line);
     }
 
     /**
@@ -50,29 +140,120 @@ public class ConsoleBuilder {
      *
      * @param columns Collections of CharSequences to print
      */
-    public static void print(final Collection<? extends CharSequence> columns) {
-        print(new Applyable<ConsoleReaderWrapper>() {
-            public void apply(ConsoleReaderWrapper consoleReaderWrapper) {
-                consoleReaderWrapper.print(columns);
-            }
-        });
+    public static void print(Collection<? extends CharSequence> columns) {
+        SHARED_SESSION.print(columns);
+    }
+
+    /**
+     * Print items in columns row by row as they are iterated, without collecting them first
+     *
+     * @param items Iterable of CharSequences to print
+     */
+    public static void printColumns(Iterable<? extends CharSequence> items) {
+        SHARED_SESSION.printColumns(items);
+    }
+
+    /**
+     * Print items in columns row by row as they are iterated, without collecting them first
+     *
+     * @param items Iterator of CharSequences to print
+     */
+    public static void printColumns(Iterator<? extends CharSequence> items) {
+        SHARED_SESSION.printColumns(items);
+    }
+
+    /**
+     * Print items in columns of fixed width row by row as they are iterated
+     *
+     * @param items Iterable of CharSequences to print
+     * @param columnWidth width of a column
+     */
+    public static void printColumns(Iterable<? extends CharSequence> items, int columnWidth) {
+        SHARED_SESSION.printColumns(items, columnWidth);
+    }
+
+    /**
+     * Print items in columns of fixed width row by row as they are iterated
+     *
+     * @param items Iterator of CharSequences to print
+     * @param columnWidth width of a column
+     */
+    public static void printColumns(Iterator<? extends CharSequence> items, int columnWidth) {
+        SHARED_SESSION.printColumns(items, columnWidth);
     }
 
     /**
      * Print empty line
      */
     public static void newline() {
-        print("");
+        SHARED_SESSION.newline();
+    }
+
+    /**
+     * Show lines page by page with the height of the terminal. Lines are read from the iterator only when they are
+     * shown, a {@link java.io.Closeable} iterator is closed when the user quits.
+     *
+     * @param lines Iterator of CharSequences to show
+     */
+    public static void page(Iterator<? extends CharSequence> lines) {
+        SHARED_SESSION.page(lines);
+    }
+
+    /**
+     * Show lines page by page with the height of the terminal
+     *
+     * @param lines Iterable of CharSequences to show
+     */
+    public static void page(Iterable<? extends CharSequence> lines) {
+        SHARED_SESSION.page(lines);
+    }
+
+    /**
+     * Set the policy when lines printed with the static methods are flushed to the terminal
+     *
+     * @param outputPolicy the OutputPolicy
+     */
+    public static void outputPolicy(OutputPolicy outputPolicy) {
+        SHARED_SESSION.outputPolicy(outputPolicy);
+    }
+
+    /**
+     * Answer questions of the static methods from answerSource instead of the terminal, e.g. in batch runs
+     *
+     * @param answerSource the AnswerSource
+     * @see ConsoleSession#answerFrom(AnswerSource)
+     */
+    public static void answerFrom(AnswerSource answerSource) {
+        SHARED_SESSION.answerFrom(answerSource);
+    }
+
+    /**
+     * Answer questions of the static methods from the terminal again
+     */
+    public static void interactive() {
+        SHARED_SESSION.interactive();
+    }
+
+    /**
+     * Write lines buffered by the static print methods to the terminal
+     */
+    public static void flush() {
+        SHARED_SESSION.flush();
+    }
+
+    /**
+     * Release the terminal of the shared session used by the static methods. It will be acquired again on next usage.
+     */
+    public static void close() {
+        SHARED_SESSION.close();
     }
 
     /**
-     * print applyable
+     * Get the shared session used by the static methods
      *
-     * @param applyable Applyable with print method
+     * @return the shared session
      */
-    private static void print(Applyable<ConsoleReaderWrapper> applyable) {
-        ConsoleReaderWrapper consoleReaderWrapper = new ConsoleReaderWrapper();
-        applyable.apply(consoleReaderWrapper);
-        consoleReaderWrapper.close();
+    static ConsoleSession sharedSession() {
+        return SHARED_SESSION;
     }
 }
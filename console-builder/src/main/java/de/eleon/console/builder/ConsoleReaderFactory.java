@@ -1,12 +1,26 @@
 package de.eleon.console.builder;
 
+import jline.UnsupportedTerminal;
 import jline.console.ConsoleReader;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 
 class ConsoleReaderFactory {
 
-    static ConsoleReader get() throws IOException {
-        return new ConsoleReader();
+    /**
+     * Create ConsoleReader with factory, which the reader has to be released to
+     */
+    static ConsoleReader get(ReaderFactory factory) throws IOException {
+        return factory.create();
+    }
+
+    /**
+     * Create ConsoleReader on arbitrary streams, e.g. of a socket. There is no terminal to control, the client is
+     * expected to edit and echo lines itself.
+     */
+    static ConsoleReader get(InputStream in, OutputStream out) throws IOException {
+        return SearchingConsoleReader.abortable(in, out, new UnsupportedTerminal());
     }
 }
@@ -15,42 +15,143 @@
 */
 package de.eleon.console.builder;
 
-import com.google.common.collect.Iterables;
+import com.google.common.base.Strings;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import de.eleon.console.builder.completer.CompletionPipeline;
+import de.eleon.console.builder.completer.HistoryAwareCompleter;
+import de.eleon.console.builder.completer.PrefetchingCompleter;
+import de.eleon.console.builder.history.HistoryBackend;
+import de.eleon.console.builder.history.HistoryView;
+import jline.Terminal;
+import jline.TerminalSupport;
 import jline.console.ConsoleReader;
-import jline.console.completer.AggregateCompleter;
+import jline.console.CursorBuffer;
 import jline.console.completer.Completer;
-import jline.console.history.FileHistory;
 import jline.console.history.MemoryHistory;
+import jline.console.history.PersistentHistory;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.Collection;
+import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static com.google.common.base.Preconditions.checkNotNull;
 
 /**
- * ConsoleReaderWrapper is a Wrapper around ConsoleReader. It capsules IOExceptions into Runtime Exceptions and facilitate usage of history. ConsoleReaderWrapper is a singleton.
+ * ConsoleReaderWrapper is a Wrapper around ConsoleReader. It capsules IOExceptions into Runtime Exceptions and facilitate usage of history. Each ConsoleSession has its own ConsoleReaderWrapper.
  */
 class ConsoleReaderWrapper {
 
-    private FileHistory history;
+    private static final ConcurrentMap<String, PersistentHistory> HISTORIES = new ConcurrentHashMap<String, PersistentHistory>();
+
+    private final OutputBuffer output = new OutputBuffer();
+    private String status;
+    private final Object readLock = new Object();
+    private volatile boolean reading = false;
+    private boolean aborted = false;
+    private AtomicBoolean abortableBy;
+    private PersistentHistory history;
     private ConsoleReader consoleReader;
+    private final ReaderFactory factory;
 
     public ConsoleReaderWrapper() {
+        this(ReaderFactories.configured());
+    }
+
+    private ConsoleReaderWrapper(ReaderFactory factory) {
+        this(createConsoleReader(factory), factory);
+    }
+
+    ConsoleReaderWrapper(InputStream in, OutputStream out) {
+        this(createConsoleReader(in, out));
+    }
+
+    ConsoleReaderWrapper(ConsoleReader consoleReader) {
+        this(consoleReader, null);
+    }
+
+    private ConsoleReaderWrapper(ConsoleReader consoleReader, ReaderFactory factory) {
+        this.consoleReader = consoleReader;
+        this.factory = factory;
+        this.init();
+    }
+
+    private static ConsoleReader createConsoleReader(ReaderFactory factory) {
         try {
-            this.consoleReader = ConsoleReaderFactory.get();
+            return ConsoleReaderFactory.get(factory);
+        } catch (IOException e) {
+            throw new IllegalStateException("Can't create console", e);
+        }
+    }
+
+    private static ConsoleReader createConsoleReader(InputStream in, OutputStream out) {
+        try {
+            return ConsoleReaderFactory.get(in, out);
         } catch (IOException e) {
             throw new IllegalStateException("Can't create console", e);
         }
-        this.init();
     }
 
     void init() {
         consoleReader.setPrompt("> ");
+        consoleReader.setCompletionHandler(new PreservingCompletionHandler());
     }
 
+    /**
+     * Enable history of file ~/.jline/{@param file} with the default {@link HistoryBackend#APPEND_ONLY}.
+     *
+     * @param file Filename as String
+     */
     void enableHistoryFrom(String file) {
+        enableHistoryFrom(file, HistoryBackend.APPEND_ONLY);
+    }
+
+    /**
+     * Enable history of file ~/.jline/{@param file}. The entries are shared with all questions using the same file,
+     * the backend of the first question opening the file is used. Each question navigates the entries with its own
+     * {@link HistoryView}, so sessions don't move each other's position in the history.
+     *
+     * @param file Filename as String
+     * @param backend Storage of the history
+     */
+    void enableHistoryFrom(String file, HistoryBackend backend) {
+        history = new HistoryView(historyFrom(file, backend));
+        consoleReader.setHistory(history);
+        consoleReader.setHistoryEnabled(true);
+    }
+
+    /**
+     * Open and read the history of file ~/.jline/{@param file} without enabling it
+     *
+     * @param file Filename as String
+     * @param backend Storage of the history
+     */
+    void preloadHistory(String file, HistoryBackend backend) {
+        historyFrom(file, backend).size();
+    }
+
+    private static PersistentHistory historyFrom(String file, HistoryBackend backend) {
+        PersistentHistory history = HISTORIES.get(file);
+        if (history == null) {
+            HISTORIES.putIfAbsent(file, backend.open(historyFile(file).toFile()));
+            history = HISTORIES.get(file);
+        }
+        return history;
+    }
+
+    private static Path historyFile(String file) {
         try {
             Path directory = Paths.get(System.getProperty("user.home"), ".jline");
             Path historyFile = Paths.get(directory.toString(), file);
@@ -60,15 +161,14 @@ class ConsoleReaderWrapper {
             if (!historyFile.toFile().exists()) {
                 Files.createFile(historyFile);
             }
-            history = new FileHistory(historyFile.toFile());
-            consoleReader.setHistory(history);
-            consoleReader.setHistoryEnabled(true);
+            return historyFile;
         } catch (IOException e) {
             throw new IllegalStateException("Can't create history file", e);
         }
     }
 
     void disableHistory() {
+        history = null;
         consoleReader.setHistory(new MemoryHistory());
         consoleReader.setHistoryEnabled(false);
     }
@@ -92,25 +192,166 @@ class ConsoleReaderWrapper {
     }
 
     /**
-     * Print charSequence to console
+     * Set the policy when printed lines are flushed. Pending lines are flushed before the policy changes.
+     *
+     * @param policy the OutputPolicy
+     */
+    public void setOutputPolicy(OutputPolicy policy) {
+        synchronized (output) {
+            if (!output.isEmpty()) {
+                flush();
+            }
+            output.policy(policy);
+        }
+    }
+
+    /**
+     * Print charSequence to console. Depending on the {@link OutputPolicy} the line is buffered and flushed later.
      *
      * @param charSequence to print
      */
     public void print(CharSequence charSequence) {
+        synchronized (output) {
+            if (output.policy() == OutputPolicy.LINE) {
+                printLine(charSequence);
+                return;
+            }
+            boolean firstPending = output.isEmpty();
+            if (output.append(charSequence)) {
+                flush();
+            } else if (firstPending) {
+                scheduleFlush();
+            }
+        }
+    }
+
+    private void printLine(CharSequence charSequence) {
         try {
+            eraseStatus();
             consoleReader.println(charSequence);
+            redrawStatus();
             consoleReader.flush();
         } catch (IOException e) {
             throw new IllegalStateException("Can't write to console", e);
         }
     }
 
+    private void scheduleFlush() {
+        Flusher.EXECUTOR.schedule(new Runnable() {
+            @Override
+            public void run() {
+                flush();
+            }
+        }, OutputBuffer.TIME_THRESHOLD_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Write buffered lines to console
+     */
+    public void flush() {
+        synchronized (output) {
+            try {
+                if (!output.isEmpty()) {
+                    eraseStatus();
+                    consoleReader.print(output.contents());
+                    output.clear();
+                    redrawStatus();
+                }
+                consoleReader.flush();
+            } catch (IOException e) {
+                throw new IllegalStateException("Can't write to console", e);
+            }
+        }
+    }
+
+    /**
+     * Print lines while a question may be open. The prompt line is erased, the lines are printed and the prompt is
+     * drawn again with the input typed so far.
+     *
+     * @param lines to print
+     */
+    public void printAbovePrompt(List<? extends CharSequence> lines) {
+        synchronized (output) {
+            flush();
+            try {
+                boolean prompt = reading;
+                if (prompt) {
+                    CursorBuffer buffer = consoleReader.getCursorBuffer();
+                    int length = Strings.nullToEmpty(consoleReader.getPrompt()).length() + (buffer == null ? 0 : buffer.length());
+                    consoleReader.print("\r" + Strings.repeat(" ", length) + "\r");
+                }
+                eraseStatus();
+                for (CharSequence line : lines) {
+                    consoleReader.println(line);
+                }
+                redrawStatus();
+                if (prompt) {
+                    consoleReader.drawLine();
+                }
+                consoleReader.flush();
+            } catch (IOException e) {
+                throw new IllegalStateException("Can't write to console", e);
+            }
+        }
+    }
+
+    /**
+     * Show line as status line, e.g. a progress bar. The status line is redrawn in place with carriage return and stays
+     * below lines printed meanwhile.
+     *
+     * @param line the status line
+     */
+    public void status(CharSequence line) {
+        synchronized (output) {
+            flush();
+            try {
+                int previous = status == null ? 0 : status.length();
+                status = line.toString();
+                consoleReader.print("\r" + status + Strings.repeat(" ", Math.max(0, previous - status.length())));
+                consoleReader.flush();
+            } catch (IOException e) {
+                throw new IllegalStateException("Can't write to console", e);
+            }
+        }
+    }
+
+    /**
+     * Show the final status line and keep it as a normal line
+     *
+     * @param line the final status line
+     */
+    public void endStatus(CharSequence line) {
+        synchronized (output) {
+            status(line);
+            status = null;
+            try {
+                consoleReader.println();
+                consoleReader.flush();
+            } catch (IOException e) {
+                throw new IllegalStateException("Can't write to console", e);
+            }
+        }
+    }
+
+    private void eraseStatus() throws IOException {
+        if (status != null) {
+            consoleReader.print("\r" + Strings.repeat(" ", status.length()) + "\r");
+        }
+    }
+
+    private void redrawStatus() throws IOException {
+        if (status != null) {
+            consoleReader.print(status);
+        }
+    }
+
     /**
      * Print columns to console
      *
      * @param columns Collection of CharSequences to print
      */
     public void print(Collection<? extends CharSequence> columns) {
+        flush();
         try {
             consoleReader.printColumns(columns);
             consoleReader.flush();
@@ -120,20 +361,82 @@ class ConsoleReaderWrapper {
     }
 
     /**
-     * Remove all completers and add the new ones. If completers contains more then one element create an AggregateCompleter with the completers and add it.
+     * Print items in columns row by row without collecting them first
+     *
+     * @param items to print
+     * @param columnWidth width of a column, 0 to use the longest of the first items
+     */
+    public void printColumns(Iterator<? extends CharSequence> items, int columnWidth) {
+        print(new ColumnPrinter(items, columnWidth));
+    }
+
+    /**
+     * Let printer write to the buffered output writer of the ConsoleReader. Lines printed before are flushed.
+     *
+     * @param printer the Printer
+     */
+    public void print(Printer printer) {
+        synchronized (output) {
+            flush();
+            try {
+                eraseStatus();
+                printer.print(consoleReader.getOutput(), terminalWidth());
+                redrawStatus();
+                consoleReader.flush();
+            } catch (IOException e) {
+                throw new IllegalStateException("Can't write to console", e);
+            }
+        }
+    }
+
+    /**
+     * Show lines page by page. Lines printed before are flushed.
+     *
+     * @param lines to show
+     */
+    public void page(Iterator<? extends CharSequence> lines) {
+        synchronized (output) {
+            flush();
+            try {
+                new Pager(consoleReader).page(lines);
+            } catch (IOException e) {
+                throw new IllegalStateException("Can't page on console", e);
+            }
+        }
+    }
+
+    private int terminalWidth() {
+        Terminal terminal = consoleReader.getTerminal();
+        return terminal != null ? terminal.getWidth() : TerminalSupport.DEFAULT_WIDTH;
+    }
+
+    /**
+     * Remove all completers and add the new ones. Completers are merged into a {@link CompletionPipeline} with equal
+     * priority.
      *
      * @param completers to add
      */
     public void setCompleters(List<Completer> completers) {
+        setCompleters(CompletionPipeline.of(completers));
+    }
+
+    /**
+     * Remove all completers and add the pipeline, so each completer runs once per completion.
+     * {@link HistoryAwareCompleter}s use the history enabled before, {@link PrefetchingCompleter}s start loading their
+     * candidates.
+     *
+     * @param pipeline to add
+     */
+    public void setCompleters(CompletionPipeline pipeline) {
+        if (history != null) {
+            pipeline = pipeline.withHistory(history);
+        }
+        pipeline.prefetch();
         for (Completer completer : consoleReader.getCompleters()) {
             consoleReader.removeCompleter(completer);
         }
-        if (Iterables.size(completers) > 1) {
-            Completer completer = new AggregateCompleter(completers);
-            consoleReader.addCompleter(completer);
-        }
-        for (Completer completer : completers) {
-            consoleReader.addCompleter(completer);
+        if (!pipeline.isEmpty()) {
+            consoleReader.addCompleter(pipeline.toCompleter());
         }
     }
 
@@ -143,8 +446,52 @@ class ConsoleReaderWrapper {
      * @return the user input
      */
     public String getInput() {
+        return readInput(null);
+    }
+
+    /**
+     * Get User input which can be aborted by {@link #abortInput(AtomicBoolean)} with the same flag. If cancelled is
+     * already set, no input is read.
+     *
+     * @param cancelled the cancelled flag of the async answer asking for input
+     * @return the user input
+     */
+    public String getAbortableInput(AtomicBoolean cancelled) {
+        return readInput(checkNotNull(cancelled));
+    }
+
+    private String readInput(AtomicBoolean cancelled) {
+        flush();
+        AbortableInputStream input = cancelled == null ? null : abortableInput();
         try {
-            String ret = consoleReader.readLine();
+            String ret;
+            boolean wasAborted;
+            synchronized (readLock) {
+                if (cancelled != null && cancelled.get()) {
+                    throw new CancellationException("Input was aborted");
+                }
+                aborted = false;
+                abortableBy = cancelled;
+                reading = true;
+                if (input != null) {
+                    input.setAbortable(true);
+                }
+            }
+            try {
+                ret = consoleReader.readLine();
+            } finally {
+                synchronized (readLock) {
+                    wasAborted = aborted || (input != null && Thread.currentThread().isInterrupted());
+                    reading = false;
+                    abortableBy = null;
+                    if (input != null) {
+                        input.setAbortable(false);
+                    }
+                }
+            }
+            if (wasAborted) {
+                throw new CancellationException("Input was aborted");
+            }
             if (ret != null) {
                 ret = ret.trim();
             }
@@ -158,11 +505,47 @@ class ConsoleReaderWrapper {
         }
     }
 
+    /**
+     * Abort the input of a pending async answer, if there is one
+     */
+    void abortInput() {
+        synchronized (readLock) {
+            if (abortableBy != null) {
+                abortInput(abortableBy);
+            }
+        }
+    }
+
+    /**
+     * Abort the pending {@link #getAbortableInput(AtomicBoolean)} of an async answer, it throws a
+     * CancellationException and its input is discarded. The flag has to be set before, so a read starting later
+     * isn't started at all. If the read already returned, nothing happens. On a reader of the terminal or of a
+     * session stream the read returns immediately, otherwise with the next line.
+     *
+     * @param cancelled the cancelled flag of the async answer whose input is aborted
+     */
+    public void abortInput(AtomicBoolean cancelled) {
+        synchronized (readLock) {
+            if (reading && abortableBy == cancelled) {
+                aborted = true;
+                AbortableInputStream input = abortableInput();
+                if (input != null) {
+                    input.abort();
+                }
+            }
+        }
+    }
+
+    private AbortableInputStream abortableInput() {
+        return consoleReader instanceof SearchingConsoleReader ? ((SearchingConsoleReader) consoleReader).abortableInput() : null;
+    }
+
     /**
      * Make beep sound if supported.
      *
      */
     public void beep() {
+        flush();
         try {
             consoleReader.beep();
         } catch (IOException e) {
@@ -171,8 +554,28 @@ class ConsoleReaderWrapper {
     }
 
 
+    /**
+     * Abort the input of a pending async answer, flush and release the ConsoleReader. A reader of a
+     * {@link ReaderFactory} is given back to the factory which created it, even if another factory is configured
+     * meanwhile.
+     */
     public void close() {
-        consoleReader.shutdown();
+        abortInput();
+        flush();
+        if (factory != null) {
+            factory.release(consoleReader);
+        } else {
+            consoleReader.shutdown();
+        }
+    }
+
+    /**
+     * Holder of the flush thread, so the thread is not set up before output is buffered
+     */
+    private static class Flusher {
+
+        private static final ScheduledExecutorService EXECUTOR = Executors.newSingleThreadScheduledExecutor(
+                new ThreadFactoryBuilder().setDaemon(true).setNameFormat("console-builder-flush").build());
     }
 
 }
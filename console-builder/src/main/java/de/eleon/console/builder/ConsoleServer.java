@@ -0,0 +1,239 @@
+/*
+* Copyright 2014 Dominik Foerderreuther <dominik@eleon.de>
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+* http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package de.eleon.console.builder;
+
+import com.google.common.collect.Sets;
+import com.google.common.io.Closeables;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * ConsoleServer runs a {@link Dialog} for every client connecting to a socket, e.g. with telnet or netcat. Every
+ * connection gets its own {@link ConsoleSession}, so sessions don't share prompt, completers or their position in a
+ * history. Entries of a history file are shared by all sessions.
+ *
+ * Example:
+ *
+ *    ConsoleServer server = ConsoleServer.start(4711, new Dialog() {
+ *        public void run(ConsoleSession session) {
+ *            String name = session.ask("What is your Name?").answer();
+ *            session.print("Hello " + name);
+ *        }
+ *    });
+ *
+ * Dialogs run on a pool of at most maxSessions threads. A client connecting while maxSessions dialogs are running is
+ * told so and disconnected. Idle threads end after a minute.
+ */
+public class ConsoleServer implements Closeable {
+
+    public static final int DEFAULT_MAX_SESSIONS = 100;
+
+    static final String BUSY = "Too many sessions, try again later";
+    static final long ACCEPT_BACKOFF_MILLIS = 100;
+
+    private final ServerSocket serverSocket;
+    private final Dialog dialog;
+    private final Semaphore sessions;
+    private final ExecutorService executor;
+    private final Set<Socket> connections = Sets.newSetFromMap(new ConcurrentHashMap<Socket, Boolean>());
+
+    private ConsoleServer(ServerSocket serverSocket, Dialog dialog, int maxSessions) {
+        this.serverSocket = serverSocket;
+        this.dialog = dialog;
+        this.sessions = new Semaphore(maxSessions);
+        ThreadFactory threads = new ThreadFactoryBuilder().setDaemon(true).setNameFormat("console-builder-session-%d").build();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(maxSessions + 1, maxSessions + 1, 1, TimeUnit.MINUTES,
+                new LinkedBlockingQueue<Runnable>(), threads);
+        executor.allowCoreThreadTimeOut(true);
+        this.executor = executor;
+    }
+
+    /**
+     * Start server on a local port with {@link #DEFAULT_MAX_SESSIONS}
+     *
+     * @param port the port, 0 for any free port
+     * @param dialog the Dialog to run for every client
+     * @return the running server
+     * @throws IOException if the port can't be bound
+     */
+    public static ConsoleServer start(int port, Dialog dialog) throws IOException {
+        return start(port, DEFAULT_MAX_SESSIONS, dialog);
+    }
+
+    /**
+     * Start server on a local port
+     *
+     * @param port the port, 0 for any free port
+     * @param maxSessions maximum number of concurrent dialogs
+     * @param dialog the Dialog to run for every client
+     * @return the running server
+     * @throws IOException if the port can't be bound
+     */
+    public static ConsoleServer start(int port, int maxSessions, Dialog dialog) throws IOException {
+        return start(new ServerSocket(port, 50, InetAddress.getLoopbackAddress()), maxSessions, dialog);
+    }
+
+    /**
+     * Start server on a bound server socket
+     *
+     * @param serverSocket the bound ServerSocket, it's closed with the server
+     * @param maxSessions maximum number of concurrent dialogs
+     * @param dialog the Dialog to run for every client
+     * @return the running server
+     */
+    public static ConsoleServer start(ServerSocket serverSocket, int maxSessions, Dialog dialog) {
+        checkArgument(maxSessions > 0, "maxSessions has to be positive");
+        final ConsoleServer server = new ConsoleServer(checkNotNull(serverSocket), checkNotNull(dialog), maxSessions);
+        server.executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                server.accept();
+            }
+        });
+        return server;
+    }
+
+    /**
+     * @return the local port the server listens on
+     */
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * @return number of connected clients
+     */
+    public int connections() {
+        return connections.size();
+    }
+
+    /**
+     * Stop accepting clients and disconnect all connected clients
+     */
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+        for (Socket socket : connections) {
+            Closeables.close(socket, true);
+        }
+        executor.shutdownNow();
+    }
+
+    private void accept() {
+        while (!serverSocket.isClosed()) {
+            final Socket socket;
+            try {
+                socket = serverSocket.accept();
+            } catch (IOException e) {
+                if (serverSocket.isClosed() || !backOff()) return;
+                continue;
+            }
+            if (!sessions.tryAcquire()) {
+                reject(socket);
+                continue;
+            }
+            connections.add(socket);
+            try {
+                executor.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        try {
+                            serve(socket);
+                        } finally {
+                            connections.remove(socket);
+                            sessions.release();
+                        }
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                connections.remove(socket);
+                sessions.release();
+                reject(socket);
+            }
+        }
+    }
+
+    /**
+     * Wait after a failed accept, e.g. if the process is out of file descriptors
+     *
+     * @return false if interrupted by {@link #close()}
+     */
+    private boolean backOff() {
+        try {
+            Thread.sleep(ACCEPT_BACKOFF_MILLIS);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private void serve(Socket socket) {
+        try {
+            ConsoleSession session = ConsoleBuilder.session(socket.getInputStream(), socket.getOutputStream());
+            try {
+                dialog.run(session);
+            } finally {
+                session.close();
+            }
+        } catch (EndOfInputException e) {
+            // the client closed its input while a question was open
+        } catch (Exception e) {
+            // the client disconnected or the dialog failed, the connection is closed anyway
+        } finally {
+            closeQuietly(socket);
+        }
+    }
+
+    private void reject(Socket socket) {
+        try {
+            OutputStream out = socket.getOutputStream();
+            out.write((BUSY + "\n").getBytes());
+            out.flush();
+        } catch (IOException e) {
+            // the client is disconnected anyway
+        } finally {
+            closeQuietly(socket);
+        }
+    }
+
+    private static void closeQuietly(Socket socket) {
+        try {
+            Closeables.close(socket, true);
+        } catch (IOException e) {
+            // can't happen, exceptions are swallowed
+        }
+    }
+
+}
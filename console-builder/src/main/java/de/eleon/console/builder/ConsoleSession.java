@@ -0,0 +1,450 @@
+/*
+* Copyright 2014 Dominik Foerderreuther <dominik@eleon.de>
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+* http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package de.eleon.console.builder;
+
+import com.google.common.base.Joiner;
+import com.google.common.base.Optional;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import de.eleon.console.builder.script.AnswerSource;
+import jline.TerminalSupport;
+import jline.console.ConsoleReader;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * A ConsoleSession owns one terminal for its whole lifetime. All questions and prints of a session share the same
+ * jline ConsoleReader, so the terminal is initialized once instead of once per call.
+ *
+ * Example:
+ *
+ *    ConsoleSession session = ConsoleBuilder.session();
+ *    try {
+ *        String name = session.ask("What is your Name?").answer();
+ *        session.print("Hello " + name);
+ *    } finally {
+ *        session.close();
+ *    }
+ *
+ * The terminal is acquired lazily on first use and released by {@link #close()}. A closed session acquires a new
+ * terminal if it is used again.
+ *
+ * A session created with {@link ConsoleBuilder#session(InputStream, OutputStream)} reads and writes the given streams
+ * instead of the terminal.
+ *
+ * A session answering from an {@link AnswerSource} (see {@link #answerFrom(AnswerSource)}) does not use a terminal at
+ * all. Its questions are answered by the source and its prints go to standard output.
+ */
+public class ConsoleSession implements Closeable {
+
+    private ConsoleReaderWrapper consoleReaderWrapper;
+    private OutputPolicy outputPolicy = OutputPolicy.LINE;
+    private Optional<AnswerSource> answerSource = Optional.absent();
+    private PrintChannel channel;
+    private ListeningExecutorService inputExecutor;
+    private final InputStream in;
+    private final OutputStream out;
+
+    ConsoleSession() {
+        this(null, null);
+    }
+
+    /**
+     * Create session on streams instead of the terminal, e.g. on a socket
+     *
+     * @param in the input stream
+     * @param out the output stream
+     */
+    ConsoleSession(InputStream in, OutputStream out) {
+        this.in = in;
+        this.out = out;
+    }
+
+    /**
+     * Create session on an existing ConsoleReaderWrapper, e.g. on a headless console
+     *
+     * @param consoleReaderWrapper the ConsoleReaderWrapper
+     */
+    ConsoleSession(ConsoleReaderWrapper consoleReaderWrapper) {
+        this();
+        this.consoleReaderWrapper = consoleReaderWrapper;
+    }
+
+    /**
+     * Start new AskBuilder to build a user dialog within this session
+     *
+     * @param question The question to ask
+     * @return the builder instance
+     */
+    public AskBuilder ask(String question) {
+        return AskBuilder.ask(this, question);
+    }
+
+    /**
+     * Start new FormBuilder to ask several questions as one form within this session
+     *
+     * @return the builder instance
+     */
+    public FormBuilder form() {
+        return FormBuilder.form(this);
+    }
+
+    /**
+     * Start new TableBuilder to print a table within this session
+     *
+     * @return the builder instance
+     */
+    public TableBuilder table() {
+        return TableBuilder.table(this);
+    }
+
+    /**
+     * Show a progress bar which is redrawn in place
+     *
+     * @param label the label in front of the bar
+     * @param total the number of items to process
+     * @return the Progress to count processed items
+     */
+    public Progress progress(String label, long total) {
+        checkArgument(total > 0, "total has to be positive");
+        return Progress.start(this, label, total);
+    }
+
+    /**
+     * Show a spinner with count and throughput for work of unknown size
+     *
+     * @param label the label in front of the spinner
+     * @return the Progress to count processed items
+     */
+    public Progress spinner(String label) {
+        return Progress.start(this, label, -1);
+    }
+
+    /**
+     * Get the PrintChannel of this session to print from many threads without blocking
+     *
+     * @return the PrintChannel
+     */
+    public synchronized PrintChannel channel() {
+        if (channel == null) {
+            channel = new PrintChannel(this);
+        }
+        return channel;
+    }
+
+    /**
+     * Print line to console
+     *
+     * @param line CharSequence to print
+     */
+    public void print(CharSequence line) {
+        if (isScripted()) {
+            System.out.println(line);
+        } else {
+            consoleReaderWrapper().print(line);
+        }
+    }
+
+    /**
+     * Print columns to console
+     *
+     * @param columns Collections of CharSequences to print
+     */
+    public void print(Collection<? extends CharSequence> columns) {
+        if (isScripted()) {
+            System.out.println(Joiner.on("  ").join(columns));
+        } else {
+            consoleReaderWrapper().print(columns);
+        }
+    }
+
+    /**
+     * Print items in columns. The items are printed row by row as they are iterated, the column width is the width of
+     * the longest of the first 1000 items.
+     *
+     * @param items Iterable of CharSequences to print
+     */
+    public void printColumns(Iterable<? extends CharSequence> items) {
+        printColumns(items.iterator());
+    }
+
+    /**
+     * Print items in columns. The items are printed row by row as they are iterated, the column width is the width of
+     * the longest of the first 1000 items.
+     *
+     * @param items Iterator of CharSequences to print
+     */
+    public void printColumns(Iterator<? extends CharSequence> items) {
+        printColumns(items, 0);
+    }
+
+    /**
+     * Print items in columns of fixed width. The items are printed row by row as they are iterated, longer items span
+     * several columns.
+     *
+     * @param items Iterable of CharSequences to print
+     * @param columnWidth width of a column
+     */
+    public void printColumns(Iterable<? extends CharSequence> items, int columnWidth) {
+        printColumns(items.iterator(), columnWidth);
+    }
+
+    /**
+     * Print items in columns of fixed width. The items are printed row by row as they are iterated, longer items span
+     * several columns.
+     *
+     * @param items Iterator of CharSequences to print
+     * @param columnWidth width of a column
+     */
+    public void printColumns(Iterator<? extends CharSequence> items, int columnWidth) {
+        print(new ColumnPrinter(items, columnWidth));
+    }
+
+    /**
+     * Show lines page by page. Lines are read from the iterator only when they are shown, a {@link java.io.Closeable}
+     * iterator is closed when the user quits. A scripted session prints all lines.
+     *
+     * @param lines Iterator of CharSequences to show
+     */
+    public void page(final Iterator<? extends CharSequence> lines) {
+        if (!isScripted()) {
+            consoleReaderWrapper().page(lines);
+            return;
+        }
+        print(new Printer() {
+            @Override
+            public void print(Writer out, int width) throws IOException {
+                while (lines.hasNext()) {
+                    out.append(lines.next()).append(ConsoleReader.CR);
+                }
+            }
+        });
+    }
+
+    /**
+     * Show lines page by page
+     *
+     * @param lines Iterable of CharSequences to show
+     */
+    public void page(Iterable<? extends CharSequence> lines) {
+        page(lines.iterator());
+    }
+
+    /**
+     * Print lines above the prompt of an open question
+     *
+     * @param lines to print
+     */
+    void printAbovePrompt(List<? extends CharSequence> lines) {
+        if (isScripted()) {
+            for (CharSequence line : lines) {
+                System.out.println(line);
+            }
+        } else {
+            consoleReaderWrapper().printAbovePrompt(lines);
+        }
+    }
+
+    /**
+     * Redraw status line in place. Scripted sessions only print the final status line.
+     *
+     * @param line the status line
+     */
+    void status(CharSequence line) {
+        if (!isScripted()) {
+            consoleReaderWrapper().status(line);
+        }
+    }
+
+    void endStatus(CharSequence line) {
+        if (isScripted()) {
+            System.out.println(line);
+        } else {
+            consoleReaderWrapper().endStatus(line);
+        }
+    }
+
+    /**
+     * Let printer write to the terminal, or to standard output if the session is scripted
+     *
+     * @param printer the Printer
+     */
+    void print(Printer printer) {
+        if (!isScripted()) {
+            consoleReaderWrapper().print(printer);
+            return;
+        }
+        try {
+            Writer out = new BufferedWriter(new OutputStreamWriter(System.out));
+            printer.print(out, TerminalSupport.DEFAULT_WIDTH);
+            out.flush();
+        } catch (IOException e) {
+            throw new IllegalStateException("Can't write to standard output", e);
+        }
+    }
+
+    /**
+     * Print empty line
+     */
+    public void newline() {
+        print("");
+    }
+
+    /**
+     * Set the policy when printed lines are flushed to the terminal. Default is {@link OutputPolicy#LINE}.
+     *
+     * @param outputPolicy the OutputPolicy
+     * @return the session instance
+     */
+    public synchronized ConsoleSession outputPolicy(OutputPolicy outputPolicy) {
+        this.outputPolicy = outputPolicy;
+        if (consoleReaderWrapper != null) {
+            consoleReaderWrapper.setOutputPolicy(outputPolicy);
+        }
+        return this;
+    }
+
+    /**
+     * Answer all questions of this session from answerSource instead of the terminal. Answers are validated and
+     * transformed like user input, but a missing or invalid answer fails with a
+     * {@link de.eleon.console.builder.script.ScriptedAnswerException} instead of asking again.
+     *
+     * @param answerSource the AnswerSource, e.g. from {@link de.eleon.console.builder.script.AnswerSources}
+     * @return the session instance
+     */
+    public synchronized ConsoleSession answerFrom(AnswerSource answerSource) {
+        this.answerSource = Optional.of(answerSource);
+        return this;
+    }
+
+    /**
+     * Answer questions of this session from the terminal again
+     *
+     * @return the session instance
+     */
+    public synchronized ConsoleSession interactive() {
+        this.answerSource = Optional.absent();
+        return this;
+    }
+
+    /**
+     * Write buffered lines to the terminal
+     */
+    public synchronized void flush() {
+        if (consoleReaderWrapper != null) {
+            consoleReaderWrapper.flush();
+        }
+    }
+
+    /**
+     * Flush buffered lines and lines of the {@link PrintChannel} and release the terminal of this session. The input of
+     * a pending async answer is aborted, its future fails with a CancellationException.
+     */
+    @Override
+    public void close() {
+        PrintChannel channel;
+        synchronized (this) {
+            channel = this.channel;
+        }
+        if (channel != null) {
+            try {
+                channel.flush();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        closeTerminal();
+    }
+
+    private synchronized void closeTerminal() {
+        if (consoleReaderWrapper != null) {
+            consoleReaderWrapper.abortInput();
+        }
+        if (inputExecutor != null) {
+            inputExecutor.shutdownNow();
+            inputExecutor = null;
+        }
+        if (consoleReaderWrapper != null) {
+            consoleReaderWrapper.close();
+            consoleReaderWrapper = null;
+        }
+    }
+
+    /**
+     * Abort the input of an async answer, if it is open
+     *
+     * @param cancelled the cancelled flag of the answer
+     */
+    synchronized void abortInput(AtomicBoolean cancelled) {
+        if (consoleReaderWrapper != null) {
+            consoleReaderWrapper.abortInput(cancelled);
+        }
+    }
+
+    /**
+     * Get the thread of async answers of this session. Its questions are asked one after another. The thread ends if
+     * it is idle for a minute or the session is closed.
+     *
+     * @return the executor
+     */
+    synchronized ListeningExecutorService inputExecutor() {
+        if (inputExecutor == null) {
+            ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, 1, TimeUnit.MINUTES, new LinkedBlockingQueue<Runnable>(),
+                    new ThreadFactoryBuilder().setDaemon(true).setNameFormat("console-builder-input").build());
+            executor.allowCoreThreadTimeOut(true);
+            inputExecutor = MoreExecutors.listeningDecorator(executor);
+        }
+        return inputExecutor;
+    }
+
+    synchronized Optional<AnswerSource> answerSource() {
+        return answerSource;
+    }
+
+    private boolean isScripted() {
+        return answerSource().isPresent();
+    }
+
+    /**
+     * Get the ConsoleReaderWrapper of this session. Create it on first usage.
+     *
+     * @return the ConsoleReaderWrapper
+     */
+    synchronized ConsoleReaderWrapper consoleReaderWrapper() {
+        if (consoleReaderWrapper == null) {
+            consoleReaderWrapper = in == null ? new ConsoleReaderWrapper() : new ConsoleReaderWrapper(in, out);
+            consoleReaderWrapper.setOutputPolicy(outputPolicy);
+        }
+        return consoleReaderWrapper;
+    }
+
+}
@@ -0,0 +1,272 @@
+/*
+* Copyright 2014 Dominik Foerderreuther <dominik@eleon.de>
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+* http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package de.eleon.console.builder;
+
+import com.google.common.base.Function;
+import com.google.common.base.Optional;
+import de.eleon.console.builder.script.ScriptedAnswerException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+
+/**
+ * FormBuilder asks several questions as one form. The questions are configured like single questions with
+ * {@link AskBuilder}, e.g. with validators, completers and history.
+ *
+ * Example:
+ *
+ *    FormResult person = ConsoleBuilder.form()
+ *            .field("name", ask("What is your Name?").validateWith(Validators.notEmpty("required")))
+ *            .field("age", ask("How old are you?"), Transformers.toInteger())
+ *            .answer();
+ *    int age = person.get("age", Integer.class);
+ *
+ * The terminal is set up, histories are read and completers are prefetched once before the first question. Form
+ * validators check several answers together after all questions are answered. All failing validators print their
+ * message, then the fields of these validators are asked again.
+ */
+public class FormBuilder {
+
+    private final ConsoleSession session;
+    private final Map<String, Field> fields = new LinkedHashMap<String, Field>();
+    private final List<Check> checks = new ArrayList<Check>();
+
+    private FormBuilder(ConsoleSession session) {
+        this.session = session;
+    }
+
+    static FormBuilder form(ConsoleSession session) {
+        return new FormBuilder(session);
+    }
+
+    /**
+     * Add field with answer as String
+     *
+     * @param key the key of the answer in the {@link FormResult}
+     * @param question the question, created by the session of this form
+     * @return the builder instance
+     */
+    public FormBuilder field(String key, final AskBuilder question) {
+        return add(key, question, new Answer() {
+            @Override
+            public Object answer() {
+                return question.answer();
+            }
+        });
+    }
+
+    /**
+     * Add field with answer as T
+     *
+     * @param key the key of the answer in the {@link FormResult}
+     * @param question the question, created by the session of this form
+     * @param function {@link Function} or {@link de.eleon.console.builder.functional.Transformer} for value conversion
+     * @param <T> the type of the answer
+     * @return the builder instance
+     */
+    public <T> FormBuilder field(String key, AskBuilder question, Function<String, T> function) {
+        return field(key, question, function, "unknown value");
+    }
+
+    /**
+     * Add field with answer as T
+     *
+     * @param key the key of the answer in the {@link FormResult}
+     * @param question the question, created by the session of this form
+     * @param function {@link Function} or {@link de.eleon.console.builder.functional.Transformer} for value conversion
+     * @param validationErrorMessage error message if function conversion fails
+     * @param <T> the type of the answer
+     * @return the builder instance
+     */
+    public <T> FormBuilder field(String key, final AskBuilder question, final Function<String, T> function, final String validationErrorMessage) {
+        return add(key, question, new Answer() {
+            @Override
+            public Object answer() {
+                return question.answer(function, validationErrorMessage);
+            }
+        });
+    }
+
+    /**
+     * Add field with answer as enum value
+     *
+     * @param key the key of the answer in the {@link FormResult}
+     * @param question the question, created by the session of this form
+     * @param enumClass Class of enum to return
+     * @param validationErrorMessage error message if enum conversion fails
+     * @param <T> the type of the answer
+     * @return the builder instance
+     */
+    public <T extends Enum<T>> FormBuilder field(String key, final AskBuilder question, final Class<T> enumClass, final String validationErrorMessage) {
+        return add(key, question, new Answer() {
+            @Override
+            public Object answer() {
+                return question.answer(enumClass, validationErrorMessage);
+            }
+        });
+    }
+
+    /**
+     * Add optional field with answer as String. An empty answer is null in the {@link FormResult}.
+     *
+     * @param key the key of the answer in the {@link FormResult}
+     * @param question the question, created by the session of this form
+     * @return the builder instance
+     */
+    public FormBuilder optionalField(String key, final AskBuilder question) {
+        return add(key, question, new Answer() {
+            @Override
+            public Object answer() {
+                return question.optional().answer().orNull();
+            }
+        });
+    }
+
+    /**
+     * Add optional field with answer as T. An empty answer is null in the {@link FormResult}.
+     *
+     * @param key the key of the answer in the {@link FormResult}
+     * @param question the question, created by the session of this form
+     * @param function {@link Function} or {@link de.eleon.console.builder.functional.Transformer} for value conversion
+     * @param <T> the type of the answer
+     * @return the builder instance
+     */
+    public <T> FormBuilder optionalField(String key, final AskBuilder question, final Function<String, T> function) {
+        return add(key, question, new Answer() {
+            @Override
+            public Object answer() {
+                Optional<T> answer = question.optional().answer(function);
+                return answer.orNull();
+            }
+        });
+    }
+
+    /**
+     * Add validator checking several answers together. If it fails, the given fields are asked again.
+     *
+     * @param validator the FormValidator
+     * @param keys the fields to ask again, all fields if none are given
+     * @return the builder instance
+     */
+    public FormBuilder validateWith(FormValidator validator, String... keys) {
+        for (String key : keys) {
+            checkArgument(fields.containsKey(key), "unknown field %s", key);
+        }
+        checks.add(new Check(checkNotNull(validator), Arrays.asList(keys)));
+        return this;
+    }
+
+    /**
+     * Ask all questions and check the answers with the form validators. A scripted session fails with a
+     * {@link ScriptedAnswerException} if a form validator fails.
+     *
+     * @return the answers
+     */
+    public FormResult answer() {
+        checkState(!fields.isEmpty(), "form has no fields");
+        preload();
+
+        Map<String, Object> answers = new LinkedHashMap<String, Object>();
+        Collection<String> pending = fields.keySet();
+        while (true) {
+            for (String key : pending) {
+                answers.put(key, fields.get(key).answer.answer());
+            }
+            FormResult result = new FormResult(answers);
+
+            List<String> errors = new ArrayList<String>();
+            Set<String> again = new LinkedHashSet<String>();
+            for (Check check : checks) {
+                if (check.validator.valid(result)) continue;
+                errors.add(check.validator.message());
+                again.addAll(check.keys.isEmpty() ? fields.keySet() : check.keys);
+            }
+            if (errors.isEmpty()) {
+                return result;
+            }
+            if (session.answerSource().isPresent()) {
+                throw new ScriptedAnswerException(again.iterator().next(), errors);
+            }
+            for (String error : errors) {
+                session.print(error);
+            }
+            pending = inFieldOrder(again);
+        }
+    }
+
+    private FormBuilder add(String key, AskBuilder question, Answer answer) {
+        checkArgument(!fields.containsKey(checkNotNull(key)), "duplicate field %s", key);
+        checkArgument(checkNotNull(question).session() == session, "field %s is asked by another session", key);
+        fields.put(key, new Field(question, answer));
+        return this;
+    }
+
+    /**
+     * Set up the terminal, read the histories and prefetch the completers of all questions
+     */
+    private void preload() {
+        if (session.answerSource().isPresent()) return;
+        ConsoleReaderWrapper consoleReaderWrapper = session.consoleReaderWrapper();
+        for (Field field : fields.values()) {
+            field.question.preload(consoleReaderWrapper);
+        }
+    }
+
+    private List<String> inFieldOrder(Set<String> keys) {
+        List<String> ret = new ArrayList<String>(keys.size());
+        for (String key : fields.keySet()) {
+            if (keys.contains(key)) ret.add(key);
+        }
+        return ret;
+    }
+
+    private interface Answer {
+        Object answer();
+    }
+
+    private static class Field {
+
+        private final AskBuilder question;
+        private final Answer answer;
+
+        private Field(AskBuilder question, Answer answer) {
+            this.question = question;
+            this.answer = answer;
+        }
+    }
+
+    private static class Check {
+
+        private final FormValidator validator;
+        private final List<String> keys;
+
+        private Check(FormValidator validator, List<String> keys) {
+            this.validator = validator;
+            this.keys = keys;
+        }
+    }
+
+}
@@ -0,0 +1,81 @@
+/*
+* Copyright 2014 Dominik Foerderreuther <dominik@eleon.de>
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+* http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package de.eleon.console.builder;
+
+import java.util.Collections;
+import java.util.Map;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Answers of a form by field key, in order of the fields. Unanswered optional fields are null.
+ */
+public final class FormResult {
+
+    private final Map<String, Object> answers;
+
+    FormResult(Map<String, Object> answers) {
+        this.answers = answers;
+    }
+
+    /**
+     * Get the answer of a field
+     *
+     * @param key the key of the field
+     * @return the answer, null for an unanswered optional field
+     * @throws IllegalArgumentException if there is no field with this key
+     */
+    public Object get(String key) {
+        checkArgument(answers.containsKey(key), "unknown field %s", key);
+        return answers.get(key);
+    }
+
+    /**
+     * Get the answer of a field as T
+     *
+     * @param key the key of the field
+     * @param type the type of the answer
+     * @param <T> the type of the answer
+     * @return the answer, null for an unanswered optional field
+     * @throws ClassCastException if the answer is not a T
+     */
+    public <T> T get(String key, Class<T> type) {
+        return type.cast(get(key));
+    }
+
+    /**
+     * Get the answer of a field as String
+     *
+     * @param key the key of the field
+     * @return the answer, null for an unanswered optional field
+     */
+    public String getString(String key) {
+        return get(key, String.class);
+    }
+
+    /**
+     * @return all answers by field key, in order of the fields
+     */
+    public Map<String, Object> asMap() {
+        return Collections.unmodifiableMap(answers);
+    }
+
+    @Override
+    public String toString() {
+        return answers.toString();
+    }
+
+}
@@ -0,0 +1,34 @@
+/*
+* Copyright 2014 Dominik Foerderreuther <dominik@eleon.de>
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+* http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package de.eleon.console.builder;
+
+/**
+ * Validator of several fields of a form, e.g. to check that an end date is after a start date
+ */
+public interface FormValidator {
+
+    /**
+     * @param answers the answers of the form
+     * @return true if the answers are valid
+     */
+    boolean valid(FormResult answers);
+
+    /**
+     * @return the error message if the answers are invalid
+     */
+    String message();
+
+}
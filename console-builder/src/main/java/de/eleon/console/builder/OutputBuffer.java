@@ -0,0 +1,99 @@
+/*
+* Copyright 2014 Dominik Foerderreuther <dominik@eleon.de>
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+* http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package de.eleon.console.builder;
+
+import com.google.common.base.Ticker;
+import jline.console.ConsoleReader;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * OutputBuffer collects printed lines in a reusable buffer and decides with its {@link OutputPolicy} when they have to
+ * be flushed. It is not thread safe, callers synchronize on the buffer instance.
+ */
+class OutputBuffer {
+
+    static final int SIZE_THRESHOLD = 8 * 1024;
+    static final long TIME_THRESHOLD_MILLIS = 50;
+
+    private final StringBuilder buffer = new StringBuilder(SIZE_THRESHOLD);
+    private final Ticker ticker;
+    private final long timeThreshold = TimeUnit.MILLISECONDS.toNanos(TIME_THRESHOLD_MILLIS);
+
+    private OutputPolicy policy = OutputPolicy.LINE;
+    private long firstPending;
+    private long lastAppend;
+
+    OutputBuffer() {
+        this(Ticker.systemTicker());
+    }
+
+    OutputBuffer(Ticker ticker) {
+        this.ticker = ticker;
+        this.lastAppend = ticker.read() - timeThreshold;
+    }
+
+    OutputPolicy policy() {
+        return policy;
+    }
+
+    void policy(OutputPolicy policy) {
+        this.policy = policy;
+    }
+
+    /**
+     * Append line with line separator
+     *
+     * @param line to append
+     * @return true if the buffer should be flushed now
+     */
+    boolean append(CharSequence line) {
+        long now = ticker.read();
+        if (buffer.length() == 0) {
+            firstPending = now;
+        }
+        buffer.append(line).append(ConsoleReader.CR);
+
+        boolean sparse = now - lastAppend >= timeThreshold;
+        lastAppend = now;
+
+        switch (policy) {
+            case LINE:
+                return true;
+            case ADAPTIVE:
+                return sparse || isFull(now);
+            default:
+                return isFull(now);
+        }
+    }
+
+    private boolean isFull(long now) {
+        return buffer.length() >= SIZE_THRESHOLD || now - firstPending >= timeThreshold;
+    }
+
+    boolean isEmpty() {
+        return buffer.length() == 0;
+    }
+
+    String contents() {
+        return buffer.toString();
+    }
+
+    void clear() {
+        buffer.setLength(0);
+    }
+
+}
@@ -0,0 +1,40 @@
+/*
+* Copyright 2014 Dominik Foerderreuther <dominik@eleon.de>
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+* http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package de.eleon.console.builder;
+
+/**
+ * Policy when printed lines are flushed to the terminal. Buffered lines are always flushed before a prompt is shown,
+ * on {@link ConsoleBuilder#flush()} and when the session is closed.
+ */
+public enum OutputPolicy {
+
+    /**
+     * Flush after every line
+     */
+    LINE,
+
+    /**
+     * Collect lines and flush them if the buffer is full or the oldest line waits longer than the time threshold
+     */
+    BLOCK,
+
+    /**
+     * Flush single lines immediately, but collect lines like {@link #BLOCK} as soon as they are printed in fast
+     * succession
+     */
+    ADAPTIVE
+
+}
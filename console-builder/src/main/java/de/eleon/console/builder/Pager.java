@@ -0,0 +1,145 @@
+/*
+* Copyright 2014 Dominik Foerderreuther <dominik@eleon.de>
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+* http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package de.eleon.console.builder;
+
+import com.google.common.base.Strings;
+import com.google.common.io.Closeables;
+import jline.Terminal;
+import jline.TerminalSupport;
+import jline.console.ConsoleReader;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Iterator;
+
+/**
+ * Pager shows lines one page at a time like more. Lines are taken from the iterator only when they are shown, so a
+ * producer does no work for pages nobody reads. If the iterator is {@link Closeable}, it is closed when the pager
+ * ends, e.g. when the user quits.
+ *
+ * Keys: space or f shows the next page, enter or j the next line, / searches forward, n repeats the search and q
+ * quits.
+ */
+class Pager {
+
+    static final String PROMPT = "--More--";
+
+    private final ConsoleReader consoleReader;
+    private final int pageSize;
+    private String term;
+
+    Pager(ConsoleReader consoleReader) {
+        this.consoleReader = consoleReader;
+        Terminal terminal = consoleReader.getTerminal();
+        int height = terminal != null ? terminal.getHeight() : TerminalSupport.DEFAULT_HEIGHT;
+        this.pageSize = Math.max(1, height - 1);
+    }
+
+    /**
+     * Show lines until the user quits or all lines are shown
+     *
+     * @param lines the lines to show
+     * @throws IOException if reading or writing fails
+     */
+    void page(Iterator<? extends CharSequence> lines) throws IOException {
+        try {
+            show(lines, pageSize);
+            while (lines.hasNext()) {
+                consoleReader.print(PROMPT);
+                consoleReader.flush();
+                int c = consoleReader.readCharacter();
+                erasePrompt();
+                switch (c) {
+                    case -1:
+                    case 'q':
+                    case 'Q':
+                        return;
+                    case ' ':
+                    case 'f':
+                        show(lines, pageSize);
+                        break;
+                    case '\r':
+                    case '\n':
+                    case 'j':
+                        show(lines, 1);
+                        break;
+                    case '/':
+                        String input = readTerm();
+                        if (!input.isEmpty()) term = input;
+                        search(lines);
+                        break;
+                    case 'n':
+                        search(lines);
+                        break;
+                    default:
+                        consoleReader.beep();
+                }
+            }
+        } finally {
+            consoleReader.flush();
+            if (lines instanceof Closeable) {
+                Closeables.close((Closeable) lines, true);
+            }
+        }
+    }
+
+    private void show(Iterator<? extends CharSequence> lines, int count) throws IOException {
+        for (int i = 0; i < count && lines.hasNext(); i++) {
+            consoleReader.println(lines.next());
+        }
+    }
+
+    /**
+     * Skip lines until one contains the search term and show the page starting with it
+     */
+    private void search(Iterator<? extends CharSequence> lines) throws IOException {
+        if (term == null) {
+            consoleReader.beep();
+            return;
+        }
+        while (lines.hasNext()) {
+            CharSequence line = lines.next();
+            if (line.toString().contains(term)) {
+                consoleReader.println("...skipping");
+                consoleReader.println(line);
+                show(lines, pageSize - 2);
+                return;
+            }
+        }
+        consoleReader.println("Pattern not found");
+    }
+
+    /**
+     * Read the search term without adding it to the history and keep the prompt of the questions
+     */
+    private String readTerm() throws IOException {
+        String prompt = consoleReader.getPrompt();
+        boolean historyEnabled = consoleReader.isHistoryEnabled();
+        consoleReader.setHistoryEnabled(false);
+        try {
+            String input = consoleReader.readLine("/");
+            return input == null ? "" : input.trim();
+        } finally {
+            consoleReader.setPrompt(prompt);
+            consoleReader.setHistoryEnabled(historyEnabled);
+        }
+    }
+
+    private void erasePrompt() throws IOException {
+        consoleReader.print("\r" + Strings.repeat(" ", PROMPT.length()) + "\r");
+    }
+
+}
@@ -0,0 +1,61 @@
+/*
+* Copyright 2014 Dominik Foerderreuther <dominik@eleon.de>
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+* http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package de.eleon.console.builder;
+
+import jline.console.ConsoleReader;
+import jline.console.CursorBuffer;
+import jline.console.completer.CandidateListCompletionHandler;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * CompletionHandler which never removes typed input. jline replaces the typed input with the common prefix of the
+ * candidates, which deletes it if the candidates don't start with it, e.g. for case insensitive or fuzzy completion.
+ * In this case the candidates are only listed.
+ */
+class PreservingCompletionHandler extends CandidateListCompletionHandler {
+
+    @Override
+    public boolean complete(ConsoleReader reader, List<CharSequence> candidates, int position) throws IOException {
+        if (candidates.size() > 1) {
+            CursorBuffer buffer = reader.getCursorBuffer();
+            String typed = buffer.buffer.substring(Math.min(position, buffer.cursor), buffer.cursor);
+            if (!commonPrefix(candidates).startsWith(typed)) {
+                printCandidates(reader, candidates);
+                reader.drawLine();
+                return true;
+            }
+        }
+        return super.complete(reader, candidates, position);
+    }
+
+    static String commonPrefix(List<CharSequence> candidates) {
+        String first = candidates.get(0).toString();
+        int length = first.length();
+        for (CharSequence candidate : candidates) {
+            length = Math.min(length, candidate.length());
+            for (int i = 0; i < length; i++) {
+                if (candidate.charAt(i) != first.charAt(i)) {
+                    length = i;
+                    break;
+                }
+            }
+        }
+        return first.substring(0, length);
+    }
+
+}
@@ -0,0 +1,152 @@
+/*
+* Copyright 2014 Dominik Foerderreuther <dominik@eleon.de>
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+* http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package de.eleon.console.builder;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * PrintChannel lets many threads print to a session without blocking. Lines are appended to a lock free queue and
+ * written by one writer thread at a time, which writes up to {@link #MAX_BATCH} queued calls at once. Lines printed
+ * with one call are written together, lines of different threads never mix. The writer threads are pooled and shared
+ * by all channels, but each channel is drained on its own thread, so a session with a stalled terminal or client
+ * doesn't hold back the output of other sessions. If a question is open, the lines are printed
+ * above the prompt and the prompt is redrawn with the input typed so far.
+ *
+ * Example:
+ *
+ *    PrintChannel channel = ConsoleBuilder.channel();
+ *    executor.submit(new Runnable() {
+ *        public void run() {
+ *            channel.print("worker done");
+ *        }
+ *    });
+ */
+public class PrintChannel {
+
+    /**
+     * Maximum number of queued calls written with one flush, so output appears while workers keep printing
+     */
+    static final int MAX_BATCH = 256;
+
+    private static final Executor WRITER = Executors.newCachedThreadPool(
+            new ThreadFactoryBuilder().setDaemon(true).setNameFormat("console-builder-output-%d").build());
+
+    private final ConsoleSession session;
+    private final Executor writer;
+    private final Queue<Entry> queue = new ConcurrentLinkedQueue<Entry>();
+    private final AtomicBoolean draining = new AtomicBoolean();
+    private final Runnable drain = new Runnable() {
+        @Override
+        public void run() {
+            drain();
+        }
+    };
+
+    PrintChannel(ConsoleSession session) {
+        this(session, WRITER);
+    }
+
+    PrintChannel(ConsoleSession session, Executor writer) {
+        this.session = session;
+        this.writer = writer;
+    }
+
+    /**
+     * Print line without waiting for the terminal
+     *
+     * @param line CharSequence to print
+     */
+    public void print(CharSequence line) {
+        offer(new Entry(Collections.singletonList(line), null));
+    }
+
+    /**
+     * Print lines together without waiting for the terminal. No other line is printed between them.
+     *
+     * @param lines CharSequences to print
+     */
+    public void print(List<? extends CharSequence> lines) {
+        offer(new Entry(ImmutableList.copyOf(lines), null));
+    }
+
+    /**
+     * Wait until all lines printed before are written
+     *
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public void flush() throws InterruptedException {
+        CountDownLatch written = new CountDownLatch(1);
+        offer(new Entry(Collections.<CharSequence>emptyList(), written));
+        written.await();
+    }
+
+    private void offer(Entry entry) {
+        queue.offer(entry);
+        if (draining.compareAndSet(false, true)) {
+            writer.execute(drain);
+        }
+    }
+
+    /**
+     * Write up to {@link #MAX_BATCH} queued calls with one flush, the rest is written by the next run. Runs on one
+     * thread at a time, guarded by {@link #draining}.
+     */
+    private void drain() {
+        List<CharSequence> lines = Lists.newArrayList();
+        List<CountDownLatch> written = Lists.newArrayList();
+        try {
+            Entry entry;
+            for (int entries = 0; entries < MAX_BATCH && (entry = queue.poll()) != null; entries++) {
+                lines.addAll(entry.lines);
+                if (entry.written != null) written.add(entry.written);
+            }
+            if (!lines.isEmpty()) {
+                session.printAbovePrompt(lines);
+            }
+        } finally {
+            for (CountDownLatch latch : written) {
+                latch.countDown();
+            }
+            draining.set(false);
+            if (!queue.isEmpty() && draining.compareAndSet(false, true)) {
+                writer.execute(drain);
+            }
+        }
+    }
+
+    private static class Entry {
+
+        private final List<? extends CharSequence> lines;
+        private final CountDownLatch written;
+
+        private Entry(List<? extends CharSequence> lines, CountDownLatch written) {
+            this.lines = lines;
+            this.written = written;
+        }
+    }
+
+}
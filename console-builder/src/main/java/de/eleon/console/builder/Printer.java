@@ -0,0 +1,36 @@
+/*
+* Copyright 2014 Dominik Foerderreuther <dominik@eleon.de>
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+* http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package de.eleon.console.builder;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Printer writes large output, e.g. columns or tables, directly to the writer of a session instead of printing it line
+ * by line. Lines printed before are flushed first.
+ */
+interface Printer {
+
+    /**
+     * Write the output
+     *
+     * @param out the buffered writer of the session
+     * @param width the width of the terminal
+     * @throws IOException if writing fails
+     */
+    void print(Writer out, int width) throws IOException;
+
+}
@@ -0,0 +1,177 @@
+/*
+* Copyright 2014 Dominik Foerderreuther <dominik@eleon.de>
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+* http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package de.eleon.console.builder;
+
+import com.google.common.base.Strings;
+import com.google.common.base.Ticker;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import java.io.Closeable;
+import java.util.Locale;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Progress shows a progress bar or, without total, a spinner with the count, throughput and estimated time left. It is
+ * redrawn in place at most {@link #REDRAWS_PER_SECOND} times per second by a background thread, lines printed
+ * meanwhile appear above it.
+ *
+ * Example:
+ *
+ *    Progress progress = ConsoleBuilder.progress("importing", files.size());
+ *    for (File file : files) {
+ *        importFile(file);
+ *        progress.increment();
+ *    }
+ *    progress.done();
+ *
+ * {@link #increment()} only adds to a lock free counter, so it can be called from many threads in a hot loop.
+ */
+public class Progress implements Closeable {
+
+    static final int REDRAWS_PER_SECOND = 20;
+    static final int BAR_WIDTH = 30;
+
+    private static final char[] SPINNER = {'|', '/', '-', '\\'};
+
+    private static final ScheduledExecutorService REDRAWER = Executors.newSingleThreadScheduledExecutor(
+            new ThreadFactoryBuilder().setDaemon(true).setNameFormat("console-builder-progress").build());
+
+    private final ConsoleSession session;
+    private final String label;
+    private final long total;
+    private final Ticker ticker;
+    private final long start;
+    private final StripedCounter count = new StripedCounter();
+
+    private ScheduledFuture<?> redraws;
+    private boolean done = false;
+    private int frame = 0;
+    private String last;
+
+    static Progress start(ConsoleSession session, String label, long total) {
+        final Progress progress = new Progress(session, label, total, Ticker.systemTicker());
+        long interval = TimeUnit.SECONDS.toNanos(1) / REDRAWS_PER_SECOND;
+        progress.redraws = REDRAWER.scheduleAtFixedRate(new Runnable() {
+            @Override
+            public void run() {
+                progress.redraw();
+            }
+        }, 0, interval, TimeUnit.NANOSECONDS);
+        return progress;
+    }
+
+    /**
+     * @param total the total count, -1 for a spinner
+     */
+    Progress(ConsoleSession session, String label, long total, Ticker ticker) {
+        this.session = session;
+        this.label = label;
+        this.total = total;
+        this.ticker = ticker;
+        this.start = ticker.read();
+    }
+
+    /**
+     * Count one processed item
+     */
+    public void increment() {
+        count.add(1);
+    }
+
+    /**
+     * Count processed items
+     *
+     * @param items number of processed items
+     */
+    public void add(long items) {
+        count.add(items);
+    }
+
+    /**
+     * Get the number of processed items
+     *
+     * @return the count
+     */
+    public long count() {
+        return count.sum();
+    }
+
+    /**
+     * Stop redrawing and keep the final state as line in the terminal
+     */
+    public synchronized void done() {
+        if (done) return;
+        done = true;
+        if (redraws != null) {
+            redraws.cancel(false);
+        }
+        session.endStatus(render());
+    }
+
+    /**
+     * Same as {@link #done()}
+     */
+    @Override
+    public void close() {
+        done();
+    }
+
+    synchronized void redraw() {
+        if (done) return;
+        frame++;
+        String line = render();
+        if (!line.equals(last)) {
+            session.status(line);
+            last = line;
+        }
+    }
+
+    String render() {
+        long count = count();
+        long elapsed = ticker.read() - start;
+        double rate = elapsed > 0 ? count * (double) TimeUnit.SECONDS.toNanos(1) / elapsed : 0;
+
+        StringBuilder line = new StringBuilder(label).append(' ');
+        if (total > 0) {
+            long shown = Math.min(count, total);
+            double fraction = (double) shown / total;
+            int filled = (int) (BAR_WIDTH * fraction);
+            line.append('[').append(Strings.repeat("=", filled));
+            if (filled < BAR_WIDTH) {
+                line.append('>').append(Strings.repeat(" ", BAR_WIDTH - filled - 1));
+            }
+            line.append("] ").append((int) (100 * fraction)).append("% ").append(count).append('/').append(total);
+            line.append(String.format(Locale.ROOT, " %.1f/s", rate));
+            line.append(" ETA ").append(rate > 0 ? duration((long) ((total - shown) / rate)) : "--:--");
+        } else {
+            if (!done) line.append(SPINNER[frame % SPINNER.length]).append(' ');
+            line.append(count).append(String.format(Locale.ROOT, " %.1f/s", rate));
+            if (done) line.append(" done");
+        }
+        return line.toString();
+    }
+
+    private static String duration(long seconds) {
+        if (seconds >= 3600) {
+            return String.format(Locale.ROOT, "%d:%02d:%02d", seconds / 3600, seconds / 60 % 60, seconds % 60);
+        }
+        return String.format(Locale.ROOT, "%d:%02d", seconds / 60, seconds % 60);
+    }
+
+}
@@ -0,0 +1,253 @@
+/*
+* Copyright 2014 Dominik Foerderreuther <dominik@eleon.de>
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+* http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package de.eleon.console.builder;
+
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import jline.UnsupportedTerminal;
+import jline.console.ConsoleReader;
+import jline.console.completer.Completer;
+import jline.console.history.MemoryHistory;
+
+import java.io.FileDescriptor;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.ServiceLoader;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Factory for {@link ReaderFactory}s
+ */
+public class ReaderFactories {
+
+    public static final int DEFAULT_MAX_IDLE = 4;
+
+    private static final ExecutorService WARMER = Executors.newSingleThreadExecutor(
+            new ThreadFactoryBuilder().setDaemon(true).setNameFormat("console-builder-prewarm").build());
+
+    private static ReaderFactory configured;
+
+    private ReaderFactories() {
+    }
+
+    static synchronized void configure(ReaderFactory factory) {
+        configured = factory;
+    }
+
+    /**
+     * Get the configured ReaderFactory. Without one, the first ReaderFactory registered for the ServiceLoader is
+     * used, or {@link #terminal()}.
+     */
+    static synchronized ReaderFactory configured() {
+        if (configured == null) {
+            Iterator<ReaderFactory> registered = ServiceLoader.load(ReaderFactory.class).iterator();
+            configured = registered.hasNext() ? registered.next() : terminal();
+        }
+        return configured;
+    }
+
+    /**
+     * Create a new reader on the system terminal for every session. Input of an open question can be aborted. This is
+     * the default.
+     *
+     * @return the ReaderFactory
+     */
+    public static ReaderFactory terminal() {
+        return new ReaderFactory() {
+            @Override
+            public ConsoleReader create() throws IOException {
+                if (System.console() == null) {
+                    return new SearchingConsoleReader();
+                }
+                return SearchingConsoleReader.abortable(new FileInputStream(FileDescriptor.in), System.out, null);
+            }
+
+            @Override
+            public void release(ConsoleReader consoleReader) {
+                consoleReader.shutdown();
+            }
+        };
+    }
+
+    /**
+     * Create readers on standard input and output without terminal support, e.g. for pipes or CI logs. There is no
+     * line editing, completion or history navigation, but no terminal is initialized either.
+     *
+     * @return the ReaderFactory
+     */
+    public static ReaderFactory dumb() {
+        return new ReaderFactory() {
+            @Override
+            public ConsoleReader create() throws IOException {
+                return new SearchingConsoleReader(new FileInputStream(FileDescriptor.in), System.out, new UnsupportedTerminal());
+            }
+
+            @Override
+            public void release(ConsoleReader consoleReader) {
+                consoleReader.shutdown();
+            }
+        };
+    }
+
+    /**
+     * Create the first reader of factory on a background thread immediately, so the first question doesn't wait for
+     * the terminal initialization. Later readers are created by factory when they are needed.
+     *
+     * @param factory the ReaderFactory creating the readers
+     * @return the ReaderFactory
+     */
+    public static ReaderFactory preWarmed(ReaderFactory factory) {
+        return new PreWarmed(checkNotNull(factory));
+    }
+
+    /**
+     * Keep up to {@link #DEFAULT_MAX_IDLE} readers of closed sessions to reuse them for new sessions
+     *
+     * @param factory the ReaderFactory creating the readers
+     * @return the ReaderFactory
+     */
+    public static ReaderFactory pooled(ReaderFactory factory) {
+        return pooled(factory, DEFAULT_MAX_IDLE);
+    }
+
+    /**
+     * Keep up to maxIdle readers of closed sessions to reuse them for new sessions
+     *
+     * @param factory the ReaderFactory creating the readers
+     * @param maxIdle maximum number of kept readers, further readers are released to factory
+     * @return the ReaderFactory
+     */
+    public static ReaderFactory pooled(ReaderFactory factory, int maxIdle) {
+        checkArgument(maxIdle > 0, "maxIdle has to be positive");
+        return new Pooled(checkNotNull(factory), maxIdle);
+    }
+
+    static class PreWarmed implements ReaderFactory {
+
+        private final ReaderFactory factory;
+        private Future<ConsoleReader> warm;
+
+        PreWarmed(final ReaderFactory factory) {
+            this.factory = factory;
+            this.warm = WARMER.submit(new Callable<ConsoleReader>() {
+                @Override
+                public ConsoleReader call() throws IOException {
+                    return factory.create();
+                }
+            });
+        }
+
+        @Override
+        public ConsoleReader create() throws IOException {
+            Future<ConsoleReader> warm = take();
+            if (warm == null) {
+                return factory.create();
+            }
+            try {
+                return warm.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while waiting for console", e);
+            } catch (ExecutionException e) {
+                return factory.create();
+            }
+        }
+
+        @Override
+        public void release(ConsoleReader consoleReader) {
+            factory.release(consoleReader);
+        }
+
+        /**
+         * Wait until the first reader is created
+         */
+        void awaitWarm() throws InterruptedException, ExecutionException {
+            Future<ConsoleReader> warm;
+            synchronized (this) {
+                warm = this.warm;
+            }
+            if (warm != null) {
+                warm.get();
+            }
+        }
+
+        private synchronized Future<ConsoleReader> take() {
+            Future<ConsoleReader> ret = warm;
+            warm = null;
+            return ret;
+        }
+    }
+
+    static class Pooled implements ReaderFactory {
+
+        private final ReaderFactory factory;
+        private final int maxIdle;
+        private final Deque<ConsoleReader> idle = Lists.newLinkedList();
+
+        Pooled(ReaderFactory factory, int maxIdle) {
+            this.factory = factory;
+            this.maxIdle = maxIdle;
+        }
+
+        @Override
+        public ConsoleReader create() throws IOException {
+            ConsoleReader consoleReader;
+            synchronized (idle) {
+                consoleReader = idle.pollFirst();
+            }
+            return consoleReader != null ? consoleReader : factory.create();
+        }
+
+        /**
+         * Reset completers and history of the reader and keep it, unless maxIdle readers are kept already or it is
+         * still reading a line of the released session
+         */
+        @Override
+        public void release(ConsoleReader consoleReader) {
+            if (consoleReader instanceof SearchingConsoleReader && ((SearchingConsoleReader) consoleReader).isReading()) {
+                factory.release(consoleReader);
+                return;
+            }
+            for (Completer completer : Lists.newArrayList(consoleReader.getCompleters())) {
+                consoleReader.removeCompleter(completer);
+            }
+            consoleReader.setHistory(new MemoryHistory());
+            synchronized (idle) {
+                if (idle.size() < maxIdle) {
+                    idle.addFirst(consoleReader);
+                    return;
+                }
+            }
+            factory.release(consoleReader);
+        }
+
+        int idle() {
+            synchronized (idle) {
+                return idle.size();
+            }
+        }
+    }
+
+}
@@ -0,0 +1,48 @@
+/*
+* Copyright 2014 Dominik Foerderreuther <dominik@eleon.de>
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+* http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package de.eleon.console.builder;
+
+import jline.console.ConsoleReader;
+
+import java.io.IOException;
+
+/**
+ * A ReaderFactory creates the jline ConsoleReader of a session when the session acquires its terminal, and gets it
+ * back when the session is closed. {@link ReaderFactories} has implementations which create readers in advance or
+ * reuse them.
+ *
+ * Set the factory with {@link ConsoleBuilder#readerFactory(ReaderFactory)}, or register an implementation with a
+ * public no-arg constructor in META-INF/services/de.eleon.console.builder.ReaderFactory to be found by
+ * {@link java.util.ServiceLoader}. Without both, {@link ReaderFactories#terminal()} is used.
+ */
+public interface ReaderFactory {
+
+    /**
+     * Create or provide a ConsoleReader
+     *
+     * @return the ConsoleReader
+     * @throws IOException if the terminal can't be initialized
+     */
+    ConsoleReader create() throws IOException;
+
+    /**
+     * Take back a ConsoleReader of a closed session. It is not used by the session anymore.
+     *
+     * @param consoleReader the ConsoleReader created by this factory
+     */
+    void release(ConsoleReader consoleReader);
+
+}
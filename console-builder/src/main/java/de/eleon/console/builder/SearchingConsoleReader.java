@@ -0,0 +1,102 @@
+/*
+* Copyright 2014 Dominik Foerderreuther <dominik@eleon.de>
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+* http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package de.eleon.console.builder;
+
+import de.eleon.console.builder.history.SearchableHistory;
+import jline.Terminal;
+import jline.console.ConsoleReader;
+import jline.console.history.History;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * ConsoleReader which delegates reverse search to a {@link SearchableHistory} instead of iterating over all entries.
+ */
+class SearchingConsoleReader extends ConsoleReader {
+
+    private final AbortableInputStream abortableInput;
+    private volatile boolean reading = false;
+
+    SearchingConsoleReader() throws IOException {
+        super();
+        this.abortableInput = null;
+    }
+
+    SearchingConsoleReader(InputStream in, OutputStream out) throws IOException {
+        super(in, out);
+        this.abortableInput = null;
+    }
+
+    SearchingConsoleReader(InputStream in, OutputStream out, Terminal terminal) throws IOException {
+        super(in, out, terminal);
+        this.abortableInput = null;
+    }
+
+    private SearchingConsoleReader(AbortableInputStream in, OutputStream out, Terminal terminal) throws IOException {
+        super(in, out, terminal);
+        this.abortableInput = in;
+    }
+
+    /**
+     * Create reader whose input can be aborted, see {@link #abortableInput()}
+     *
+     * @param in the input
+     * @param out the output
+     * @param terminal the terminal, null for the system terminal
+     * @return the reader
+     */
+    static SearchingConsoleReader abortable(InputStream in, OutputStream out, Terminal terminal) throws IOException {
+        return new SearchingConsoleReader(new AbortableInputStream(in), out, terminal);
+    }
+
+    /**
+     * Get the input of this reader if it can be aborted
+     *
+     * @return the input or null
+     */
+    AbortableInputStream abortableInput() {
+        return abortableInput;
+    }
+
+    /**
+     * @return true while a line is read, e.g. by an async answer whose input was aborted but didn't return yet
+     */
+    boolean isReading() {
+        return reading;
+    }
+
+    @Override
+    public String readLine(String prompt, Character mask) throws IOException {
+        reading = true;
+        try {
+            return super.readLine(prompt, mask);
+        } finally {
+            reading = false;
+        }
+    }
+
+    @Override
+    public int searchBackwards(String searchTerm, int startIndex, boolean startsWith) {
+        History history = getHistory();
+        if (history instanceof SearchableHistory) {
+            return ((SearchableHistory) history).searchBackwards(searchTerm, startIndex, startsWith);
+        }
+        return super.searchBackwards(searchTerm, startIndex, startsWith);
+    }
+
+}
@@ -0,0 +1,144 @@
+/*
+* Copyright 2014 Dominik Foerderreuther <dominik@eleon.de>
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+* http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package de.eleon.console.builder;
+
+import com.google.common.collect.Iterators;
+import com.google.common.collect.Lists;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+
+/**
+ * TableBuilder prints rows as ASCII table.
+ *
+ * Example:
+ *
+ *    ConsoleBuilder.table()
+ *            .column("Host")
+ *            .column("Load", 6, Alignment.RIGHT)
+ *            .rows(hosts)
+ *            .print();
+ *
+ * Columns without width are as wide as their widest cell, so all rows are read before the first one is printed. If
+ * every column has a width, rows are printed while they are read and longer cells are truncated.
+ */
+public class TableBuilder {
+
+    private final ConsoleSession session;
+    private final List<TablePrinter.Column> columns = Lists.newArrayList();
+    private final List<Iterator<? extends List<? extends CharSequence>>> rows = Lists.newArrayList();
+
+    static TableBuilder table(ConsoleSession session) {
+        return new TableBuilder(session);
+    }
+
+    private TableBuilder(ConsoleSession session) {
+        this.session = session;
+    }
+
+    /**
+     * Add left aligned column as wide as its widest cell
+     *
+     * @param header the header of the column
+     * @return the builder instance
+     */
+    public TableBuilder column(String header) {
+        return column(header, Alignment.LEFT);
+    }
+
+    /**
+     * Add column as wide as its widest cell
+     *
+     * @param header the header of the column
+     * @param alignment the alignment of the cells
+     * @return the builder instance
+     */
+    public TableBuilder column(String header, Alignment alignment) {
+        columns.add(new TablePrinter.Column(checkNotNull(header), 0, checkNotNull(alignment)));
+        return this;
+    }
+
+    /**
+     * Add left aligned column of fixed width
+     *
+     * @param header the header of the column
+     * @param width the width of the column, longer cells are truncated
+     * @return the builder instance
+     */
+    public TableBuilder column(String header, int width) {
+        return column(header, width, Alignment.LEFT);
+    }
+
+    /**
+     * Add column of fixed width
+     *
+     * @param header the header of the column
+     * @param width the width of the column, longer cells are truncated
+     * @param alignment the alignment of the cells
+     * @return the builder instance
+     */
+    public TableBuilder column(String header, int width, Alignment alignment) {
+        checkArgument(width > 0, "width has to be positive");
+        columns.add(new TablePrinter.Column(checkNotNull(header), width, checkNotNull(alignment)));
+        return this;
+    }
+
+    /**
+     * Add row. Missing cells are printed empty.
+     *
+     * @param cells the cells of the row
+     * @return the builder instance
+     */
+    public TableBuilder row(CharSequence... cells) {
+        rows.add(Iterators.singletonIterator(Arrays.asList(cells)));
+        return this;
+    }
+
+    /**
+     * Add rows. They are read when the table is printed.
+     *
+     * @param rows the rows, one list of cells per row
+     * @return the builder instance
+     */
+    public TableBuilder rows(Iterable<? extends List<? extends CharSequence>> rows) {
+        return rows(rows.iterator());
+    }
+
+    /**
+     * Add rows. They are read when the table is printed.
+     *
+     * @param rows the rows, one list of cells per row
+     * @return the builder instance
+     */
+    public TableBuilder rows(Iterator<? extends List<? extends CharSequence>> rows) {
+        this.rows.add(checkNotNull(rows));
+        return this;
+    }
+
+    /**
+     * Print the table
+     */
+    public void print() {
+        checkState(!columns.isEmpty(), "table has no columns");
+        session.print(new TablePrinter(columns, Iterators.concat(rows.iterator())));
+    }
+
+}
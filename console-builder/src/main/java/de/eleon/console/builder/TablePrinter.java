@@ -0,0 +1,162 @@
+/*
+* Copyright 2014 Dominik Foerderreuther <dominik@eleon.de>
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+* http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package de.eleon.console.builder;
+
+import com.google.common.base.Strings;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import jline.console.ConsoleReader;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Iterator;
+import java.util.List;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * TablePrinter renders rows of a {@link TableBuilder}. Every row is rendered into the same StringBuilder and written
+ * when it is complete. Columns without width are measured in a single pass over all rows before printing, otherwise
+ * rows are printed while they are read.
+ */
+class TablePrinter implements Printer {
+
+    private static final String ELLIPSIS = "...";
+
+    private final List<Column> columns;
+    private final Iterator<? extends List<? extends CharSequence>> rows;
+    private final int[] widths;
+    private final StringBuilder row = new StringBuilder();
+
+    TablePrinter(List<Column> columns, Iterator<? extends List<? extends CharSequence>> rows) {
+        this.columns = ImmutableList.copyOf(columns);
+        this.rows = rows;
+        this.widths = new int[columns.size()];
+    }
+
+    @Override
+    public void print(Writer out, int width) throws IOException {
+        Iterator<? extends List<? extends CharSequence>> rows = measured();
+        String separator = separator();
+
+        out.append(separator);
+        List<String> headers = Lists.newArrayListWithCapacity(columns.size());
+        for (Column column : columns) {
+            headers.add(column.header);
+        }
+        print(out, headers);
+        out.append(separator);
+        while (rows.hasNext()) {
+            print(out, rows.next());
+        }
+        out.append(separator);
+    }
+
+    /**
+     * Compute the widths of the columns. If a column has no width, read all rows to measure it.
+     *
+     * @return the rows to print
+     */
+    private Iterator<? extends List<? extends CharSequence>> measured() {
+        boolean measure = false;
+        for (int i = 0; i < widths.length; i++) {
+            Column column = columns.get(i);
+            widths[i] = column.width > 0 ? column.width : column.header.length();
+            measure |= column.width == 0;
+        }
+        if (!measure) return rows;
+
+        List<List<? extends CharSequence>> all = Lists.newArrayList();
+        while (rows.hasNext()) {
+            List<? extends CharSequence> cells = rows.next();
+            for (int i = 0; i < widths.length && i < cells.size(); i++) {
+                if (columns.get(i).width == 0 && cells.get(i) != null) {
+                    widths[i] = Math.max(widths[i], cells.get(i).length());
+                }
+            }
+            all.add(cells);
+        }
+        return all.iterator();
+    }
+
+    private String separator() {
+        row.setLength(0);
+        row.append('+');
+        for (int width : widths) {
+            row.append(Strings.repeat("-", width + 2)).append('+');
+        }
+        return row.append(ConsoleReader.CR).toString();
+    }
+
+    private void print(Writer out, List<? extends CharSequence> cells) throws IOException {
+        checkArgument(cells.size() <= widths.length, "row has %s cells, table has %s columns", cells.size(), widths.length);
+        row.setLength(0);
+        row.append('|');
+        for (int i = 0; i < widths.length; i++) {
+            CharSequence cell = i < cells.size() && cells.get(i) != null ? cells.get(i) : "";
+            row.append(' ');
+            append(cell, widths[i], columns.get(i).alignment);
+            row.append(" |");
+        }
+        row.append(ConsoleReader.CR);
+        out.append(row);
+    }
+
+    private void append(CharSequence cell, int width, Alignment alignment) {
+        int length = cell.length();
+        if (length > width) {
+            if (width > ELLIPSIS.length()) {
+                row.append(cell, 0, width - ELLIPSIS.length()).append(ELLIPSIS);
+            } else {
+                row.append(cell, 0, width);
+            }
+            return;
+        }
+        int padding = width - length;
+        int left = alignment == Alignment.LEFT ? 0 : alignment == Alignment.RIGHT ? padding : padding / 2;
+        spaces(left);
+        row.append(cell);
+        spaces(padding - left);
+    }
+
+    private void spaces(int count) {
+        for (int i = 0; i < count; i++) {
+            row.append(' ');
+        }
+    }
+
+    /**
+     * Column of a table
+     */
+    static class Column {
+
+        private final String header;
+        private final int width;
+        private final Alignment alignment;
+
+        /**
+         * @param header the header
+         * @param width the fixed width, 0 to measure the width
+         * @param alignment the alignment of the cells
+         */
+        Column(String header, int width, Alignment alignment) {
+            this.header = header;
+            this.width = width;
+            this.alignment = alignment;
+        }
+    }
+
+}
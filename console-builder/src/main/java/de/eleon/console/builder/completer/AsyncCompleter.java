@@ -0,0 +1,247 @@
+/*
+* Copyright 2014 Dominik Foerderreuther <dominik@eleon.de>
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+* http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package de.eleon.console.builder.completer;
+
+import com.google.common.base.Ticker;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import jline.console.completer.Completer;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Completer running an expensive completer, e.g. a directory walk or a query to a local daemon, on a background
+ * executor. Completions are cached by buffer and cursor with a time to live and a maximum size. The candidates of an
+ * empty buffer are loaded as soon as the question is shown.
+ *
+ * A completion waits at most for the deadline. If the delegate isn't finished by then, there are no candidates yet, as
+ * the position they replace is only known at the end. The delegate continues in the background, so the next
+ * completion of the same buffer gets all candidates from the cache. A failed completion is loaded again on the next request. The delegate may be called from several threads at once.
+ */
+public class AsyncCompleter implements PrefetchingCompleter {
+
+    private static final Executor EXECUTOR = Executors.newCachedThreadPool(
+            new ThreadFactoryBuilder().setDaemon(true).setNameFormat("console-builder-completion-%d").build());
+
+    private final Completer delegate;
+    private final Executor executor;
+    private final long deadlineNanos;
+    private final Cache<String, Completion> completions;
+
+    private AsyncCompleter(Builder builder) {
+        this.delegate = builder.delegate;
+        this.executor = builder.executor;
+        this.deadlineNanos = builder.deadlineNanos;
+        this.completions = CacheBuilder.newBuilder()
+                .expireAfterWrite(builder.ttlNanos, TimeUnit.NANOSECONDS)
+                .maximumSize(builder.maximumSize)
+                .ticker(builder.ticker)
+                .build();
+    }
+
+    /**
+     * Start new builder
+     *
+     * @param delegate the expensive completer
+     * @return the builder
+     */
+    public static Builder builder(Completer delegate) {
+        return new Builder(delegate);
+    }
+
+    /**
+     * Create AsyncCompleter with default settings
+     *
+     * @param delegate the expensive completer
+     * @return the completer
+     */
+    public static AsyncCompleter of(Completer delegate) {
+        return builder(delegate).build();
+    }
+
+    @Override
+    public void prefetch() {
+        completion("", 0);
+    }
+
+    /**
+     * Add candidates of the cached or running completion, wait at most for the deadline
+     *
+     * @param buffer the buffer
+     * @param cursor the cursor position
+     * @param candidates list to add the candidates to
+     * @return position of the candidates, -1 if there are none yet
+     */
+    @Override
+    public int complete(String buffer, int cursor, List<CharSequence> candidates) {
+        checkNotNull(candidates);
+        Completion completion = completion(buffer, cursor);
+        try {
+            completion.await(deadlineNanos);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return completion.copyTo(candidates);
+    }
+
+    private Completion completion(final String buffer, final int cursor) {
+        String key = cursor + ":" + buffer;
+        try {
+            Completion completion = completions.get(key, new Callable<Completion>() {
+                @Override
+                public Completion call() {
+                    Completion completion = new Completion();
+                    executor.execute(completion.task(buffer, cursor));
+                    return completion;
+                }
+            });
+            if (completion.failed) {
+                completions.invalidate(key);
+            }
+            return completion;
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Can't start completion", e.getCause());
+        }
+    }
+
+    /**
+     * Candidates of one buffer, filled by the delegate on the executor
+     */
+    private class Completion {
+
+        private final List<CharSequence> candidates = Lists.newArrayList();
+        private final CountDownLatch done = new CountDownLatch(1);
+        private volatile int position = -1;
+        private volatile boolean failed = false;
+
+        Runnable task(final String buffer, final int cursor) {
+            return new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        position = delegate.complete(buffer, cursor, candidates);
+                    } catch (RuntimeException e) {
+                        failed = true;
+                    } finally {
+                        done.countDown();
+                    }
+                }
+            };
+        }
+
+        void await(long nanos) throws InterruptedException {
+            done.await(nanos, TimeUnit.NANOSECONDS);
+        }
+
+        /**
+         * Copy the candidates of the finished delegate
+         *
+         * @return position of the candidates reported by the delegate, -1 if it isn't finished
+         */
+        int copyTo(List<CharSequence> target) {
+            if (done.getCount() > 0) return -1;
+            target.addAll(candidates);
+            return position;
+        }
+    }
+
+    /**
+     * Builder of AsyncCompleter
+     */
+    public static class Builder {
+
+        private final Completer delegate;
+        private Executor executor = EXECUTOR;
+        private long deadlineNanos = TimeUnit.MILLISECONDS.toNanos(100);
+        private long ttlNanos = TimeUnit.MINUTES.toNanos(1);
+        private long maximumSize = 1000;
+        private Ticker ticker = Ticker.systemTicker();
+
+        private Builder(Completer delegate) {
+            this.delegate = checkNotNull(delegate);
+        }
+
+        /**
+         * Set the executor running the delegate. Default is a shared pool of daemon threads.
+         *
+         * @param executor the executor
+         * @return the builder
+         */
+        public Builder executor(Executor executor) {
+            this.executor = checkNotNull(executor);
+            return this;
+        }
+
+        /**
+         * Set how long a completion waits for the delegate, default is 100 ms. A deadline of 0 never waits.
+         *
+         * @param deadline the deadline
+         * @param unit unit of deadline
+         * @return the builder
+         */
+        public Builder deadline(long deadline, TimeUnit unit) {
+            checkArgument(deadline >= 0, "deadline must not be negative");
+            this.deadlineNanos = unit.toNanos(deadline);
+            return this;
+        }
+
+        /**
+         * Set how long completions are cached, default is 1 minute
+         *
+         * @param ttl the time to live
+         * @param unit unit of ttl
+         * @return the builder
+         */
+        public Builder ttl(long ttl, TimeUnit unit) {
+            checkArgument(ttl > 0, "ttl has to be positive");
+            this.ttlNanos = unit.toNanos(ttl);
+            return this;
+        }
+
+        /**
+         * Set the maximum number of cached completions, default is 1000
+         *
+         * @param maximumSize maximum number of completions
+         * @return the builder
+         */
+        public Builder maximumSize(long maximumSize) {
+            checkArgument(maximumSize > 0, "maximumSize has to be positive");
+            this.maximumSize = maximumSize;
+            return this;
+        }
+
+        Builder ticker(Ticker ticker) {
+            this.ticker = ticker;
+            return this;
+        }
+
+        public AsyncCompleter build() {
+            return new AsyncCompleter(this);
+        }
+    }
+
+}
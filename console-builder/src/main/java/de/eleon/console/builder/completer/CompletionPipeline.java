@@ -0,0 +1,232 @@
+/*
+* Copyright 2014 Dominik Foerderreuther <dominik@eleon.de>
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+* http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package de.eleon.console.builder.completer;
+
+import jline.console.completer.Completer;
+import jline.console.history.History;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Completer running several completers ordered by priority. Completers of the lowest priority value are consulted
+ * first, completers of the next priority only if none of them found a candidate. Every completer runs at most once
+ * per completion.
+ *
+ * Completers of the same priority are merged like jline's AggregateCompleter: candidates of the completers with the
+ * highest position are returned in order of the completers, duplicates only once.
+ */
+public class CompletionPipeline implements HistoryAwareCompleter, PrefetchingCompleter {
+
+    /**
+     * Priority of completers added without priority
+     */
+    public static final int DEFAULT_PRIORITY = 0;
+
+    private final List<Stage> stages;
+
+    private CompletionPipeline(List<Stage> stages) {
+        this.stages = stages;
+    }
+
+    /**
+     * Start new builder
+     *
+     * @return the builder
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Create CompletionPipeline merging completers with the default priority
+     *
+     * @param completers the completers
+     * @return the pipeline
+     */
+    public static CompletionPipeline of(Iterable<? extends Completer> completers) {
+        return builder().addAll(completers).build();
+    }
+
+    public int size() {
+        return stages.size();
+    }
+
+    public boolean isEmpty() {
+        return stages.isEmpty();
+    }
+
+    /**
+     * Get the completer to register at the console
+     *
+     * @return the only completer of the pipeline or the pipeline itself
+     */
+    public Completer toCompleter() {
+        return stages.size() == 1 ? stages.get(0).completer : this;
+    }
+
+    @Override
+    public int complete(String buffer, int cursor, List<CharSequence> candidates) {
+        checkNotNull(candidates);
+        List<List<CharSequence>> found = new ArrayList<List<CharSequence>>(stages.size());
+        int[] positions = new int[stages.size()];
+        int from = 0;
+        while (from < stages.size()) {
+            int priority = stages.get(from).priority;
+            int to = from;
+            int max = -1;
+            while (to < stages.size() && stages.get(to).priority == priority) {
+                List<CharSequence> stageCandidates = new ArrayList<CharSequence>();
+                int position = stages.get(to).completer.complete(buffer, cursor, stageCandidates);
+                found.add(stageCandidates);
+                positions[to] = stageCandidates.isEmpty() ? -1 : position;
+                max = Math.max(max, positions[to]);
+                to++;
+            }
+            if (max != -1) {
+                merge(found, positions, from, to, max, candidates);
+                return max;
+            }
+            from = to;
+        }
+        return -1;
+    }
+
+    /**
+     * Add the candidates of the completers from..to at position max without duplicates. Every completer gets its own
+     * list, found.get(i) holds the candidates of completer i. Completers append a space to a single candidate, so
+     * candidates are compared without trailing space and the space is kept only if a single candidate remains.
+     */
+    private static void merge(List<List<CharSequence>> found, int[] positions, int from, int to, int max,
+                              List<CharSequence> candidates) {
+        Map<String, CharSequence> merged = new LinkedHashMap<String, CharSequence>();
+        for (int i = from; i < to; i++) {
+            if (positions[i] == max) {
+                for (CharSequence candidate : found.get(i)) {
+                    String key = withoutTrailingSpace(candidate.toString());
+                    if (!merged.containsKey(key)) merged.put(key, candidate);
+                }
+            }
+        }
+        if (merged.size() == 1) {
+            candidates.addAll(merged.values());
+        } else {
+            candidates.addAll(merged.keySet());
+        }
+    }
+
+    private static String withoutTrailingSpace(String candidate) {
+        return candidate.endsWith(" ") ? candidate.substring(0, candidate.length() - 1) : candidate;
+    }
+
+    /**
+     * Get pipeline whose {@link HistoryAwareCompleter}s use history
+     *
+     * @param history the history
+     * @return the new pipeline
+     */
+    @Override
+    public CompletionPipeline withHistory(History history) {
+        List<Stage> ret = new ArrayList<Stage>(stages.size());
+        for (Stage stage : stages) {
+            Completer completer = stage.completer instanceof HistoryAwareCompleter
+                    ? ((HistoryAwareCompleter) stage.completer).withHistory(history) : stage.completer;
+            ret.add(new Stage(completer, stage.priority));
+        }
+        return new CompletionPipeline(Collections.unmodifiableList(ret));
+    }
+
+    /**
+     * Prefetch all {@link PrefetchingCompleter}s of the pipeline
+     */
+    @Override
+    public void prefetch() {
+        for (Stage stage : stages) {
+            if (stage.completer instanceof PrefetchingCompleter) {
+                ((PrefetchingCompleter) stage.completer).prefetch();
+            }
+        }
+    }
+
+    private static class Stage {
+
+        private final Completer completer;
+        private final int priority;
+
+        private Stage(Completer completer, int priority) {
+            this.completer = completer;
+            this.priority = priority;
+        }
+    }
+
+    /**
+     * Builder of CompletionPipeline
+     */
+    public static class Builder {
+
+        private final List<Stage> stages = new ArrayList<Stage>();
+
+        private Builder() {
+        }
+
+        /**
+         * Add completer with {@link #DEFAULT_PRIORITY}
+         *
+         * @param completer the completer
+         * @return the builder
+         */
+        public Builder add(Completer completer) {
+            return add(completer, DEFAULT_PRIORITY);
+        }
+
+        /**
+         * Add completer with priority. Completers with lower priority are consulted first.
+         *
+         * @param completer the completer
+         * @param priority the priority
+         * @return the builder
+         */
+        public Builder add(Completer completer, int priority) {
+            stages.add(new Stage(checkNotNull(completer), priority));
+            return this;
+        }
+
+        public Builder addAll(Iterable<? extends Completer> completers) {
+            for (Completer completer : completers) {
+                add(completer);
+            }
+            return this;
+        }
+
+        public CompletionPipeline build() {
+            List<Stage> sorted = new ArrayList<Stage>(stages);
+            Collections.sort(sorted, new Comparator<Stage>() {
+                @Override
+                public int compare(Stage left, Stage right) {
+                    return left.priority < right.priority ? -1 : (left.priority == right.priority ? 0 : 1);
+                }
+            });
+            return new CompletionPipeline(Collections.unmodifiableList(sorted));
+        }
+    }
+
+}
@@ -0,0 +1,552 @@
+/*
+* Copyright 2014 Dominik Foerderreuther <dominik@eleon.de>
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+* http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package de.eleon.console.builder.completer;
+
+import com.google.common.base.Optional;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import jline.console.completer.Completer;
+import jline.console.history.History;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Completer matching any fragment of the candidates, e.g. "0042" completes "host-0042.example.com". Build it once
+ * with {@link #builder()} and share it between questions and threads.
+ *
+ * The candidates are indexed by their trigrams once. A completion intersects the id lists of the trigrams of the
+ * buffer starting from the rarest one. Only if this finds less than {@link Builder#maxResults(int)} candidates
+ * containing the buffer, candidates containing at least two thirds of the trigrams are looked up, and subsequence
+ * matches are searched by a scan which skips candidates by a bit mask of their chars. Buffers shorter than a trigram
+ * are matched by this scan only.
+ *
+ * Each step stops after {@link #WORK_LIMIT} candidates once enough matches are found, so common fragments like "com"
+ * complete in bounded time. A better ranked candidate further down the list of candidates may be missed then.
+ * Candidates are ranked case insensitive by:
+ *
+ *  - prefix match before substring match before subsequence match before trigram similarity
+ *  - share of the trigrams of the buffer found in the candidate
+ *  - recency in the history of the question, see {@link HistoryAwareCompleter}
+ *  - shorter candidates first
+ *
+ * Only the best {@link Builder#maxResults(int)} candidates are kept while scoring, so a completion allocates memory
+ * proportional to this limit and the length of the buffer, not to the number of candidates.
+ */
+public class FuzzyCompleter implements HistoryAwareCompleter {
+
+    static final int GRAM = 3;
+    static final int RECENT_ENTRIES = 100;
+    static final int WORK_LIMIT = 1 << 14;
+    static final int SCAN_LIMIT = 1 << 18;
+
+    private static final int PREFIX = 4;
+    private static final int SUBSTRING = 3;
+    private static final int SUBSEQUENCE = 2;
+    private static final int SIMILAR = 1;
+
+    private final Index index;
+    private final int maxResults;
+    private final boolean bestMatch;
+    private final Optional<History> history;
+
+    private FuzzyCompleter(Index index, int maxResults, boolean bestMatch, Optional<History> history) {
+        this.index = index;
+        this.maxResults = maxResults;
+        this.bestMatch = bestMatch;
+        this.history = history;
+    }
+
+    /**
+     * Start new builder
+     *
+     * @return the builder
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Create completer with default settings
+     *
+     * @param candidates the candidates
+     * @return the completer
+     */
+    public static FuzzyCompleter of(Iterable<String> candidates) {
+        return builder().addAll(candidates).build();
+    }
+
+    /**
+     * Get completer which ranks recently used candidates of history first. The index is shared.
+     *
+     * @param history history of the question
+     * @return the completer
+     */
+    @Override
+    public FuzzyCompleter withHistory(History history) {
+        return new FuzzyCompleter(index, maxResults, bestMatch, Optional.of(history));
+    }
+
+    /**
+     * @return number of candidates
+     */
+    public int size() {
+        return index.values.length;
+    }
+
+    /**
+     * Add the best matching candidates in order of their rank
+     *
+     * @param buffer the buffer
+     * @param cursor the cursor position, ignored
+     * @param candidates list to add the candidates to
+     * @return 0 if there are candidates, -1 otherwise
+     */
+    @Override
+    public int complete(String buffer, int cursor, List<CharSequence> candidates) {
+        checkNotNull(candidates);
+        List<String> matches = search(buffer == null ? "" : buffer);
+        if (bestMatch && matches.size() > 1) {
+            matches = matches.subList(0, 1);
+        }
+        candidates.addAll(matches);
+        if (candidates.size() == 1) {
+            candidates.set(0, candidates.get(0) + " ");
+        }
+        return candidates.isEmpty() ? -1 : 0;
+    }
+
+    /**
+     * Search the best matching candidates
+     *
+     * @param fragment the fragment to search
+     * @return candidates ordered by rank, best first
+     */
+    public List<String> search(String fragment) {
+        String query = fragment.toLowerCase(Locale.ROOT);
+        Map<String, Integer> recent = recent();
+        TopK top = new TopK(maxResults);
+
+        int substrings = query.length() < GRAM ? 0 : searchTrigrams(top, query, recent);
+        if (substrings < maxResults) {
+            scan(top, query, recent);
+        }
+
+        List<String> ret = Lists.newArrayListWithCapacity(top.size());
+        for (int id : top.sorted()) {
+            ret.add(index.values[id]);
+        }
+        return ret;
+    }
+
+    /**
+     * Offer candidates containing all trigrams of query, found by intersecting the id lists from the rarest trigram
+     * on. This stops after {@link #WORK_LIMIT} candidates once maxResults of them contain query. Only if less of
+     * them contain query, offer candidates containing at least two thirds of the trigrams. Candidates containing query as subsequence are left to {@link #scan(TopK, String, Map)}.
+     *
+     * @return number of candidates containing query
+     */
+    private int searchTrigrams(TopK top, String query, Map<String, Integer> recent) {
+        int[][] postings = index.postings(query);
+        int grams = postings.length;
+        int[] positions = new int[grams];
+        int substrings = 0;
+        int work = 0;
+        candidates:
+        for (int id : postings[0]) {
+            if (++work > WORK_LIMIT && substrings >= maxResults) break;
+            for (int i = 1; i < grams; i++) {
+                positions[i] = seek(postings[i], positions[i], id);
+                if (positions[i] == postings[i].length) break candidates;
+                if (postings[i][positions[i]] != id) continue candidates;
+            }
+            String key = index.keys[id];
+            if (!top.accepts(score(PREFIX, 100, key, recent), key.length())) continue;
+            int at = key.indexOf(query);
+            if (at >= 0) {
+                offer(top, id, at == 0 ? PREFIX : SUBSTRING, 100, recent);
+                substrings++;
+            } else if (!isSubsequence(query, key)) {
+                offer(top, id, SIMILAR, 100, recent);
+            }
+        }
+        if (substrings < maxResults && grams > 1) {
+            searchSimilar(top, query, postings, recent);
+        }
+        return substrings;
+    }
+
+    /**
+     * Offer candidates containing at least two thirds but not all trigrams of query. Each of them is in one of the
+     * shortest id lists, so only these are merged and the longer ones are binary searched.
+     */
+    private void searchSimilar(TopK top, String query, int[][] postings, Map<String, Integer> recent) {
+        int grams = postings.length;
+        int minHits = (2 * grams + 2) / 3;
+        int merged = grams - minHits + 1;
+        int[] positions = new int[merged];
+        int work = 0;
+        while (work++ <= WORK_LIMIT || top.size() < maxResults) {
+            int id = Integer.MAX_VALUE;
+            for (int i = 0; i < merged; i++) {
+                if (positions[i] < postings[i].length) id = Math.min(id, postings[i][positions[i]]);
+            }
+            if (id == Integer.MAX_VALUE) break;
+            int hits = 0;
+            for (int i = 0; i < merged; i++) {
+                if (positions[i] < postings[i].length && postings[i][positions[i]] == id) {
+                    positions[i]++;
+                    hits++;
+                }
+            }
+            for (int i = merged; i < grams && hits + grams - i >= minHits; i++) {
+                if (Arrays.binarySearch(postings[i], id) >= 0) hits++;
+            }
+            if (hits < minHits || hits == grams) continue;
+
+            String key = index.keys[id];
+            int share = 100 * hits / grams;
+            if (top.accepts(score(SIMILAR, share, key, recent), key.length()) && !isSubsequence(query, key)) {
+                offer(top, id, SIMILAR, share, recent);
+            }
+        }
+    }
+
+    /**
+     * Offer candidates containing query as subsequence, and containing query itself if it is shorter than a trigram.
+     * Candidates missing a char of query are skipped by their char mask, candidates which can't beat the current top
+     * candidates are skipped before matching. The scan stops after {@link #WORK_LIMIT} candidates once the top
+     * candidates are found, and after {@link #SCAN_LIMIT} candidates in any case.
+     */
+    private void scan(TopK top, String query, Map<String, Integer> recent) {
+        long mask = mask(query);
+        boolean substrings = query.length() < GRAM;
+        int best = substrings ? PREFIX : SUBSEQUENCE;
+        int work = 0;
+        for (int id = 0; id < index.keys.length; id++) {
+            if ((index.masks[id] & mask) != mask) continue;
+            if ((++work > WORK_LIMIT && top.size() == maxResults) || work > SCAN_LIMIT) break;
+            String key = index.keys[id];
+            if (!top.accepts(score(best, 100, key, recent), key.length())) continue;
+            int at = key.indexOf(query);
+            if (at >= 0) {
+                if (substrings) offer(top, id, at == 0 ? PREFIX : SUBSTRING, 100, recent);
+            } else if (isSubsequence(query, key)) {
+                offer(top, id, SUBSEQUENCE, 100, recent);
+            }
+        }
+    }
+
+    /**
+     * @return index of the first id not less than id in ids from position from on
+     */
+    private static int seek(int[] ids, int from, int id) {
+        int at = Arrays.binarySearch(ids, from, ids.length, id);
+        return at >= 0 ? at : -at - 1;
+    }
+
+    private void offer(TopK top, int id, int match, int share, Map<String, Integer> recent) {
+        String key = index.keys[id];
+        top.offer(id, score(match, share, key, recent), key.length());
+    }
+
+    private static int score(int match, int share, String key, Map<String, Integer> recent) {
+        Integer recency = recent.isEmpty() ? null : recent.get(key);
+        return match << 16 | share << 8 | (recency == null ? 0 : recency);
+    }
+
+    private static long mask(String key) {
+        long mask = 0;
+        for (int i = 0; i < key.length(); i++) {
+            mask |= 1L << (key.charAt(i) & 63);
+        }
+        return mask;
+    }
+
+    private static boolean isSubsequence(String query, String key) {
+        int position = 0;
+        for (int i = 0; i < query.length(); i++) {
+            position = key.indexOf(query.charAt(i), position) + 1;
+            if (position == 0) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Score the last {@link #RECENT_ENTRIES} entries of the history by recency, the last entry with the highest
+     * score
+     */
+    private Map<String, Integer> recent() {
+        if (!history.isPresent()) return Maps.newHashMap();
+        History history = this.history.get();
+        Map<String, Integer> ret = Maps.newHashMap();
+        int size = history.size();
+        for (int age = 0; age < RECENT_ENTRIES && age < size; age++) {
+            String entry = history.get(size - 1 - age).toString().toLowerCase(Locale.ROOT);
+            if (!ret.containsKey(entry)) ret.put(entry, RECENT_ENTRIES - age);
+        }
+        return ret;
+    }
+
+    /**
+     * Bounded min heap of the best candidates. Higher score wins, then shorter candidate, then lower id.
+     */
+    private static class TopK {
+
+        private final int[] ids;
+        private final long[] ranks;
+        private int size;
+
+        TopK(int capacity) {
+            ids = new int[capacity];
+            ranks = new long[capacity];
+        }
+
+        int size() {
+            return size;
+        }
+
+        /**
+         * @return true if a candidate with score and length would be added
+         */
+        boolean accepts(int score, int length) {
+            return size < ids.length || rank(score, length) > ranks[0];
+        }
+
+        void offer(int id, int score, int length) {
+            long rank = rank(score, length);
+            if (size < ids.length) {
+                ids[size] = id;
+                ranks[size] = rank;
+                up(size++);
+            } else if (rank > ranks[0]) {
+                ids[0] = id;
+                ranks[0] = rank;
+                down(0);
+            }
+        }
+
+        /**
+         * @return ids ordered by rank, best first
+         */
+        int[] sorted() {
+            Integer[] order = new Integer[size];
+            for (int i = 0; i < size; i++) order[i] = i;
+            Arrays.sort(order, new Comparator<Integer>() {
+                @Override
+                public int compare(Integer a, Integer b) {
+                    if (ranks[a] != ranks[b]) return ranks[a] > ranks[b] ? -1 : 1;
+                    return ids[a] < ids[b] ? -1 : ids[a] == ids[b] ? 0 : 1;
+                }
+            });
+            int[] ret = new int[size];
+            for (int i = 0; i < size; i++) ret[i] = ids[order[i]];
+            return ret;
+        }
+
+        private static long rank(int score, int length) {
+            return (long) score << 32 | (long) (0xFFFF - Math.min(length, 0xFFFF)) << 16;
+        }
+
+        private boolean less(int a, int b) {
+            return ranks[a] < ranks[b] || (ranks[a] == ranks[b] && ids[a] > ids[b]);
+        }
+
+        private void up(int i) {
+            while (i > 0 && less(i, (i - 1) / 2)) {
+                swap(i, (i - 1) / 2);
+                i = (i - 1) / 2;
+            }
+        }
+
+        private void down(int i) {
+            while (true) {
+                int smallest = i;
+                int left = 2 * i + 1;
+                int right = left + 1;
+                if (left < size && less(left, smallest)) smallest = left;
+                if (right < size && less(right, smallest)) smallest = right;
+                if (smallest == i) return;
+                swap(i, smallest);
+                i = smallest;
+            }
+        }
+
+        private void swap(int a, int b) {
+            int id = ids[a];
+            ids[a] = ids[b];
+            ids[b] = id;
+            long rank = ranks[a];
+            ranks[a] = ranks[b];
+            ranks[b] = rank;
+        }
+    }
+
+    /**
+     * Immutable trigram index of the candidates, shared by all completers created by {@link #withHistory(History)}
+     */
+    private static class Index {
+
+        private final String[] values;
+        private final String[] keys;
+        private final long[] masks;
+        private final Map<Long, int[]> postings;
+
+        Index(List<String> candidates) {
+            values = candidates.toArray(new String[candidates.size()]);
+            keys = new String[values.length];
+            masks = new long[values.length];
+            Map<Long, Postings> builder = Maps.newHashMap();
+            for (int id = 0; id < values.length; id++) {
+                keys[id] = values[id].toLowerCase(Locale.ROOT);
+                masks[id] = mask(keys[id]);
+                for (int i = 0; i + GRAM <= keys[id].length(); i++) {
+                    Long gram = gram(keys[id], i);
+                    Postings ids = builder.get(gram);
+                    if (ids == null) {
+                        ids = new Postings();
+                        builder.put(gram, ids);
+                    }
+                    ids.add(id);
+                }
+            }
+            postings = Maps.newHashMapWithExpectedSize(builder.size());
+            for (Map.Entry<Long, Postings> entry : builder.entrySet()) {
+                postings.put(entry.getKey(), entry.getValue().toArray());
+            }
+        }
+
+        /**
+         * Get the id lists of the distinct trigrams of query, shortest first, empty lists for unknown trigrams
+         */
+        int[][] postings(String query) {
+            List<Long> grams = Lists.newArrayList();
+            for (int i = 0; i + GRAM <= query.length(); i++) {
+                Long gram = gram(query, i);
+                if (!grams.contains(gram)) grams.add(gram);
+            }
+            int[][] ret = new int[grams.size()][];
+            for (int i = 0; i < ret.length; i++) {
+                int[] ids = postings.get(grams.get(i));
+                ret[i] = ids == null ? new int[0] : ids;
+            }
+            Arrays.sort(ret, new Comparator<int[]>() {
+                @Override
+                public int compare(int[] a, int[] b) {
+                    return a.length < b.length ? -1 : a.length == b.length ? 0 : 1;
+                }
+            });
+            return ret;
+        }
+
+        private static Long gram(String key, int i) {
+            return (long) key.charAt(i) << 32 | (long) key.charAt(i + 1) << 16 | key.charAt(i + 2);
+        }
+    }
+
+    /**
+     * Ascending ids without duplicates
+     */
+    private static class Postings {
+
+        private int[] ids = new int[2];
+        private int size;
+
+        void add(int id) {
+            if (size > 0 && ids[size - 1] == id) return;
+            if (size == ids.length) ids = Arrays.copyOf(ids, size * 2);
+            ids[size++] = id;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(ids, size);
+        }
+    }
+
+    /**
+     * Builder of FuzzyCompleter
+     */
+    public static class Builder {
+
+        private final List<String> candidates = Lists.newArrayList();
+        private int maxResults = 10;
+        private boolean bestMatch = false;
+        private Optional<History> history = Optional.absent();
+
+        private Builder() {
+        }
+
+        public Builder add(String candidate) {
+            candidates.add(checkNotNull(candidate));
+            return this;
+        }
+
+        public Builder addAll(Iterable<String> candidates) {
+            for (String candidate : candidates) {
+                add(candidate);
+            }
+            return this;
+        }
+
+        public Builder addAll(String... candidates) {
+            return addAll(Arrays.asList(candidates));
+        }
+
+        /**
+         * Limit the number of candidates of one completion, default is 10
+         *
+         * @param maxResults maximum number of candidates
+         * @return the builder
+         */
+        public Builder maxResults(int maxResults) {
+            checkArgument(maxResults > 0, "maxResults has to be positive");
+            this.maxResults = maxResults;
+            return this;
+        }
+
+        /**
+         * Complete the best matching candidate only instead of listing the best candidates
+         *
+         * @return the builder
+         */
+        public Builder completeBestMatch() {
+            this.bestMatch = true;
+            return this;
+        }
+
+        /**
+         * Rank recently used candidates of history first. Questions with history use their own history instead.
+         *
+         * @param history the history
+         * @return the builder
+         */
+        public Builder recencyFrom(History history) {
+            this.history = Optional.of(history);
+            return this;
+        }
+
+        public FuzzyCompleter build() {
+            return new FuzzyCompleter(new Index(candidates), maxResults, bestMatch, history);
+        }
+    }
+
+}
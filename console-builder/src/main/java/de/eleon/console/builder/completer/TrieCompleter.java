@@ -0,0 +1,291 @@
+/*
+* Copyright 2014 Dominik Foerderreuther <dominik@eleon.de>
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+* http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package de.eleon.console.builder.completer;
+
+import com.google.common.collect.Lists;
+import jline.console.completer.Completer;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Immutable prefix completer for large candidate sets, e.g. hundreds of thousands of host names. Build it once with
+ * {@link #builder()} and share it between questions and threads.
+ *
+ * The candidates are kept sorted with their keys in one char array. A radix trie over the keys, stored in int arrays,
+ * maps every prefix to the range of candidates starting with it, so a completion takes O(prefix length + results)
+ * instead of a scan over the candidates. Candidates are completed in sorted order of their keys.
+ */
+public class TrieCompleter implements Completer {
+
+    private final boolean ignoreCase;
+    private final int maxResults;
+
+    private final String[] values;
+    private final char[] keys;
+    private final int[] keyOffsets;
+
+    private final int[] rangeStart;
+    private final int[] rangeEnd;
+    private final int[] labelEnd;
+    private final int[] firstChild;
+    private final int[] childCount;
+
+    private TrieCompleter(final List<String> candidates, boolean ignoreCase, int maxResults) {
+        this.ignoreCase = ignoreCase;
+        this.maxResults = maxResults;
+
+        final String[] sortKeys = new String[candidates.size()];
+        Integer[] order = new Integer[candidates.size()];
+        for (int i = 0; i < sortKeys.length; i++) {
+            sortKeys[i] = key(candidates.get(i));
+            order[i] = i;
+        }
+        Arrays.sort(order, new Comparator<Integer>() {
+            @Override
+            public int compare(Integer a, Integer b) {
+                int ret = sortKeys[a].compareTo(sortKeys[b]);
+                return ret != 0 ? ret : candidates.get(a).compareTo(candidates.get(b));
+            }
+        });
+
+        List<String> sortedValues = Lists.newArrayListWithCapacity(order.length);
+        StringBuilder sortedKeys = new StringBuilder();
+        List<Integer> offsets = Lists.newArrayListWithCapacity(order.length + 1);
+        String previous = null;
+        for (Integer i : order) {
+            String value = candidates.get(i);
+            if (value.equals(previous)) continue;
+            offsets.add(sortedKeys.length());
+            sortedKeys.append(sortKeys[i]);
+            sortedValues.add(value);
+            previous = value;
+        }
+        offsets.add(sortedKeys.length());
+
+        this.values = sortedValues.toArray(new String[sortedValues.size()]);
+        this.keys = sortedKeys.toString().toCharArray();
+        this.keyOffsets = new int[offsets.size()];
+        for (int i = 0; i < keyOffsets.length; i++) {
+            keyOffsets[i] = offsets.get(i);
+        }
+
+        int capacity = 2 * values.length + 1;
+        this.rangeStart = new int[capacity];
+        this.rangeEnd = new int[capacity];
+        this.labelEnd = new int[capacity];
+        this.firstChild = new int[capacity];
+        this.childCount = new int[capacity];
+        build();
+    }
+
+    /**
+     * Start new builder
+     *
+     * @return the builder
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Create case sensitive completer without result limit
+     *
+     * @param candidates the candidates
+     * @return the completer
+     */
+    public static TrieCompleter of(Iterable<String> candidates) {
+        return builder().addAll(candidates).build();
+    }
+
+    /**
+     * @return number of distinct candidates
+     */
+    public int size() {
+        return values.length;
+    }
+
+    /**
+     * Complete buffer like jline's StringsCompleter: add all candidates starting with buffer, but at most maxResults.
+     *
+     * @param buffer the buffer, null for all candidates
+     * @param cursor the cursor position, ignored
+     * @param candidates list to add the candidates to
+     * @return 0 if there are candidates, -1 otherwise
+     */
+    @Override
+    public int complete(String buffer, int cursor, List<CharSequence> candidates) {
+        checkNotNull(candidates);
+        int node = values.length == 0 ? -1 : find(buffer == null ? "" : key(buffer));
+        if (node >= 0) {
+            int end = (int) Math.min(rangeEnd[node], (long) rangeStart[node] + maxResults);
+            candidates.addAll(Arrays.asList(values).subList(rangeStart[node], end));
+        }
+        if (candidates.size() == 1) {
+            candidates.set(0, candidates.get(0) + " ");
+        }
+        return candidates.isEmpty() ? -1 : 0;
+    }
+
+    /**
+     * Find node of the prefix
+     *
+     * @param prefix the key prefix
+     * @return the node holding all keys starting with prefix, -1 if there is none
+     */
+    private int find(String prefix) {
+        int node = 0;
+        int depth = 0;
+        while (true) {
+            int key = rangeStart[node];
+            for (; depth < labelEnd[node] && depth < prefix.length(); depth++) {
+                if (charAt(key, depth) != prefix.charAt(depth)) return -1;
+            }
+            if (depth == prefix.length()) return node;
+            node = child(node, prefix.charAt(depth));
+            if (node < 0) return -1;
+        }
+    }
+
+    /**
+     * Binary search the child of node which starts with c
+     */
+    private int child(int node, char c) {
+        int low = firstChild[node];
+        int high = low + childCount[node] - 1;
+        int depth = labelEnd[node];
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            char first = charAt(rangeStart[middle], depth);
+            if (first < c) low = middle + 1;
+            else if (first > c) high = middle - 1;
+            else return middle;
+        }
+        return -1;
+    }
+
+    /**
+     * Build the trie breadth first, so the children of a node are stored next to each other. A node covers the
+     * range of keys sharing the prefix up to its labelEnd. Keys ending at labelEnd sort first and stay in the node,
+     * the other keys are split into children by their next char.
+     */
+    private void build() {
+        if (values.length == 0) return;
+        int nodes = node(0, 0, values.length, 0);
+        for (int node = 0; node < nodes; node++) {
+            int depth = labelEnd[node];
+            int start = rangeStart[node];
+            int end = rangeEnd[node];
+            while (start < end && length(start) == depth) start++;
+
+            firstChild[node] = nodes;
+            while (start < end) {
+                char c = charAt(start, depth);
+                int childEnd = start + 1;
+                while (childEnd < end && charAt(childEnd, depth) == c) childEnd++;
+                nodes = node(nodes, start, childEnd, depth + 1);
+                start = childEnd;
+            }
+            childCount[node] = nodes - firstChild[node];
+        }
+    }
+
+    private int node(int node, int start, int end, int depth) {
+        rangeStart[node] = start;
+        rangeEnd[node] = end;
+        labelEnd[node] = commonPrefix(start, end - 1, depth);
+        return node + 1;
+    }
+
+    private int commonPrefix(int first, int last, int depth) {
+        int max = Math.min(length(first), length(last));
+        while (depth < max && charAt(first, depth) == charAt(last, depth)) depth++;
+        return depth;
+    }
+
+    private int length(int key) {
+        return keyOffsets[key + 1] - keyOffsets[key];
+    }
+
+    private char charAt(int key, int index) {
+        return keys[keyOffsets[key] + index];
+    }
+
+    private String key(String value) {
+        return ignoreCase ? value.toLowerCase(Locale.ROOT) : value;
+    }
+
+    /**
+     * Builder of TrieCompleter
+     */
+    public static class Builder {
+
+        private final List<String> candidates = Lists.newArrayList();
+        private boolean ignoreCase = false;
+        private int maxResults = Integer.MAX_VALUE;
+
+        private Builder() {
+        }
+
+        public Builder add(String candidate) {
+            candidates.add(checkNotNull(candidate));
+            return this;
+        }
+
+        public Builder addAll(Iterable<String> candidates) {
+            for (String candidate : candidates) {
+                add(candidate);
+            }
+            return this;
+        }
+
+        public Builder addAll(String... candidates) {
+            return addAll(Arrays.asList(candidates));
+        }
+
+        /**
+         * Match the buffer case insensitive. Candidates are completed in their original case.
+         *
+         * @return the builder
+         */
+        public Builder ignoringCase() {
+            this.ignoreCase = true;
+            return this;
+        }
+
+        /**
+         * Limit the number of candidates of one completion
+         *
+         * @param maxResults maximum number of candidates
+         * @return the builder
+         */
+        public Builder maxResults(int maxResults) {
+            checkArgument(maxResults > 0, "maxResults has to be positive");
+            this.maxResults = maxResults;
+            return this;
+        }
+
+        public TrieCompleter build() {
+            return new TrieCompleter(candidates, ignoreCase, maxResults);
+        }
+    }
+
+}
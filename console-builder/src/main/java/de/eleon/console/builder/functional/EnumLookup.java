@@ -0,0 +1,121 @@
+/*
+* Copyright 2014 Dominik Foerderreuther <dominik@eleon.de>
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+* http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package de.eleon.console.builder.functional;
+
+import com.google.common.base.Optional;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.google.common.collect.Maps;
+import jline.console.completer.Completer;
+import jline.console.completer.EnumCompleter;
+
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Case-insensitive lookup table of enum values by their toString() value. There is one shared instance per enum class,
+ * used by {@link Transformers#toEnum(Class)}, {@link Validators#enumValidator(Class, String)} and for enum completion.
+ * A lookup table references its enum class, so the tables are held softly. The class loader of an unused enum can
+ * be collected once its table is cleared under memory pressure.
+ *
+ * @param <T> the enum type
+ */
+public class EnumLookup<T extends Enum<T>> {
+
+    private static final LoadingCache<Class<?>, EnumLookup<?>> LOOKUPS = CacheBuilder.newBuilder()
+            .weakKeys()
+            .softValues()
+            .build(new CacheLoader<Class<?>, EnumLookup<?>>() {
+                @Override
+                public EnumLookup<?> load(Class<?> enumClass) {
+                    return create(enumClass);
+                }
+            });
+
+    private final Class<T> enumClass;
+    private final Map<String, T> values;
+    private final Completer completer;
+
+    private EnumLookup(Class<T> enumClass) {
+        this.enumClass = enumClass;
+        T[] constants = enumClass.getEnumConstants();
+        this.values = Maps.newHashMapWithExpectedSize(constants.length);
+        for (T constant : constants) {
+            String key = key(constant.toString());
+            if (!values.containsKey(key)) {
+                values.put(key, constant);
+            }
+        }
+        this.completer = new EnumCompleter(enumClass);
+    }
+
+    /**
+     * Get the shared lookup table of enumClass
+     *
+     * @param enumClass Class of enum
+     * @param <T> the enum type
+     * @return the lookup table
+     */
+    @SuppressWarnings("unchecked")
+    public static <T extends Enum<T>> EnumLookup<T> of(Class<T> enumClass) {
+        return (EnumLookup<T>) LOOKUPS.getUnchecked(enumClass);
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static EnumLookup<?> create(Class<?> enumClass) {
+        return new EnumLookup(enumClass.asSubclass(Enum.class));
+    }
+
+    public Class<T> enumClass() {
+        return enumClass;
+    }
+
+    /**
+     * Find enum value by its toString() value ignoring case
+     *
+     * @param name the value
+     * @return the enum value or absent
+     */
+    public Optional<T> find(String name) {
+        if (name == null) return Optional.absent();
+        return Optional.fromNullable(values.get(key(name)));
+    }
+
+    /**
+     * Check if there is an enum value for name ignoring case
+     *
+     * @param name the value
+     * @return true if there is an enum value
+     */
+    public boolean contains(String name) {
+        return name != null && values.containsKey(key(name));
+    }
+
+    /**
+     * Get the shared completer for the enum values
+     *
+     * @return the completer
+     */
+    public Completer completer() {
+        return completer;
+    }
+
+    private static String key(String name) {
+        return name.toLowerCase(Locale.ROOT);
+    }
+
+}
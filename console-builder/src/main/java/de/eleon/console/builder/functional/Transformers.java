@@ -16,27 +16,17 @@
 package de.eleon.console.builder.functional;
 
 import com.google.common.base.Optional;
-import com.google.common.base.Predicate;
-import com.google.common.collect.FluentIterable;
 
-import static com.google.common.collect.Lists.newArrayList;
 import static java.lang.String.format;
 
 public class Transformers {
 
     public static <T extends Enum<T>> Transformer<T> toEnum(final Class<T> enumClass) {
+        final EnumLookup<T> lookup = EnumLookup.of(enumClass);
         return new Transformer<T>() {
             @Override
             public T apply(final String userIn) {
-                Optional<T> ret = FluentIterable
-                        .from(newArrayList(enumClass.getEnumConstants()))
-                        .firstMatch(new Predicate<T>() {
-                            @Override
-                            public boolean apply(T enumValue) {
-                                return enumValue.toString()
-                                        .equalsIgnoreCase(userIn);
-                            }
-                        });
+                Optional<T> ret = lookup.find(userIn);
                 if (!ret.isPresent()) throw new IllegalArgumentException(format("could not find value %s in enum %s", userIn, enumClass.getName()));
                 return ret.get();
             }
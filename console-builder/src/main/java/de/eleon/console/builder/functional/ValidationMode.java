@@ -0,0 +1,33 @@
+/*
+* Copyright 2014 Dominik Foerderreuther <dominik@eleon.de>
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+* http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package de.eleon.console.builder.functional;
+
+/**
+ * Mode how a list of validators is evaluated
+ */
+public enum ValidationMode {
+
+    /**
+     * Evaluate all validators and collect all error messages
+     */
+    COLLECT_ALL,
+
+    /**
+     * Stop at the first failing validator
+     */
+    FAIL_FAST
+
+}
@@ -0,0 +1,67 @@
+/*
+* Copyright 2014 Dominik Foerderreuther <dominik@eleon.de>
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+* http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package de.eleon.console.builder.functional;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Result of validating one user input. Holds the error messages of all failed validators.
+ */
+public final class ValidationResult {
+
+    private static final ValidationResult VALID = new ValidationResult(Collections.<String>emptyList());
+
+    private final List<String> errors;
+
+    private ValidationResult(List<String> errors) {
+        this.errors = errors;
+    }
+
+    public static ValidationResult valid() {
+        return VALID;
+    }
+
+    public static ValidationResult invalid(Iterable<String> errors) {
+        List<String> copy = new ArrayList<String>();
+        for (String error : errors) {
+            copy.add(checkNotNull(error));
+        }
+        return copy.isEmpty() ? VALID : new ValidationResult(Collections.unmodifiableList(copy));
+    }
+
+    public boolean isValid() {
+        return errors.isEmpty();
+    }
+
+    /**
+     * Get error messages of failed validators in order of the validators
+     *
+     * @return error messages, empty if valid
+     */
+    public List<String> errors() {
+        return errors;
+    }
+
+    @Override
+    public String toString() {
+        return isValid() ? "valid" : "invalid " + errors;
+    }
+
+}
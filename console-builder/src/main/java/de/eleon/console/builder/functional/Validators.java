@@ -16,9 +16,47 @@
 package de.eleon.console.builder.functional;
 
 import com.google.common.base.Function;
+import com.google.common.base.Throwables;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.regex.Pattern;
 
 public class Validators {
 
+    static final int PATTERN_CACHE_SIZE = 256;
+
+    /**
+     * Error message of validators running in parallel which did not finish in time
+     */
+    public static final String TIMEOUT_MESSAGE = "Validation timed out, please try again";
+
+    /**
+     * Compiled regular expressions, built on the first regex validator
+     */
+    private static class Patterns {
+
+        private static final LoadingCache<String, Pattern> CACHE = CacheBuilder.newBuilder()
+                .maximumSize(PATTERN_CACHE_SIZE)
+                .build(new CacheLoader<String, Pattern>() {
+                    @Override
+                    public Pattern load(String regex) {
+                        return Pattern.compile(regex);
+                    }
+                });
+    }
+
     public static Validator notEmpty(final String message) {
         return new Validator() {
             @Override
@@ -33,11 +71,31 @@ public class Validators {
         };
     }
 
+    /**
+     * Validate that the whole input matches regex. The regex is compiled once and shared by all validators with the
+     * same regex.
+     *
+     * @param regex the regular expression
+     * @param message error message
+     * @return the validator
+     * @throws java.util.regex.PatternSyntaxException if regex is invalid
+     */
     public static Validator regex(final String regex, final String message) {
+        return pattern(compile(regex), message);
+    }
+
+    /**
+     * Validate that the whole input matches pattern
+     *
+     * @param pattern the compiled regular expression
+     * @param message error message
+     * @return the validator
+     */
+    public static Validator pattern(final Pattern pattern, final String message) {
         return new Validator() {
             @Override
             public boolean valid(String input) {
-                return input != null && input.matches(regex);
+                return input != null && pattern.matcher(input).matches();
             }
 
             @Override
@@ -48,15 +106,11 @@ public class Validators {
     }
 
     public static <T extends Enum<T>> Validator enumValidator(final Class<T> enumClass, final String message) {
+        final EnumLookup<T> lookup = EnumLookup.of(enumClass);
         return new Validator() {
             @Override
             public boolean valid(String input) {
-                try {
-                    Transformers.toEnum(enumClass).apply(input);
-                    return true;
-                } catch (IllegalArgumentException e) {
-                    return false;
-                }
+                return lookup.contains(input);
             }
 
             @Override
@@ -85,4 +139,139 @@ public class Validators {
         };
     }
 
+    /**
+     * Validate input with validators. Each validator is evaluated at most once, a validator throwing an exception
+     * counts as failed.
+     *
+     * @param validators validators in order of evaluation
+     * @param input user input
+     * @param mode {@link ValidationMode#FAIL_FAST} to stop at the first failing validator
+     * @return the ValidationResult
+     */
+    public static ValidationResult validate(Iterable<? extends Validator> validators, String input, ValidationMode mode) {
+        List<String> errors = null;
+        for (Validator validator : validators) {
+            if (isValid(validator, input)) continue;
+            if (errors == null) errors = new ArrayList<String>();
+            errors.add(validator.message());
+            if (mode == ValidationMode.FAIL_FAST) break;
+        }
+        return errors == null ? ValidationResult.valid() : ValidationResult.invalid(errors);
+    }
+
+    /**
+     * Validate input with validators running concurrently on executor. Error messages are collected in order of the
+     * validators, like with {@link #validate(Iterable, String, ValidationMode)}. A validator which is not finished
+     * timeout after it started running is cancelled and reported with {@link #TIMEOUT_MESSAGE} instead of its own
+     * message, as the input may be valid. Time waiting in the queue of executor doesn't count, but a validator which
+     * doesn't start within timeout after the validation started, e.g. on a saturated executor, is timed out too. In
+     * {@link ValidationMode#FAIL_FAST} the result is the first failing validator in order, validators still running
+     * then are cancelled.
+     *
+     * @param validators validators in order of the error messages
+     * @param input user input
+     * @param mode {@link ValidationMode#FAIL_FAST} to stop at the first failing validator
+     * @param executor executor running the validators, e.g. a ForkJoinPool
+     * @param timeout maximum running time of each validator
+     * @param unit unit of timeout
+     * @return the ValidationResult
+     */
+    public static ValidationResult validate(List<? extends Validator> validators, String input, ValidationMode mode,
+                                            ExecutorService executor, long timeout, TimeUnit unit) {
+        long timeoutNanos = unit.toNanos(timeout);
+        long startDeadline = System.nanoTime() + timeoutNanos;
+        List<Check> checks = new ArrayList<Check>(validators.size());
+        try {
+            for (Validator validator : validators) {
+                Check check = new Check(validator, input);
+                check.future = executor.submit(check);
+                checks.add(check);
+            }
+            List<String> errors = null;
+            for (Check check : checks) {
+                Outcome outcome = check.await(startDeadline, timeoutNanos);
+                if (outcome == Outcome.VALID) continue;
+                String message = outcome == Outcome.TIMED_OUT ? TIMEOUT_MESSAGE : check.validator.message();
+                if (errors == null) errors = new ArrayList<String>();
+                if (!errors.contains(TIMEOUT_MESSAGE) || outcome != Outcome.TIMED_OUT) errors.add(message);
+                if (mode == ValidationMode.FAIL_FAST) break;
+            }
+            return errors == null ? ValidationResult.valid() : ValidationResult.invalid(errors);
+        } finally {
+            for (Check check : checks) {
+                check.future.cancel(true);
+            }
+        }
+    }
+
+    private enum Outcome {
+        VALID, INVALID, TIMED_OUT
+    }
+
+    /**
+     * One validator running on an executor. Its timeout starts when it starts running.
+     */
+    private static class Check implements Callable<Boolean> {
+
+        private final Validator validator;
+        private final String input;
+        private final CountDownLatch started = new CountDownLatch(1);
+        private volatile long startNanos;
+        private Future<Boolean> future;
+
+        Check(Validator validator, String input) {
+            this.validator = validator;
+            this.input = input;
+        }
+
+        @Override
+        public Boolean call() {
+            startNanos = System.nanoTime();
+            started.countDown();
+            return isValid(validator, input);
+        }
+
+        /**
+         * Wait for the result
+         *
+         * @param startDeadline time until the validator has to start running
+         * @param timeoutNanos maximum running time once started
+         * @return the outcome, {@link Outcome#TIMED_OUT} if it started too late or ran too long
+         */
+        Outcome await(long startDeadline, long timeoutNanos) {
+            try {
+                if (!started.await(startDeadline - System.nanoTime(), TimeUnit.NANOSECONDS)) {
+                    future.cancel(true);
+                    return Outcome.TIMED_OUT;
+                }
+                boolean valid = future.get(startNanos + timeoutNanos - System.nanoTime(), TimeUnit.NANOSECONDS);
+                return valid ? Outcome.VALID : Outcome.INVALID;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return Outcome.INVALID;
+            } catch (ExecutionException e) {
+                return Outcome.INVALID;
+            } catch (TimeoutException e) {
+                future.cancel(true);
+                return Outcome.TIMED_OUT;
+            }
+        }
+    }
+
+    private static boolean isValid(Validator validator, String input) {
+        try {
+            return validator.valid(input);
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    private static Pattern compile(String regex) {
+        try {
+            return Patterns.CACHE.getUnchecked(regex);
+        } catch (UncheckedExecutionException e) {
+            throw Throwables.propagate(e.getCause());
+        }
+    }
+
 }
@@ -0,0 +1,419 @@
+/*
+* Copyright 2014 Dominik Foerderreuther <dominik@eleon.de>
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+* http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package de.eleon.console.builder.history;
+
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import jline.console.history.MemoryHistory;
+import jline.console.history.PersistentHistory;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.Charset;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Iterator;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Persistent history which appends new entries to its file instead of rewriting it. The file format is the same as
+ * the one of jline's FileHistory: one entry per line.
+ *
+ * The file is read lazily on first usage and only from its end, so only the last {@link #getMaxSize()} entries are
+ * parsed. If the file holds more than {@link #getMaxFileEntries()} entries, it is compacted to the entries in memory
+ * on a background thread.
+ */
+public class AppendOnlyFileHistory implements PersistentHistory {
+
+    public static final int DEFAULT_MAX_FILE_ENTRIES = 2 * MemoryHistory.DEFAULT_MAX_SIZE;
+
+    private static final Charset CHARSET = Charset.defaultCharset();
+    private static final int BLOCK_SIZE = 8 * 1024;
+
+    private static final Executor COMPACTOR = Executors.newSingleThreadExecutor(
+            new ThreadFactoryBuilder().setDaemon(true).setNameFormat("console-builder-history-compaction").build());
+
+    private final File file;
+    private final MemoryHistory entries = new MemoryHistory();
+    private final List<String> pending = Lists.newArrayList();
+
+    private int maxFileEntries = DEFAULT_MAX_FILE_ENTRIES;
+    private boolean loaded = false;
+    private boolean rewrite = false;
+    private int rewrites = 0;
+    private int fileEntries;
+    private String last;
+    private List<String> appendedDuringCompaction;
+
+    public AppendOnlyFileHistory(File file) {
+        this.file = checkNotNull(file);
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    public synchronized int getMaxSize() {
+        return entries.getMaxSize();
+    }
+
+    /**
+     * Set the maximum number of entries kept in memory
+     *
+     * @param maxSize maximum number of entries
+     */
+    public synchronized void setMaxSize(int maxSize) {
+        entries.setMaxSize(maxSize);
+    }
+
+    public synchronized int getMaxFileEntries() {
+        return maxFileEntries;
+    }
+
+    /**
+     * Set the number of entries in the file which triggers a compaction
+     *
+     * @param maxFileEntries maximum number of entries in the file
+     */
+    public synchronized void setMaxFileEntries(int maxFileEntries) {
+        this.maxFileEntries = maxFileEntries;
+    }
+
+    @Override
+    public synchronized int size() {
+        return loaded().size();
+    }
+
+    @Override
+    public synchronized boolean isEmpty() {
+        return loaded().isEmpty();
+    }
+
+    @Override
+    public synchronized int index() {
+        return loaded().index();
+    }
+
+    @Override
+    public synchronized void clear() {
+        loaded().clear();
+        last = null;
+        rewrite = true;
+        discardCompaction();
+    }
+
+    @Override
+    public synchronized CharSequence get(int index) {
+        return loaded().get(index);
+    }
+
+    @Override
+    public synchronized void add(CharSequence item) {
+        MemoryHistory history = loaded();
+        String line = item.toString();
+        if (!history.isEmpty() && line.equals(last)) {
+            return;
+        }
+        history.add(line);
+        pending.add(line);
+        last = line;
+    }
+
+    @Override
+    public synchronized void set(int index, CharSequence item) {
+        loaded().set(index, item);
+        rewrite = true;
+    }
+
+    @Override
+    public synchronized CharSequence remove(int i) {
+        rewrite = true;
+        return loaded().remove(i);
+    }
+
+    @Override
+    public synchronized CharSequence removeFirst() {
+        rewrite = true;
+        return loaded().removeFirst();
+    }
+
+    @Override
+    public synchronized CharSequence removeLast() {
+        rewrite = true;
+        last = null;
+        return loaded().removeLast();
+    }
+
+    @Override
+    public synchronized void replace(CharSequence item) {
+        loaded().replace(item);
+        rewrite = true;
+    }
+
+    @Override
+    public synchronized ListIterator<Entry> entries(int index) {
+        return loaded().entries(index);
+    }
+
+    @Override
+    public synchronized ListIterator<Entry> entries() {
+        return loaded().entries();
+    }
+
+    @Override
+    public synchronized Iterator<Entry> iterator() {
+        return loaded().iterator();
+    }
+
+    @Override
+    public synchronized CharSequence current() {
+        return loaded().current();
+    }
+
+    @Override
+    public synchronized boolean previous() {
+        return loaded().previous();
+    }
+
+    @Override
+    public synchronized boolean next() {
+        return loaded().next();
+    }
+
+    @Override
+    public synchronized boolean moveToFirst() {
+        return loaded().moveToFirst();
+    }
+
+    @Override
+    public synchronized boolean moveToLast() {
+        return loaded().moveToLast();
+    }
+
+    @Override
+    public synchronized boolean moveTo(int index) {
+        return loaded().moveTo(index);
+    }
+
+    @Override
+    public synchronized void moveToEnd() {
+        loaded().moveToEnd();
+    }
+
+    /**
+     * Append entries added since the last flush to the file with a single write. Start a compaction if the file
+     * exceeds {@link #getMaxFileEntries()}.
+     *
+     * @throws IOException if writing fails
+     */
+    @Override
+    public synchronized void flush() throws IOException {
+        if (rewrite) {
+            write(snapshot(), false);
+            fileEntries = entries.size();
+            pending.clear();
+            rewrite = false;
+            rewrites++;
+            return;
+        }
+        if (pending.isEmpty()) return;
+
+        write(pending, true);
+        fileEntries += pending.size();
+        if (appendedDuringCompaction != null) {
+            appendedDuringCompaction.addAll(pending);
+        }
+        pending.clear();
+
+        if (fileEntries > maxFileEntries && appendedDuringCompaction == null) {
+            compact();
+        }
+    }
+
+    @Override
+    public synchronized void purge() throws IOException {
+        clear();
+        pending.clear();
+        rewrite = false;
+        fileEntries = 0;
+        discardCompaction();
+        if (file.exists() && !file.delete()) {
+            throw new IOException("Can't delete history file " + file);
+        }
+    }
+
+    private MemoryHistory loaded() {
+        if (!loaded) {
+            loaded = true;
+            try {
+                load();
+            } catch (IOException e) {
+                throw new IllegalStateException("Can't read history file " + file, e);
+            }
+        }
+        return entries;
+    }
+
+    /**
+     * Read the last entries of the file. Count the lines from the end of the file until {@link #getMaxFileEntries()}
+     * is exceeded to know if a compaction is necessary, but parse only the last {@link #getMaxSize()} of them.
+     */
+    private void load() throws IOException {
+        if (!file.exists()) return;
+
+        RandomAccessFile in = new RandomAccessFile(file, "r");
+        try {
+            long length = in.length();
+            if (length == 0) return;
+
+            byte[] block = new byte[BLOCK_SIZE];
+            int separators = 0;
+            long tailStart = 0;
+            long blockEnd = length - 1;
+
+            scan:
+            while (blockEnd > 0) {
+                long blockStart = Math.max(0, blockEnd - BLOCK_SIZE);
+                int blockLength = (int) (blockEnd - blockStart);
+                in.seek(blockStart);
+                in.readFully(block, 0, blockLength);
+                for (int i = blockLength - 1; i >= 0; i--) {
+                    if (block[i] != '\n') continue;
+                    separators++;
+                    if (separators == entries.getMaxSize()) {
+                        tailStart = blockStart + i + 1;
+                    }
+                    if (separators >= maxFileEntries) {
+                        break scan;
+                    }
+                }
+                blockEnd = blockStart;
+            }
+            fileEntries = separators + 1;
+
+            byte[] tail = new byte[(int) (length - tailStart)];
+            in.seek(tailStart);
+            in.readFully(tail);
+            addLines(new String(tail, CHARSET));
+        } finally {
+            in.close();
+        }
+
+        if (fileEntries > maxFileEntries) {
+            compact();
+        }
+    }
+
+    private void addLines(String content) {
+        int start = 0;
+        while (start < content.length()) {
+            int end = content.indexOf('\n', start);
+            if (end < 0) end = content.length();
+            int lineEnd = end > start && content.charAt(end - 1) == '\r' ? end - 1 : end;
+            last = content.substring(start, lineEnd);
+            entries.add(last);
+            start = end + 1;
+        }
+    }
+
+    private List<String> snapshot() {
+        List<String> snapshot = Lists.newArrayListWithCapacity(entries.size());
+        for (Entry entry : entries) {
+            snapshot.add(entry.value().toString());
+        }
+        return snapshot;
+    }
+
+    /**
+     * Rewrite the file with the entries in memory on a background thread. Entries flushed meanwhile are appended to
+     * the compacted file before it replaces the original one. If the file was completely rewritten meanwhile, the
+     * compacted file is discarded.
+     */
+    private void compact() {
+        final List<String> snapshot = snapshot();
+        final int generation = rewrites;
+        final List<String> appended = Lists.newArrayList();
+        appendedDuringCompaction = appended;
+        COMPACTOR.execute(new Runnable() {
+            @Override
+            public void run() {
+                File compacted = new File(file.getPath() + ".compact");
+                try {
+                    write(compacted, snapshot, false);
+                    synchronized (AppendOnlyFileHistory.this) {
+                        if (generation != rewrites) {
+                            compacted.delete();
+                            return;
+                        }
+                        write(compacted, appended, true);
+                        replace(compacted);
+                        fileEntries = snapshot.size() + appended.size();
+                    }
+                } catch (IOException e) {
+                    compacted.delete();
+                } finally {
+                    synchronized (AppendOnlyFileHistory.this) {
+                        if (appendedDuringCompaction == appended) {
+                            appendedDuringCompaction = null;
+                        }
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * Let a running compaction discard its result, as the entries it holds were removed
+     */
+    private void discardCompaction() {
+        rewrites++;
+        appendedDuringCompaction = null;
+    }
+
+    private void replace(File compacted) throws IOException {
+        try {
+            Files.move(compacted.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(compacted.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private void write(List<String> lines, boolean append) throws IOException {
+        write(file, lines, append);
+    }
+
+    private static void write(File target, List<String> lines, boolean append) throws IOException {
+        StringBuilder content = new StringBuilder();
+        for (String line : lines) {
+            content.append(line).append('\n');
+        }
+        FileOutputStream out = new FileOutputStream(target, append);
+        try {
+            out.write(content.toString().getBytes(CHARSET));
+        } finally {
+            out.close();
+        }
+    }
+
+}
@@ -0,0 +1,55 @@
+/*
+* Copyright 2014 Dominik Foerderreuther <dominik@eleon.de>
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+* http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package de.eleon.console.builder.history;
+
+import jline.console.history.PersistentHistory;
+
+import java.io.File;
+
+/**
+ * Storage of a question specific history file
+ */
+public enum HistoryBackend {
+
+    /**
+     * {@link AppendOnlyFileHistory}: keeps the last entries in memory and appends new ones to the file
+     */
+    APPEND_ONLY {
+        @Override
+        public PersistentHistory open(File file) {
+            return new AppendOnlyFileHistory(file);
+        }
+    },
+
+    /**
+     * {@link MappedFileHistory}: keeps all entries in the memory mapped file and indexes them for fast reverse search
+     */
+    MAPPED {
+        @Override
+        public PersistentHistory open(File file) {
+            return new MappedFileHistory(file);
+        }
+    };
+
+    /**
+     * Create history for file
+     *
+     * @param file the history file
+     * @return the history
+     */
+    public abstract PersistentHistory open(File file);
+
+}
@@ -0,0 +1,236 @@
+/*
+* Copyright 2014 Dominik Foerderreuther <dominik@eleon.de>
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+* http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package de.eleon.console.builder.history;
+
+import jline.console.history.PersistentHistory;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.ListIterator;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * View of a history shared by several sessions. Entries are read from and written to the shared history, but every
+ * view has its own navigation cursor, so moving through the history in one session doesn't move it in another.
+ * A view which is at the end of the history stays there if other sessions add entries.
+ */
+public class HistoryView implements PersistentHistory, SearchableHistory {
+
+    private final PersistentHistory history;
+    private boolean atEnd = true;
+    private int index;
+
+    public HistoryView(PersistentHistory history) {
+        this.history = checkNotNull(history);
+    }
+
+    /**
+     * Get the shared history
+     *
+     * @return the history
+     */
+    public PersistentHistory history() {
+        return history;
+    }
+
+    @Override
+    public int size() {
+        return history.size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return history.isEmpty();
+    }
+
+    @Override
+    public int index() {
+        synchronized (history) {
+            return atEnd ? end() : Math.max(index, first());
+        }
+    }
+
+    @Override
+    public void clear() {
+        history.clear();
+        atEnd = true;
+    }
+
+    @Override
+    public CharSequence get(int index) {
+        return history.get(index);
+    }
+
+    @Override
+    public void add(CharSequence line) {
+        history.add(line);
+        atEnd = true;
+    }
+
+    @Override
+    public void set(int index, CharSequence item) {
+        history.set(index, item);
+    }
+
+    @Override
+    public CharSequence remove(int i) {
+        return history.remove(i);
+    }
+
+    @Override
+    public CharSequence removeFirst() {
+        return history.removeFirst();
+    }
+
+    @Override
+    public CharSequence removeLast() {
+        return history.removeLast();
+    }
+
+    @Override
+    public void replace(CharSequence item) {
+        history.replace(item);
+    }
+
+    @Override
+    public ListIterator<Entry> entries(int index) {
+        return history.entries(index);
+    }
+
+    @Override
+    public ListIterator<Entry> entries() {
+        return history.entries();
+    }
+
+    @Override
+    public Iterator<Entry> iterator() {
+        return history.iterator();
+    }
+
+    @Override
+    public CharSequence current() {
+        synchronized (history) {
+            int current = index();
+            return current >= end() ? "" : history.get(current);
+        }
+    }
+
+    @Override
+    public boolean previous() {
+        synchronized (history) {
+            int current = index();
+            if (current <= first()) return false;
+            index = current - 1;
+            atEnd = false;
+            return true;
+        }
+    }
+
+    @Override
+    public boolean next() {
+        synchronized (history) {
+            int current = index();
+            if (current >= end()) return false;
+            index = current + 1;
+            atEnd = index >= end();
+            return true;
+        }
+    }
+
+    @Override
+    public boolean moveToFirst() {
+        synchronized (history) {
+            if (isEmpty() || index() == first()) return false;
+            index = first();
+            atEnd = false;
+            return true;
+        }
+    }
+
+    @Override
+    public boolean moveToLast() {
+        synchronized (history) {
+            int last = end() - 1;
+            if (isEmpty() || index() == last) return false;
+            index = last;
+            atEnd = false;
+            return true;
+        }
+    }
+
+    @Override
+    public boolean moveTo(int index) {
+        synchronized (history) {
+            if (index < first() || index >= end()) return false;
+            this.index = index;
+            atEnd = false;
+            return true;
+        }
+    }
+
+    @Override
+    public void moveToEnd() {
+        atEnd = true;
+    }
+
+    /**
+     * Search backwards with the search of the shared history if it has one, otherwise by comparing all entries before
+     * startIndex
+     */
+    @Override
+    public int searchBackwards(String term, int startIndex, boolean startsWith) {
+        if (history instanceof SearchableHistory) {
+            return ((SearchableHistory) history).searchBackwards(term, startIndex, startsWith);
+        }
+        synchronized (history) {
+            for (int i = Math.min(startIndex, end()) - 1; i >= first(); i--) {
+                String entry = history.get(i).toString();
+                if (startsWith ? entry.startsWith(term) : entry.contains(term)) return i;
+            }
+            return -1;
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        history.flush();
+    }
+
+    @Override
+    public void purge() throws IOException {
+        history.purge();
+        atEnd = true;
+    }
+
+    /**
+     * Index of the first entry, histories with a maximum size drop their first entries
+     */
+    private int first() {
+        Iterator<Entry> entries = history.iterator();
+        return entries.hasNext() ? entries.next().index() : 0;
+    }
+
+    private int end() {
+        return first() + history.size();
+    }
+
+    @Override
+    public String toString() {
+        return history.toString();
+    }
+
+}
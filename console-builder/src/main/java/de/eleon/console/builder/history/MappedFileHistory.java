@@ -0,0 +1,485 @@
+/*
+* Copyright 2014 Dominik Foerderreuther <dominik@eleon.de>
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+* http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package de.eleon.console.builder.history;
+
+import jline.console.history.PersistentHistory;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.ListIterator;
+import java.util.NoSuchElementException;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Persistent history on a memory mapped file. The file format is the same as the one of jline's FileHistory: one
+ * entry per line.
+ *
+ * Entries stay in the file and are only decoded when they are requested. The history keeps the start offset of every
+ * entry and, built on first search, a {@link TrigramIndex} of the entries for reverse search. New entries are appended
+ * to the file immediately, the file is mapped again only when an appended entry is read. The file is only open while
+ * it is mapped, written or truncated, so the history holds no file handle. All entries of the file are available,
+ * there is no maximum size. The file has to be smaller than 2 GB.
+ */
+public class MappedFileHistory implements PersistentHistory, SearchableHistory {
+
+    private static final Charset CHARSET = Charset.defaultCharset();
+
+    private final File file;
+    private final IntArray offsets = new IntArray();
+
+    private boolean loaded = false;
+    private MappedByteBuffer map;
+    private int end;
+    private boolean terminated = true;
+    private byte[] last;
+    private TrigramIndex trigrams;
+    private int index;
+
+    public MappedFileHistory(File file) {
+        this.file = checkNotNull(file);
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    @Override
+    public synchronized int size() {
+        return loaded().size();
+    }
+
+    @Override
+    public synchronized boolean isEmpty() {
+        return size() == 0;
+    }
+
+    @Override
+    public synchronized int index() {
+        loaded();
+        return index;
+    }
+
+    /**
+     * Remove all entries from the history and its file
+     */
+    @Override
+    public synchronized void clear() {
+        loaded();
+        try {
+            FileChannel channel = open();
+            try {
+                channel.truncate(0);
+            } finally {
+                channel.close();
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Can't clear history file " + file, e);
+        }
+        end = 0;
+        map = null;
+        last = null;
+        offsets.clear();
+        trigrams = null;
+        terminated = true;
+        index = 0;
+    }
+
+    @Override
+    public synchronized CharSequence get(int index) {
+        if (index < 0 || index >= size()) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size());
+        }
+        ByteBuffer entry = mapped().duplicate();
+        entry.limit(entryEnd(index));
+        entry.position(offsets.get(index));
+        return CHARSET.decode(entry).toString();
+    }
+
+    /**
+     * Append entry to the history file. An entry equal to the last one is ignored.
+     *
+     * @param item the entry
+     */
+    @Override
+    public synchronized void add(CharSequence item) {
+        IntArray offsets = loaded();
+        byte[] bytes = item.toString().getBytes(CHARSET);
+        int size = offsets.size();
+        if (size > 0 && Arrays.equals(bytes, last)) {
+            index = size;
+            return;
+        }
+
+        ByteBuffer line = ByteBuffer.allocate(bytes.length + 2);
+        if (!terminated) line.put((byte) '\n');
+        int start = end + line.position();
+        line.put(bytes).put((byte) '\n');
+        line.flip();
+        try {
+            FileChannel channel = open();
+            try {
+                while (line.hasRemaining()) {
+                    channel.write(line, end + line.position());
+                }
+            } finally {
+                channel.close();
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Can't write history file " + file, e);
+        }
+        end += line.limit();
+        terminated = true;
+        last = bytes;
+        offsets.add(start);
+        if (trigrams != null) {
+            trigrams.add(size, ByteBuffer.wrap(bytes), 0, bytes.length);
+        }
+        index = offsets.size();
+    }
+
+    @Override
+    public void set(int index, CharSequence item) {
+        throw appendOnly();
+    }
+
+    @Override
+    public CharSequence remove(int i) {
+        throw appendOnly();
+    }
+
+    @Override
+    public CharSequence removeFirst() {
+        throw appendOnly();
+    }
+
+    @Override
+    public CharSequence removeLast() {
+        throw appendOnly();
+    }
+
+    @Override
+    public void replace(CharSequence item) {
+        throw appendOnly();
+    }
+
+    @Override
+    public synchronized ListIterator<Entry> entries(int index) {
+        loaded();
+        return new EntriesIterator(index);
+    }
+
+    @Override
+    public synchronized ListIterator<Entry> entries() {
+        return entries(0);
+    }
+
+    @Override
+    public synchronized Iterator<Entry> iterator() {
+        return entries();
+    }
+
+    @Override
+    public synchronized CharSequence current() {
+        if (index() >= size()) return "";
+        return get(index);
+    }
+
+    @Override
+    public synchronized boolean previous() {
+        if (index() <= 0) return false;
+        index--;
+        return true;
+    }
+
+    @Override
+    public synchronized boolean next() {
+        if (index() >= size()) return false;
+        index++;
+        return true;
+    }
+
+    @Override
+    public synchronized boolean moveToFirst() {
+        if (size() > 0 && index != 0) {
+            index = 0;
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public synchronized boolean moveToLast() {
+        int last = size() - 1;
+        if (last >= 0 && last != index) {
+            index = last;
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public synchronized boolean moveTo(int index) {
+        if (index >= 0 && index < size()) {
+            this.index = index;
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public synchronized void moveToEnd() {
+        index = size();
+    }
+
+    /**
+     * Search backwards with the trigram index. Terms shorter than a trigram are searched by scanning the mapped file.
+     *
+     * @param term to search for
+     * @param startIndex search entries before this index
+     * @param startsWith true if the entry has to start with term, false if it has to contain it
+     * @return index of found entry, -1 if none is found
+     */
+    @Override
+    public synchronized int searchBackwards(String term, int startIndex, boolean startsWith) {
+        int from = Math.min(startIndex, size()) - 1;
+        byte[] bytes = term.getBytes(CHARSET);
+
+        if (bytes.length < TrigramIndex.GRAM) {
+            for (int id = from; id >= 0; id--) {
+                if (matches(id, bytes, startsWith)) return id;
+            }
+            return -1;
+        }
+
+        IntArray candidates = trigrams().candidates(bytes);
+        if (candidates == null) return -1;
+        for (int i = candidates.countLowerThan(from + 1) - 1; i >= 0; i--) {
+            int id = candidates.get(i);
+            if (matches(id, bytes, startsWith)) return id;
+        }
+        return -1;
+    }
+
+    /**
+     * Entries are written on {@link #add(CharSequence)}, so there is nothing left to flush.
+     */
+    @Override
+    public void flush() throws IOException {
+    }
+
+    @Override
+    public synchronized void purge() throws IOException {
+        clear();
+    }
+
+    private IntArray loaded() {
+        if (!loaded) {
+            try {
+                load();
+            } catch (IOException e) {
+                throw new IllegalStateException("Can't read history file " + file, e);
+            }
+        }
+        return offsets;
+    }
+
+    /**
+     * Map the file and collect the start offsets of its lines
+     */
+    private void load() throws IOException {
+        FileChannel channel = open();
+        long length;
+        try {
+            length = channel.size();
+        } finally {
+            channel.close();
+        }
+        if (length > Integer.MAX_VALUE) {
+            throw new IOException("History file " + file + " is too large to map");
+        }
+        end = (int) length;
+        MappedByteBuffer map = mapped();
+        for (int i = 0; i < end; i++) {
+            if (i == 0 || map.get(i - 1) == '\n') {
+                offsets.add(i);
+            }
+        }
+        terminated = end == 0 || map.get(end - 1) == '\n';
+        if (offsets.size() > 0) {
+            int id = offsets.size() - 1;
+            last = new byte[entryEnd(id) - offsets.get(id)];
+            ((ByteBuffer) map.duplicate().position(offsets.get(id))).get(last);
+        }
+        index = offsets.size();
+        loaded = true;
+    }
+
+    /**
+     * Get the mapping of the file. Appended entries are not mapped until they are read, then the whole file is mapped
+     * again.
+     */
+    private MappedByteBuffer mapped() {
+        if (map == null || map.capacity() < end) {
+            try {
+                FileChannel channel = open();
+                try {
+                    map = channel.map(FileChannel.MapMode.READ_ONLY, 0, end);
+                } finally {
+                    channel.close();
+                }
+            } catch (IOException e) {
+                throw new IllegalStateException("Can't map history file " + file, e);
+            }
+        }
+        return map;
+    }
+
+    /**
+     * Open the file, the caller closes it. A mapping stays valid when the file is closed.
+     */
+    private FileChannel open() throws IOException {
+        return new RandomAccessFile(file, "rw").getChannel();
+    }
+
+    private TrigramIndex trigrams() {
+        if (trigrams == null) {
+            trigrams = new TrigramIndex();
+            MappedByteBuffer map = mapped();
+            for (int id = 0; id < offsets.size(); id++) {
+                trigrams.add(id, map, offsets.get(id), entryEnd(id));
+            }
+        }
+        return trigrams;
+    }
+
+    /**
+     * End of entry without line separator
+     */
+    private int entryEnd(int id) {
+        MappedByteBuffer map = mapped();
+        int entryEnd = id + 1 < offsets.size() ? offsets.get(id + 1) : end;
+        int start = offsets.get(id);
+        if (entryEnd > start && map.get(entryEnd - 1) == '\n') entryEnd--;
+        if (entryEnd > start && map.get(entryEnd - 1) == '\r') entryEnd--;
+        return entryEnd;
+    }
+
+    private boolean matches(int id, byte[] term, boolean startsWith) {
+        MappedByteBuffer map = mapped();
+        int start = offsets.get(id);
+        int lastStart = entryEnd(id) - term.length;
+        if (startsWith) lastStart = Math.min(lastStart, start);
+        for (int position = start; position <= lastStart; position++) {
+            if (matchesAt(map, position, term)) return true;
+        }
+        return false;
+    }
+
+    private static boolean matchesAt(ByteBuffer map, int position, byte[] term) {
+        for (int i = 0; i < term.length; i++) {
+            if (map.get(position + i) != term[i]) return false;
+        }
+        return true;
+    }
+
+    private UnsupportedOperationException appendOnly() {
+        return new UnsupportedOperationException("MappedFileHistory is append only");
+    }
+
+    private class EntriesIterator implements ListIterator<Entry> {
+
+        private int cursor;
+
+        private EntriesIterator(int cursor) {
+            this.cursor = cursor;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return cursor < size();
+        }
+
+        @Override
+        public Entry next() {
+            if (!hasNext()) throw new NoSuchElementException();
+            return entry(cursor++);
+        }
+
+        @Override
+        public boolean hasPrevious() {
+            return cursor > 0;
+        }
+
+        @Override
+        public Entry previous() {
+            if (!hasPrevious()) throw new NoSuchElementException();
+            return entry(--cursor);
+        }
+
+        @Override
+        public int nextIndex() {
+            return cursor;
+        }
+
+        @Override
+        public int previousIndex() {
+            return cursor - 1;
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void set(Entry entry) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void add(Entry entry) {
+            throw new UnsupportedOperationException();
+        }
+
+        private Entry entry(final int id) {
+            return new Entry() {
+                @Override
+                public int index() {
+                    return id;
+                }
+
+                @Override
+                public CharSequence value() {
+                    return get(id);
+                }
+
+                @Override
+                public String toString() {
+                    return String.format("%d: %s", id, value());
+                }
+            };
+        }
+    }
+
+}
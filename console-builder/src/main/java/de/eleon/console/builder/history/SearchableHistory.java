@@ -0,0 +1,36 @@
+/*
+* Copyright 2014 Dominik Foerderreuther <dominik@eleon.de>
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+* http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package de.eleon.console.builder.history;
+
+import jline.console.history.History;
+
+/**
+ * History with its own search. ConsoleReaders of console-builder use it for reverse search instead of iterating over
+ * all entries.
+ */
+public interface SearchableHistory extends History {
+
+    /**
+     * Search backwards from startIndex
+     *
+     * @param term to search for
+     * @param startIndex search entries before this index
+     * @param startsWith true if the entry has to start with term, false if it has to contain it
+     * @return index of found entry, -1 if none is found
+     */
+    int searchBackwards(String term, int startIndex, boolean startsWith);
+
+}
@@ -0,0 +1,78 @@
+/*
+* Copyright 2014 Dominik Foerderreuther <dominik@eleon.de>
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+* http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package de.eleon.console.builder.history;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Index of the byte trigrams of history entries. Trigrams are hashed into a fixed number of buckets, each holding the
+ * ascending ids of the entries containing one of its trigrams. A bucket is a superset of the entries containing a
+ * trigram, so candidates have to be verified.
+ */
+class TrigramIndex {
+
+    static final int GRAM = 3;
+
+    private static final int BITS = 16;
+
+    private final IntArray[] buckets = new IntArray[1 << BITS];
+
+    /**
+     * Add entry to index. Ids must be added in ascending order.
+     *
+     * @param id id of entry
+     * @param bytes buffer with entry
+     * @param start first byte of entry
+     * @param end end of entry, exclusive
+     */
+    void add(int id, ByteBuffer bytes, int start, int end) {
+        for (int i = start; i + GRAM <= end; i++) {
+            int bucket = bucket(bytes.get(i), bytes.get(i + 1), bytes.get(i + 2));
+            IntArray ids = buckets[bucket];
+            if (ids == null) {
+                ids = new IntArray(4);
+                buckets[bucket] = ids;
+            }
+            if (ids.size() == 0 || ids.last() != id) {
+                ids.add(id);
+            }
+        }
+    }
+
+    /**
+     * Get the smallest bucket of the trigrams of term
+     *
+     * @param term with at least {@link #GRAM} bytes
+     * @return candidates containing term, null if there is none
+     */
+    IntArray candidates(byte[] term) {
+        IntArray candidates = null;
+        for (int i = 0; i + GRAM <= term.length; i++) {
+            IntArray ids = buckets[bucket(term[i], term[i + 1], term[i + 2])];
+            if (ids == null) return null;
+            if (candidates == null || ids.size() < candidates.size()) {
+                candidates = ids;
+            }
+        }
+        return candidates;
+    }
+
+    private static int bucket(byte first, byte second, byte third) {
+        int trigram = (first & 0xff) << 16 | (second & 0xff) << 8 | (third & 0xff);
+        return (trigram * 0x9E3779B1) >>> (32 - BITS);
+    }
+
+}
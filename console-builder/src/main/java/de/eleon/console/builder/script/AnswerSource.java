@@ -0,0 +1,36 @@
+/*
+* Copyright 2014 Dominik Foerderreuther <dominik@eleon.de>
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+* http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package de.eleon.console.builder.script;
+
+import com.google.common.base.Optional;
+
+/**
+ * Source of answers for non-interactive sessions. Questions are answered from the source instead of the terminal.
+ *
+ * @see AnswerSources
+ */
+public interface AnswerSource {
+
+    /**
+     * Get the answer of a question
+     *
+     * @param id id of the question, the question itself if no id is set
+     * @param question the question
+     * @return the answer or absent if the source has no answer for the question
+     */
+    Optional<String> answer(String id, String question);
+
+}
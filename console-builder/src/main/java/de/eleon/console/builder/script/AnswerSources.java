@@ -0,0 +1,220 @@
+/*
+* Copyright 2014 Dominik Foerderreuther <dominik@eleon.de>
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+* http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package de.eleon.console.builder.script;
+
+import com.google.common.base.Optional;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Maps;
+import com.google.common.io.Files;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.Charset;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Factory for {@link AnswerSource}s
+ */
+public class AnswerSources {
+
+    private static final Charset CHARSET = Charset.defaultCharset();
+
+    /**
+     * Answer questions by id from a map
+     *
+     * @param answers answers by question id
+     * @return the AnswerSource
+     */
+    public static AnswerSource fromMap(Map<String, String> answers) {
+        final Map<String, String> copy = ImmutableMap.copyOf(answers);
+        return new AnswerSource() {
+            @Override
+            public Optional<String> answer(String id, String question) {
+                return Optional.fromNullable(copy.get(id));
+            }
+        };
+    }
+
+    /**
+     * Answer questions by id from properties
+     *
+     * @param properties answers by question id
+     * @return the AnswerSource
+     */
+    public static AnswerSource fromProperties(Properties properties) {
+        return fromMap(Maps.fromProperties(properties));
+    }
+
+    /**
+     * Answer questions by id from a properties file
+     *
+     * @param file properties file with answers by question id
+     * @return the AnswerSource
+     */
+    public static AnswerSource fromProperties(File file) {
+        Properties properties = new Properties();
+        try {
+            InputStream in = new FileInputStream(file);
+            try {
+                properties.load(in);
+            } finally {
+                in.close();
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Can't read answers from " + file, e);
+        }
+        return fromProperties(properties);
+    }
+
+    /**
+     * Answer questions by id from environment variables. The variable name is the prefix followed by the id in upper
+     * case with all other characters than letters and digits replaced by '_'. The id "first name" with prefix "APP_"
+     * is answered by the variable APP_FIRST_NAME.
+     *
+     * @param prefix prefix of the variable names
+     * @return the AnswerSource
+     */
+    public static AnswerSource fromEnvironment(String prefix) {
+        return fromEnvironment(prefix, System.getenv());
+    }
+
+    static AnswerSource fromEnvironment(final String prefix, final Map<String, String> environment) {
+        checkNotNull(prefix);
+        return new AnswerSource() {
+            @Override
+            public Optional<String> answer(String id, String question) {
+                return Optional.fromNullable(environment.get(variableName(prefix, id)));
+            }
+        };
+    }
+
+    static String variableName(String prefix, String id) {
+        return prefix + id.toUpperCase(Locale.ROOT).replaceAll("[^A-Z0-9]+", "_");
+    }
+
+    /**
+     * Answer questions in order with the lines of a file in the platform charset, one line per question
+     *
+     * @param file file with one answer per line
+     * @return the AnswerSource
+     */
+    public static AnswerSource fromLines(File file) {
+        return fromLines(file, CHARSET);
+    }
+
+    /**
+     * Answer questions in order with the lines of a file, one line per question. The file is read and closed at once.
+     *
+     * @param file file with one answer per line
+     * @param charset charset of the file
+     * @return the AnswerSource
+     */
+    public static AnswerSource fromLines(File file, Charset charset) {
+        final Iterator<String> lines;
+        try {
+            lines = Files.readLines(file, checkNotNull(charset)).iterator();
+        } catch (IOException e) {
+            throw new IllegalStateException("Can't read answers from " + file, e);
+        }
+        return new AnswerSource() {
+            @Override
+            public synchronized Optional<String> answer(String id, String question) {
+                return lines.hasNext() ? Optional.of(lines.next()) : Optional.<String>absent();
+            }
+        };
+    }
+
+    /**
+     * Answer questions in order with the lines of standard input, e.g. a pipe
+     *
+     * @return the AnswerSource
+     */
+    public static AnswerSource fromStdin() {
+        return fromLines(System.in);
+    }
+
+    /**
+     * Answer questions in order with the lines of a stream in the platform charset, one line per question. Lines are
+     * read on demand.
+     *
+     * @param in stream with one answer per line
+     * @return the AnswerSource
+     */
+    public static AnswerSource fromLines(InputStream in) {
+        return fromLines(in, CHARSET);
+    }
+
+    /**
+     * Answer questions in order with the lines of a stream, one line per question. Lines are read on demand.
+     *
+     * @param in stream with one answer per line
+     * @param charset charset of the stream
+     * @return the AnswerSource
+     */
+    public static AnswerSource fromLines(InputStream in, Charset charset) {
+        return fromLines(new InputStreamReader(in, checkNotNull(charset)));
+    }
+
+    /**
+     * Answer questions in order with the lines of a reader, one line per question. Lines are read on demand.
+     *
+     * @param in reader with one answer per line
+     * @return the AnswerSource
+     */
+    public static AnswerSource fromLines(Reader in) {
+        final BufferedReader reader = new BufferedReader(in);
+        return new AnswerSource() {
+            @Override
+            public synchronized Optional<String> answer(String id, String question) {
+                try {
+                    return Optional.fromNullable(reader.readLine());
+                } catch (IOException e) {
+                    throw new IllegalStateException("Can't read answer for question " + id, e);
+                }
+            }
+        };
+    }
+
+    /**
+     * Answer questions from the first source which has an answer
+     *
+     * @param sources sources in order of precedence
+     * @return the AnswerSource
+     */
+    public static AnswerSource firstOf(final AnswerSource... sources) {
+        return new AnswerSource() {
+            @Override
+            public Optional<String> answer(String id, String question) {
+                for (AnswerSource source : sources) {
+                    Optional<String> answer = source.answer(id, question);
+                    if (answer.isPresent()) return answer;
+                }
+                return Optional.absent();
+            }
+        };
+    }
+
+}
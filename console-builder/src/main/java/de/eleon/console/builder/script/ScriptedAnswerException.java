@@ -0,0 +1,57 @@
+/*
+* Copyright 2014 Dominik Foerderreuther <dominik@eleon.de>
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+* http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package de.eleon.console.builder.script;
+
+import com.google.common.collect.ImmutableList;
+
+import java.util.List;
+
+/**
+ * Thrown if a scripted answer is missing or invalid. Scripted sessions fail on the first invalid answer instead of
+ * asking again.
+ */
+public class ScriptedAnswerException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String id;
+    private final List<String> errors;
+
+    public ScriptedAnswerException(String id, List<String> errors) {
+        this(id, errors, null);
+    }
+
+    public ScriptedAnswerException(String id, List<String> errors, Throwable cause) {
+        super(errors.isEmpty() ? "no answer for question " + id : "invalid answer for question " + id + ": " + errors, cause);
+        this.id = id;
+        this.errors = ImmutableList.copyOf(errors);
+    }
+
+    /**
+     * @return id of the question
+     */
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * @return validation error messages, empty if the answer is missing
+     */
+    public List<String> getErrors() {
+        return errors;
+    }
+
+}
@@ -0,0 +1,96 @@
+/*
+* Copyright 2014 Dominik Foerderreuther <dominik@eleon.de>
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+* http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package de.eleon.console.builder;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class AbortableInputStreamTest {
+
+    @Test
+    public void shouldReadAvailableInput() throws IOException {
+        AbortableInputStream in = new AbortableInputStream(new ByteArrayInputStream("ab".getBytes()));
+        assertThat(in.read(), is((int) 'a'));
+        byte[] bytes = new byte[10];
+        assertThat(in.read(bytes, 0, 10), is(1));
+        assertThat(bytes[0], is((byte) 'b'));
+    }
+
+    @Test
+    public void shouldReturnLineSeparatorOnAbort() throws Exception {
+        PipedOutputStream out = new PipedOutputStream();
+        final AbortableInputStream in = new AbortableInputStream(new PipedInputStream(out));
+        in.setAbortable(true);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<Integer> read = executor.submit(new Callable<Integer>() {
+                @Override
+                public Integer call() throws IOException {
+                    return in.read();
+                }
+            });
+            Thread.sleep(50);
+            in.abort();
+            assertThat(read.get(1, TimeUnit.SECONDS), is((int) '\n'));
+
+            out.write('x');
+            assertThat(in.read(), is((int) 'x'));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void shouldDiscardAbortOfFinishedRead() throws IOException {
+        AbortableInputStream in = new AbortableInputStream(new ByteArrayInputStream("ab".getBytes()));
+        in.setAbortable(true);
+        assertThat(in.read(), is((int) 'a'));
+        in.abort();
+        in.setAbortable(false);
+        in.setAbortable(true);
+        assertThat(in.read(), is((int) 'b'));
+    }
+
+    @Test(timeout = 5000)
+    public void shouldReturnEndOfInputWhileAbortable() throws IOException {
+        AbortableInputStream in = new AbortableInputStream(new ByteArrayInputStream("a".getBytes()));
+        in.setAbortable(true);
+        assertThat(in.read(), is((int) 'a'));
+        assertThat(in.read(), is(-1));
+        in.setAbortable(false);
+        assertThat(in.read(), is(-1));
+    }
+
+    @Test
+    public void shouldPassReadsThroughUnlessAbortable() throws IOException {
+        AbortableInputStream in = new AbortableInputStream(new ByteArrayInputStream(new byte[0]));
+        in.abort();
+        assertThat(in.read(), is(-1));
+    }
+
+}
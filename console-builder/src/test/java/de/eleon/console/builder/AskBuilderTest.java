@@ -15,9 +15,12 @@
 */
 package de.eleon.console.builder;
 
+import com.google.common.base.Function;
 import com.google.common.base.Optional;
 import com.google.common.base.Predicate;
 import com.google.common.collect.FluentIterable;
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.ListenableFuture;
 import de.eleon.console.builder.functional.Transformers;
 import de.eleon.console.builder.functional.Validator;
 import de.eleon.console.builder.functional.Validators;
@@ -25,23 +28,33 @@ import jline.console.ConsoleReader;
 import jline.console.completer.Completer;
 import jline.console.completer.FileNameCompleter;
 import org.junit.Assert;
+import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Captor;
 import org.mockito.Mock;
+import org.mockito.invocation.InvocationOnMock;
 import org.powermock.api.mockito.PowerMockito;
 import org.powermock.core.classloader.annotations.PrepareForTest;
 import org.powermock.modules.junit4.PowerMockRunner;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.powermock.api.mockito.PowerMockito.when;
 
@@ -58,12 +71,17 @@ public class AskBuilderTest {
     ArgumentCaptor<CharSequence> printlnCaptor;
 
     @Before
-    public void setUp() throws IOException {
+    public void setUp() throws Exception {
         PowerMockito.spy(ConsoleReaderFactory.class);
-        PowerMockito.when(ConsoleReaderFactory.get()).thenReturn(consoleReader);
+        PowerMockito.doReturn(consoleReader).when(ConsoleReaderFactory.class, "get", any(ReaderFactory.class));
         System.setProperty("jline.terminal", "jline.UnsupportedTerminal");
     }
 
+    @After
+    public void tearDown() {
+        ConsoleBuilder.close();
+    }
+
     @Test
     public void shouldAnswer() throws IOException {
         when(consoleReader.readLine()).thenReturn("test");
@@ -111,12 +129,25 @@ public class AskBuilderTest {
     }
 
     @Test
-    public void shouldAddCompleter() {
+    public void shouldAddCompleter() throws IOException {
+        when(consoleReader.readLine()).thenReturn("test");
         Completer completer = new FileNameCompleter();
         AskBuilder.ask("Question").completeWith(completer).answer();
         verify(consoleReader).addCompleter(completer);
     }
 
+    @Test(expected = EndOfInputException.class)
+    public void shouldFailOptionalQuestionAtEndOfInput() throws IOException {
+        when(consoleReader.readLine()).thenReturn(null);
+        AskBuilder.ask("Question").optional().answer();
+    }
+
+    @Test(expected = EndOfInputException.class)
+    public void shouldNotAskAgainAtEndOfInput() throws IOException {
+        when(consoleReader.readLine()).thenReturn(null);
+        AskBuilder.ask("Question").validateWith(Validators.notEmpty("should not be empty")).answer();
+    }
+
     @Test
     public void shouldNotPrintErrorMessageIfValid() throws IOException {
         when(consoleReader.readLine()).thenReturn("test");
@@ -194,6 +225,157 @@ public class AskBuilderTest {
         assertTrue(optionalAnswer.isPresent());
     }
 
+    @Test
+    public void shouldApplyFunctionOncePerValidInput() throws IOException {
+        when(consoleReader.readLine()).thenReturn("te", "x", "test");
+        final List<String> applied = Lists.newArrayList();
+        String answer = AskBuilder.ask("Question").validateWith(Validators.regex(".{3,}", "too short")).answer(new Function<String, String>() {
+            @Override
+            public String apply(String input) {
+                applied.add(input);
+                if (!input.equals("test")) throw new IllegalArgumentException();
+                return input.toUpperCase();
+            }
+        }, "not test");
+
+        assertThat(answer, is("TEST"));
+        assertThat(applied, is((List<String>) Lists.newArrayList("test")));
+        verify(consoleReader, atLeastOnce()).println(printlnCaptor.capture());
+        assertTrue(findBy("too short").isPresent());
+        assertFalse(findBy("not test").isPresent());
+    }
+
+    @Test
+    public void shouldPrintFunctionErrorMessageOnce() throws IOException {
+        when(consoleReader.readLine()).thenReturn("test", "12");
+        AskBuilder askBuilder = AskBuilder.ask("Question");
+        askBuilder.answer(Transformers.toInteger(), "wrong number");
+
+        verify(consoleReader, atLeastOnce()).println(printlnCaptor.capture());
+        assertThat(FluentIterable.from(printlnCaptor.getAllValues()).filter(new Predicate<CharSequence>() {
+            @Override
+            public boolean apply(CharSequence output) {
+                return output.toString().equals("wrong number");
+            }
+        }).size(), is(1));
+    }
+
+    @Test
+    public void shouldPrintAllErrorMessages() throws IOException {
+        when(consoleReader.readLine()).thenReturn("", "test");
+        AskBuilder.ask("Question")
+                .validateWith(Validators.notEmpty("should not be empty"))
+                .validateWith(testValidator())
+                .answer();
+
+        verify(consoleReader, atLeastOnce()).println(printlnCaptor.capture());
+        assertTrue(findBy("should not be empty").isPresent());
+        assertTrue(findBy("invalid").isPresent());
+    }
+
+    @Test
+    public void shouldPrintFirstErrorMessageOnlyIfFailFast() throws IOException {
+        when(consoleReader.readLine()).thenReturn("", "test");
+        AskBuilder.ask("Question")
+                .validateWith(Validators.notEmpty("should not be empty"))
+                .validateWith(testValidator())
+                .failFast()
+                .answer();
+
+        verify(consoleReader, atLeastOnce()).println(printlnCaptor.capture());
+        assertTrue(findBy("should not be empty").isPresent());
+        assertFalse(findBy("invalid").isPresent());
+    }
+
+    @Test
+    public void shouldAnswerAsync() throws Exception {
+        when(consoleReader.readLine()).thenReturn("12");
+        ListenableFuture<Integer> answer = AskBuilder.ask("Question").answerAsync(Transformers.toInteger());
+        assertThat(answer.get(1, TimeUnit.SECONDS), is(12));
+    }
+
+    @Test
+    public void shouldDiscardInputOfCancelledAnswer() throws Exception {
+        final CountDownLatch reading = new CountDownLatch(1);
+        final CountDownLatch typed = new CountDownLatch(1);
+        when(consoleReader.readLine()).thenAnswer(new org.mockito.stubbing.Answer<String>() {
+            @Override
+            public String answer(InvocationOnMock invocation) throws Throwable {
+                reading.countDown();
+                typed.await();
+                return "late";
+            }
+        }).thenReturn("next");
+
+        ListenableFuture<String> answer = AskBuilder.ask("Question").answerAsync();
+        assertTrue(reading.await(1, TimeUnit.SECONDS));
+        assertTrue(answer.cancel(true));
+        typed.countDown();
+
+        assertThat(AskBuilder.ask("Next").answerAsync().get(1, TimeUnit.SECONDS), is("next"));
+        verify(consoleReader, times(2)).readLine();
+    }
+
+    @Test
+    public void shouldAskAgainAfterCancelledAnswer() throws Exception {
+        final CountDownLatch reading = new CountDownLatch(1);
+        final CountDownLatch typed = new CountDownLatch(1);
+        when(consoleReader.readLine()).thenAnswer(new org.mockito.stubbing.Answer<String>() {
+            @Override
+            public String answer(InvocationOnMock invocation) throws Throwable {
+                reading.countDown();
+                typed.await();
+                return "late";
+            }
+        }).thenReturn("again");
+
+        AskBuilder question = AskBuilder.ask("Question");
+        ListenableFuture<String> answer = question.answerAsync();
+        assertTrue(reading.await(1, TimeUnit.SECONDS));
+        assertTrue(answer.cancel(true));
+        typed.countDown();
+
+        assertThat(question.answerAsync().get(1, TimeUnit.SECONDS), is("again"));
+    }
+
+    @Test
+    public void shouldAnswerAsyncOnInputThreadOfSession() throws Exception {
+        final List<Thread> threads = Collections.synchronizedList(new ArrayList<Thread>());
+        when(consoleReader.readLine()).thenAnswer(new org.mockito.stubbing.Answer<String>() {
+            @Override
+            public String answer(InvocationOnMock invocation) {
+                threads.add(Thread.currentThread());
+                return "answer";
+            }
+        });
+        ConsoleSession first = ConsoleBuilder.session();
+        ConsoleSession second = ConsoleBuilder.session();
+        try {
+            first.ask("First").answerAsync().get(1, TimeUnit.SECONDS);
+            second.ask("Second").answerAsync().get(1, TimeUnit.SECONDS);
+        } finally {
+            first.close();
+            second.close();
+        }
+        assertThat(threads.size(), is(2));
+        assertThat(threads.get(0), is(not(threads.get(1))));
+    }
+
+    @Test
+    public void shouldPrintErrorsOfParallelValidatorsInOrder() throws IOException {
+        when(consoleReader.readLine()).thenReturn("", "test");
+        AskBuilder.ask("Question")
+                .validateWith(Validators.notEmpty("should not be empty"))
+                .validateWith(testValidator())
+                .validateInParallel()
+                .answer();
+
+        verify(consoleReader, atLeastOnce()).println(printlnCaptor.capture());
+        List<CharSequence> printed = Lists.newArrayList(printlnCaptor.getAllValues());
+        assertTrue(printed.indexOf("should not be empty") < printed.indexOf("invalid"));
+        assertTrue(printed.indexOf("should not be empty") >= 0);
+    }
+
     private Validator testValidator() {
         return new Validator() {
             @Override
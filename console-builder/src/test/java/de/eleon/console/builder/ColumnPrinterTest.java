@@ -0,0 +1,100 @@
+/*
+* Copyright 2014 Dominik Foerderreuther <dominik@eleon.de>
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+* http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package de.eleon.console.builder;
+
+import com.google.common.base.Joiner;
+import com.google.common.collect.AbstractIterator;
+import com.google.common.collect.ImmutableList;
+import jline.console.ConsoleReader;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+public class ColumnPrinterTest {
+
+    private final StringWriter out = new StringWriter();
+
+    @Test
+    public void shouldPrintRowsWithFixedWidth() throws IOException {
+        new ColumnPrinter(ImmutableList.of("a", "bb", "ccc", "dddd", "e").iterator(), 5).print(out, 24);
+        assertThat(out.toString(), is(lines(
+                "a       bb      ccc",
+                "dddd    e")));
+    }
+
+    @Test
+    public void shouldPrintWithWidthOfLongestSampledItem() throws IOException {
+        new ColumnPrinter(ImmutableList.of("one", "two", "three", "four").iterator(), 0).print(out, 20);
+        assertThat(out.toString(), is(lines(
+                "one     two",
+                "three   four")));
+    }
+
+    @Test
+    public void shouldSpanLongItemsOverSeveralColumns() throws IOException {
+        new ColumnPrinter(ImmutableList.of("a", "much longer", "b", "c", "d").iterator(), 5).print(out, 24);
+        assertThat(out.toString(), is(lines(
+                "a       much longer",
+                "b       c       d")));
+    }
+
+    @Test
+    public void shouldPrintOneColumnOnNarrowTerminal() throws IOException {
+        new ColumnPrinter(ImmutableList.of("first", "second").iterator(), 0).print(out, 4);
+        assertThat(out.toString(), is(lines("first", "second")));
+    }
+
+    @Test
+    public void shouldPrintNothingWithoutItems() throws IOException {
+        new ColumnPrinter(ImmutableList.<String>of().iterator(), 0).print(out, 80);
+        assertThat(out.toString(), is(""));
+    }
+
+    @Test
+    public void shouldWriteRowsWhileIterating() throws IOException {
+        Iterator<String> items = new AbstractIterator<String>() {
+            private int count;
+
+            @Override
+            protected String computeNext() {
+                // every row is written before the next item is requested
+                assertThat(out.toString(), is(count == 0 ? "" : lines(Collections.nCopies(count, "item"))));
+                if (count == 3) return endOfData();
+                count++;
+                return "item";
+            }
+        };
+        new ColumnPrinter(items, 4).print(out, 7);
+        assertThat(out.toString(), is(lines("item", "item", "item")));
+    }
+
+    private static String lines(String... lines) {
+        return lines(Arrays.asList(lines));
+    }
+
+    private static String lines(List<String> lines) {
+        return Joiner.on(ConsoleReader.CR).join(lines) + ConsoleReader.CR;
+    }
+
+}
@@ -17,6 +17,7 @@ package de.eleon.console.builder;
 
 import com.google.common.collect.ImmutableList;
 import jline.console.ConsoleReader;
+import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -32,6 +33,8 @@ import java.util.Collection;
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.contains;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.powermock.api.mockito.PowerMockito.when;
 
@@ -51,10 +54,15 @@ public class ConsoleBuilderTest {
     @Before
     public void setUp() throws Exception {
         PowerMockito.spy(ConsoleReaderFactory.class);
-        PowerMockito.when(ConsoleReaderFactory.get()).thenReturn(consoleReader);
+        PowerMockito.doReturn(consoleReader).when(ConsoleReaderFactory.class, "get", any(ReaderFactory.class));
         System.setProperty("jline.terminal", "jline.UnsupportedTerminal");
     }
 
+    @After
+    public void tearDown() {
+        ConsoleBuilder.close();
+    }
+
     @Test
     public void shouldAsk() throws Exception {
         when(consoleReader.readLine()).thenReturn("test");
@@ -83,4 +91,22 @@ public class ConsoleBuilderTest {
         assertThat(printlnCaptor.getValue().toString(), is(""));
     }
 
+    @Test
+    public void shouldReuseConsoleReader() throws Exception {
+        ConsoleBuilder.print("test");
+        ConsoleBuilder.newline();
+        when(consoleReader.readLine()).thenReturn("test");
+        ConsoleBuilder.ask("Hallo").answer();
+
+        PowerMockito.verifyStatic(times(1));
+        ConsoleReaderFactory.get(any(ReaderFactory.class));
+    }
+
+    @Test
+    public void shouldShutdownConsoleReaderOnClose() throws Exception {
+        ConsoleBuilder.print("test");
+        ConsoleBuilder.close();
+        verify(consoleReader).shutdown();
+    }
+
 }
\ No newline at end of file
@@ -16,26 +16,39 @@
 package de.eleon.console.builder;
 
 import com.google.common.collect.ImmutableList;
+import de.eleon.console.builder.completer.CompletionPipeline;
 import jline.console.ConsoleReader;
 import jline.console.completer.Completer;
 import jline.console.completer.FileNameCompleter;
+import jline.console.completer.StringsCompleter;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Captor;
+import org.mockito.InOrder;
 import org.mockito.Mock;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
 import org.powermock.api.mockito.PowerMockito;
 import org.powermock.core.classloader.annotations.PrepareForTest;
 import org.powermock.modules.junit4.PowerMockRunner;
 
 import java.io.IOException;
+import java.io.StringWriter;
 import java.util.Collection;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicBoolean;
 
+import static org.hamcrest.CoreMatchers.instanceOf;
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.Matchers.contains;
+import static org.mockito.Matchers.any;
 import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.powermock.api.mockito.PowerMockito.when;
 
@@ -58,9 +71,9 @@ public class ConsoleReaderWrapperTest {
     ConsoleReaderWrapper underTest;
 
     @Before
-    public void setUp() throws IOException {
+    public void setUp() throws Exception {
         PowerMockito.spy(ConsoleReaderFactory.class);
-        PowerMockito.when(ConsoleReaderFactory.get()).thenReturn(consoleReader);
+        PowerMockito.doReturn(consoleReader).when(ConsoleReaderFactory.class, "get", any(ReaderFactory.class));
         underTest = new ConsoleReaderWrapper();
         System.setProperty("jline.terminal", "jline.UnsupportedTerminal");
     }
@@ -84,6 +97,53 @@ public class ConsoleReaderWrapperTest {
         assertThat(columnCaptor.getValue(), contains((CharSequence) "Test1", "Test2"));
     }
 
+    @Test
+    public void shouldPrintColumnsFromIterator() throws IOException {
+        StringWriter out = new StringWriter();
+        when(consoleReader.getOutput()).thenReturn(out);
+        underTest.printColumns(ImmutableList.of("Test1", "Test2").iterator(), 0);
+        assertThat(out.toString(), is("Test1   Test2" + ConsoleReader.CR));
+        verify(consoleReader, never()).printColumns(any(Collection.class));
+    }
+
+    @Test
+    public void shouldKeepStatusLineBelowPrintedLines() throws IOException {
+        underTest.status("50%");
+        underTest.print("line");
+        underTest.endStatus("100%");
+        InOrder inOrder = inOrder(consoleReader);
+        inOrder.verify(consoleReader).print("\r50%");
+        inOrder.verify(consoleReader).print("\r   \r");
+        inOrder.verify(consoleReader).println("line");
+        inOrder.verify(consoleReader).print("50%");
+        inOrder.verify(consoleReader).print("\r100%");
+        inOrder.verify(consoleReader).println();
+    }
+
+    @Test
+    public void shouldRedrawPromptAfterLinesPrintedDuringInput() throws IOException {
+        when(consoleReader.getPrompt()).thenReturn("> ");
+        when(consoleReader.readLine()).thenAnswer(new Answer<String>() {
+            @Override
+            public String answer(InvocationOnMock invocation) {
+                underTest.printAbovePrompt(ImmutableList.of("async"));
+                return "input";
+            }
+        });
+        underTest.getInput();
+        InOrder inOrder = inOrder(consoleReader);
+        inOrder.verify(consoleReader).print("\r  \r");
+        inOrder.verify(consoleReader).println("async");
+        inOrder.verify(consoleReader).drawLine();
+    }
+
+    @Test
+    public void shouldNotDrawPromptWithoutInput() throws IOException {
+        underTest.printAbovePrompt(ImmutableList.of("async"));
+        verify(consoleReader).println("async");
+        verify(consoleReader, never()).drawLine();
+    }
+
     @Test
     public void shouldSetCompleters() {
         Completer completer = new FileNameCompleter();
@@ -92,6 +152,15 @@ public class ConsoleReaderWrapperTest {
         assertThat(completerCaptor.getValue(), is(completer));
     }
 
+    @Test
+    public void shouldAddMultipleCompletersAsOnePipeline() {
+        Completer first = new FileNameCompleter();
+        Completer second = new StringsCompleter("a", "b");
+        underTest.setCompleters(ImmutableList.of(first, second));
+        verify(consoleReader).addCompleter(completerCaptor.capture());
+        assertThat(completerCaptor.getValue(), is(instanceOf(CompletionPipeline.class)));
+    }
+
     @Test
     public void shouldGetInput() throws IOException {
         when(consoleReader.readLine()).thenReturn("input message");
@@ -99,10 +168,85 @@ public class ConsoleReaderWrapperTest {
         assertThat(input, is("input message"));
     }
 
+    @Test(expected = CancellationException.class)
+    public void shouldAbortInputOfQuestion() throws IOException {
+        final AtomicBoolean question = new AtomicBoolean();
+        when(consoleReader.readLine()).thenAnswer(new Answer<String>() {
+            @Override
+            public String answer(InvocationOnMock invocation) {
+                underTest.abortInput(question);
+                return "input";
+            }
+        });
+        underTest.getAbortableInput(question);
+    }
+
+    @Test
+    public void shouldNotReadInputOfCancelledAnswer() throws IOException {
+        try {
+            underTest.getAbortableInput(new AtomicBoolean(true));
+            fail();
+        } catch (CancellationException e) {
+            verify(consoleReader, never()).readLine();
+        }
+    }
+
+    @Test
+    public void shouldNotAbortInputOfOtherQuestion() throws IOException {
+        when(consoleReader.readLine()).thenAnswer(new Answer<String>() {
+            @Override
+            public String answer(InvocationOnMock invocation) {
+                underTest.abortInput(new AtomicBoolean());
+                return "input";
+            }
+        });
+        assertThat(underTest.getAbortableInput(new AtomicBoolean()), is("input"));
+    }
+
+    @Test
+    public void shouldIgnoreAbortAfterInputReturned() throws IOException {
+        AtomicBoolean question = new AtomicBoolean();
+        when(consoleReader.readLine()).thenReturn("first", "second");
+        assertThat(underTest.getAbortableInput(question), is("first"));
+        underTest.abortInput(question);
+        assertThat(underTest.getAbortableInput(question), is("second"));
+    }
+
     @Test
     public void shouldBeep() throws IOException {
         underTest.beep();
         verify(consoleReader).beep();
     }
 
-}
\ No newline at end of file
+    @Test
+    public void shouldBufferLinesWithBlockPolicy() throws IOException {
+        underTest.setOutputPolicy(OutputPolicy.BLOCK);
+        underTest.print("test1");
+        underTest.print("test2");
+        verify(consoleReader, never()).println(any(CharSequence.class));
+        verify(consoleReader, never()).print(any(CharSequence.class));
+
+        underTest.flush();
+        verify(consoleReader).print(printlnCaptor.capture());
+        assertThat(printlnCaptor.getValue().toString(), is("test1" + ConsoleReader.CR + "test2" + ConsoleReader.CR));
+    }
+
+    @Test
+    public void shouldFlushBufferBeforeInput() throws IOException {
+        underTest.setOutputPolicy(OutputPolicy.BLOCK);
+        underTest.print("question");
+        underTest.getInput();
+        verify(consoleReader).print(printlnCaptor.capture());
+        assertThat(printlnCaptor.getValue().toString(), is("question" + ConsoleReader.CR));
+    }
+
+    @Test
+    public void shouldFlushBufferOnClose() throws IOException {
+        underTest.setOutputPolicy(OutputPolicy.BLOCK);
+        underTest.print("test");
+        underTest.close();
+        verify(consoleReader).print(printlnCaptor.capture());
+        assertThat(printlnCaptor.getValue().toString(), is("test" + ConsoleReader.CR));
+    }
+
+}
@@ -0,0 +1,230 @@
+/*
+* Copyright 2014 Dominik Foerderreuther <dominik@eleon.de>
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+* http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package de.eleon.console.builder;
+
+import com.google.common.base.Charsets;
+import com.google.common.collect.Lists;
+import com.google.common.io.CharStreams;
+import de.eleon.console.builder.functional.Validators;
+import jline.console.history.History;
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static com.jayway.awaitility.Awaitility.await;
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+public class ConsoleServerTest {
+
+    private static final Dialog GREETING = new Dialog() {
+        @Override
+        public void run(ConsoleSession session) {
+            String name = session.ask("What is your Name?").answer();
+            session.print("Hello " + name);
+        }
+    };
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    private ConsoleServer server;
+
+    @After
+    public void tearDown() throws IOException {
+        if (server != null) {
+            server.close();
+        }
+    }
+
+    @Test
+    public void shouldRunDialogForEveryClient() throws Exception {
+        server = ConsoleServer.start(0, GREETING);
+        ExecutorService clients = Executors.newFixedThreadPool(20);
+        try {
+            List<Future<String>> outputs = Lists.newArrayList();
+            for (int i = 0; i < 20; i++) {
+                final String name = "client" + i;
+                outputs.add(clients.submit(new Callable<String>() {
+                    @Override
+                    public String call() throws IOException {
+                        return talk(name + "\n");
+                    }
+                }));
+            }
+            for (int i = 0; i < 20; i++) {
+                String output = outputs.get(i).get(5, TimeUnit.SECONDS);
+                assertThat(output, containsString("What is your Name?"));
+                assertThat(output, containsString("Hello client" + i));
+            }
+        } finally {
+            clients.shutdownNow();
+        }
+    }
+
+    @Test
+    public void shouldRejectClientsExceedingMaxSessions() throws Exception {
+        final CountDownLatch running = new CountDownLatch(1);
+        final CountDownLatch finish = new CountDownLatch(1);
+        server = ConsoleServer.start(0, 1, new Dialog() {
+            @Override
+            public void run(ConsoleSession session) throws InterruptedException {
+                running.countDown();
+                finish.await();
+            }
+        });
+        Socket first = connect();
+        try {
+            assertTrue(running.await(5, TimeUnit.SECONDS));
+            assertThat(talk(""), containsString(ConsoleServer.BUSY));
+            assertThat(server.connections(), is(1));
+        } finally {
+            finish.countDown();
+            first.close();
+        }
+    }
+
+    @Test
+    public void shouldEndDialogIfClientDisconnects() throws Exception {
+        final CountDownLatch ended = new CountDownLatch(1);
+        server = ConsoleServer.start(0, new Dialog() {
+            @Override
+            public void run(ConsoleSession session) {
+                try {
+                    session.ask("What is your Name?").answer();
+                } finally {
+                    ended.countDown();
+                }
+            }
+        });
+        connect().close();
+        assertTrue(ended.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void shouldEndDialogIfClientClosesInput() throws Exception {
+        server = ConsoleServer.start(0, new Dialog() {
+            @Override
+            public void run(ConsoleSession session) {
+                session.ask("What is your Name?").validateWith(Validators.notEmpty("required")).answer();
+            }
+        });
+        Socket socket = connect();
+        try {
+            socket.setSoTimeout(5000);
+            socket.shutdownOutput();
+            String output = CharStreams.toString(new InputStreamReader(socket.getInputStream(), Charsets.UTF_8));
+            assertThat(output, containsString("What is your Name?"));
+        } finally {
+            socket.close();
+        }
+        await().atMost(5, TimeUnit.SECONDS).until(new Callable<Boolean>() {
+            @Override
+            public Boolean call() {
+                return server.connections() == 0;
+            }
+        });
+    }
+
+    @Test
+    public void shouldEndAsyncAnswerIfClientClosesInput() throws Exception {
+        server = ConsoleServer.start(0, new Dialog() {
+            @Override
+            public void run(ConsoleSession session) throws Exception {
+                session.ask("What is your Name?").answerAsync().get();
+            }
+        });
+        Socket socket = connect();
+        try {
+            socket.setSoTimeout(5000);
+            socket.shutdownOutput();
+            String output = CharStreams.toString(new InputStreamReader(socket.getInputStream(), Charsets.UTF_8));
+            assertThat(output, containsString("What is your Name?"));
+        } finally {
+            socket.close();
+        }
+        await().atMost(5, TimeUnit.SECONDS).until(new Callable<Boolean>() {
+            @Override
+            public Boolean call() {
+                return server.connections() == 0;
+            }
+        });
+    }
+
+    @Test
+    public void shouldKeepHistoryPositionOfEverySession() throws Exception {
+        String home = System.getProperty("user.home");
+        System.setProperty("user.home", folder.getRoot().getPath());
+        try {
+            final List<History> histories = Collections.synchronizedList(Lists.<History>newArrayList());
+            server = ConsoleServer.start(0, new Dialog() {
+                @Override
+                public void run(ConsoleSession session) {
+                    session.ask("Host?").useHistoryFrom("console-server-test").answer();
+                    histories.add(session.consoleReaderWrapper().getConsoleReader().getHistory());
+                }
+            });
+            talk("first\n");
+            talk("second\n");
+
+            assertThat(histories.size(), is(2));
+            History first = histories.get(0);
+            History second = histories.get(1);
+            assertThat(first.size(), is(2));
+            assertTrue(first.moveToFirst());
+            assertThat(first.current().toString(), is("first"));
+            assertThat(second.index(), is(second.size()));
+            assertThat(second.current().toString(), is(""));
+        } finally {
+            System.setProperty("user.home", home);
+        }
+    }
+
+    private Socket connect() throws IOException {
+        return new Socket(InetAddress.getLoopbackAddress(), server.getPort());
+    }
+
+    private String talk(String input) throws IOException {
+        Socket socket = connect();
+        try {
+            socket.setSoTimeout(5000);
+            OutputStream out = socket.getOutputStream();
+            out.write(input.getBytes(Charsets.UTF_8));
+            out.flush();
+            return CharStreams.toString(new InputStreamReader(socket.getInputStream(), Charsets.UTF_8));
+        } finally {
+            socket.close();
+        }
+    }
+
+}
@@ -0,0 +1,203 @@
+/*
+* Copyright 2014 Dominik Foerderreuther <dominik@eleon.de>
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+* http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package de.eleon.console.builder;
+
+import com.google.common.base.Joiner;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import de.eleon.console.builder.functional.Transformers;
+import de.eleon.console.builder.functional.Validators;
+import de.eleon.console.builder.script.AnswerSources;
+import de.eleon.console.builder.script.ScriptedAnswerException;
+import jline.console.ConsoleReader;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.powermock.api.mockito.PowerMockito;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.modules.junit4.PowerMockRunner;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.Collection;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.powermock.api.mockito.PowerMockito.when;
+
+@RunWith(PowerMockRunner.class)
+@PrepareForTest({ConsoleReader.class, ConsoleReaderFactory.class})
+public class ConsoleSessionTest {
+
+    @Mock
+    ConsoleReader consoleReader;
+
+    @Captor
+    ArgumentCaptor<CharSequence> printlnCaptor;
+
+    @Captor
+    ArgumentCaptor<Collection<? extends CharSequence>> columnCaptor;
+
+    @Rule
+    public final ExpectedException thrown = ExpectedException.none();
+
+    ConsoleSession underTest;
+
+    @Before
+    public void setUp() throws Exception {
+        PowerMockito.spy(ConsoleReaderFactory.class);
+        PowerMockito.doReturn(consoleReader).when(ConsoleReaderFactory.class, "get", any(ReaderFactory.class));
+        System.setProperty("jline.terminal", "jline.UnsupportedTerminal");
+        underTest = ConsoleBuilder.session();
+    }
+
+    @After
+    public void tearDown() {
+        underTest.close();
+    }
+
+    @Test
+    public void shouldPrint() throws IOException {
+        underTest.print("test");
+        verify(consoleReader).println(printlnCaptor.capture());
+        assertThat(printlnCaptor.getValue().toString(), is("test"));
+    }
+
+    @Test
+    public void shouldPrintColumns() throws IOException {
+        underTest.print(ImmutableList.of("Test1", "Test2"));
+        verify(consoleReader).printColumns(columnCaptor.capture());
+        assertThat(columnCaptor.getValue(), contains((CharSequence) "Test1", "Test2"));
+    }
+
+    @Test
+    public void shouldPrintTable() throws IOException {
+        StringWriter out = new StringWriter();
+        when(consoleReader.getOutput()).thenReturn(out);
+        underTest.table().column("Name").column("Age", Alignment.RIGHT).row("Ann", "7").print();
+        assertThat(out.toString(), is(Joiner.on(ConsoleReader.CR).join(
+                "+------+-----+",
+                "| Name | Age |",
+                "+------+-----+",
+                "| Ann  |   7 |",
+                "+------+-----+",
+                "")));
+    }
+
+    @Test
+    public void shouldAsk() throws IOException {
+        when(consoleReader.readLine()).thenReturn("test");
+        assertThat(underTest.ask("Hallo").answer(), is("test"));
+    }
+
+    @Test
+    public void shouldNotCreateConsoleReaderBeforeUsage() throws IOException {
+        underTest.ask("Hallo");
+
+        PowerMockito.verifyStatic(never());
+        ConsoleReaderFactory.get(any(ReaderFactory.class));
+    }
+
+    @Test
+    public void shouldCreateConsoleReaderOnlyOnce() throws IOException {
+        when(consoleReader.readLine()).thenReturn("test");
+        underTest.print("test");
+        underTest.newline();
+        underTest.ask("first").answer();
+        underTest.ask("second").answer();
+
+        PowerMockito.verifyStatic(times(1));
+        ConsoleReaderFactory.get(any(ReaderFactory.class));
+        verify(consoleReader, never()).shutdown();
+    }
+
+    @Test
+    public void shouldShutdownConsoleReaderOnClose() {
+        underTest.print("test");
+        underTest.close();
+        verify(consoleReader).shutdown();
+    }
+
+    @Test
+    public void shouldCreateNewConsoleReaderAfterClose() throws IOException {
+        underTest.print("test");
+        underTest.close();
+        underTest.print("test");
+
+        PowerMockito.verifyStatic(times(2));
+        ConsoleReaderFactory.get(any(ReaderFactory.class));
+    }
+
+    @Test
+    public void shouldAnswerFromSourceWithoutTerminal() throws IOException {
+        underTest.answerFrom(AnswerSources.fromMap(ImmutableMap.of("age", "42", "What is your name?", "Dominik")));
+
+        assertThat(underTest.ask("How old are you?").id("age").answer(Transformers.toInteger()), is(42));
+        assertThat(underTest.ask("What is your name?").answer(), is("Dominik"));
+        underTest.print("done");
+
+        PowerMockito.verifyStatic(never());
+        ConsoleReaderFactory.get(any(ReaderFactory.class));
+    }
+
+    @Test
+    public void shouldFailOnMissingScriptedAnswer() {
+        underTest.answerFrom(AnswerSources.fromMap(ImmutableMap.<String, String>of()));
+
+        thrown.expect(ScriptedAnswerException.class);
+        thrown.expectMessage("no answer for question age");
+        underTest.ask("How old are you?").id("age").answer();
+    }
+
+    @Test
+    public void shouldFailOnInvalidScriptedAnswer() {
+        underTest.answerFrom(AnswerSources.fromMap(ImmutableMap.of("name", "")));
+
+        thrown.expect(ScriptedAnswerException.class);
+        thrown.expectMessage("invalid answer for question name: [should not be empty]");
+        underTest.ask("What is your name?").id("name").validateWith(Validators.notEmpty("should not be empty")).answer();
+    }
+
+    @Test
+    public void shouldFailOnUnconvertibleScriptedAnswer() {
+        underTest.answerFrom(AnswerSources.fromMap(ImmutableMap.of("age", "old")));
+
+        thrown.expect(ScriptedAnswerException.class);
+        thrown.expectMessage("invalid answer for question age: [wrong number]");
+        underTest.ask("How old are you?").id("age").answer(Transformers.toInteger(), "wrong number");
+    }
+
+    @Test
+    public void shouldAskTerminalAgainWhenInteractive() throws IOException {
+        when(consoleReader.readLine()).thenReturn("test");
+        underTest.answerFrom(AnswerSources.fromMap(ImmutableMap.of("Hallo", "scripted")));
+        underTest.interactive();
+
+        assertThat(underTest.ask("Hallo").answer(), is("test"));
+    }
+
+}
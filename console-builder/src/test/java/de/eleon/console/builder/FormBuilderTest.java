@@ -0,0 +1,145 @@
+/*
+* Copyright 2014 Dominik Foerderreuther <dominik@eleon.de>
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+* http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package de.eleon.console.builder;
+
+import com.google.common.collect.ImmutableMap;
+import de.eleon.console.builder.functional.Transformers;
+import de.eleon.console.builder.functional.Validators;
+import de.eleon.console.builder.script.AnswerSources;
+import de.eleon.console.builder.script.ScriptedAnswerException;
+import jline.console.ConsoleReader;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.powermock.api.mockito.PowerMockito;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.modules.junit4.PowerMockRunner;
+
+import java.io.IOException;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.powermock.api.mockito.PowerMockito.when;
+
+@RunWith(PowerMockRunner.class)
+@PrepareForTest({ConsoleReader.class, ConsoleReaderFactory.class})
+public class FormBuilderTest {
+
+    public enum Gender {male, female}
+
+    @Mock
+    ConsoleReader consoleReader;
+
+    private ConsoleSession session;
+
+    @Before
+    public void setUp() throws Exception {
+        PowerMockito.spy(ConsoleReaderFactory.class);
+        PowerMockito.doReturn(consoleReader).when(ConsoleReaderFactory.class, "get", any(ReaderFactory.class));
+        session = ConsoleBuilder.session();
+    }
+
+    @After
+    public void tearDown() {
+        session.close();
+    }
+
+    @Test
+    public void shouldReturnTypedAnswers() {
+        session.answerFrom(AnswerSources.fromMap(ImmutableMap.of("name", "Dominik", "age", "33", "gender", "male", "company", "")));
+
+        FormResult result = session.form()
+                .field("name", session.ask("Name?").id("name").validateWith(Validators.notEmpty("required")))
+                .field("age", session.ask("Age?").id("age"), Transformers.toInteger())
+                .field("gender", session.ask("Gender?").id("gender"), Gender.class, "unknown gender")
+                .optionalField("company", session.ask("Company?").id("company"))
+                .answer();
+
+        assertThat(result.getString("name"), is("Dominik"));
+        assertThat(result.get("age", Integer.class), is(33));
+        assertThat(result.get("gender", Gender.class), is(Gender.male));
+        assertThat(result.get("company"), is(nullValue()));
+        assertThat(result.asMap().keySet().toString(), is("[name, age, gender, company]"));
+    }
+
+    @Test
+    public void shouldAskFieldsOfFailedFormValidatorAgain() throws IOException {
+        when(consoleReader.readLine()).thenReturn("5", "3", "7");
+
+        FormResult result = session.form()
+                .field("from", session.ask("From?"), Transformers.toInteger())
+                .field("to", session.ask("To?"), Transformers.toInteger())
+                .validateWith(ascending(), "to")
+                .answer();
+
+        assertThat(result.get("from", Integer.class), is(5));
+        assertThat(result.get("to", Integer.class), is(7));
+        verify(consoleReader, times(3)).readLine();
+        verify(consoleReader).println("to has to be greater than from");
+        PowerMockito.verifyStatic(times(1));
+        ConsoleReaderFactory.get(any(ReaderFactory.class));
+    }
+
+    @Test(expected = ScriptedAnswerException.class)
+    public void shouldFailScriptedFormIfFormValidatorFails() {
+        session.answerFrom(AnswerSources.fromMap(ImmutableMap.of("from", "5", "to", "3")));
+        session.form()
+                .field("from", session.ask("From?").id("from"), Transformers.toInteger())
+                .field("to", session.ask("To?").id("to"), Transformers.toInteger())
+                .validateWith(ascending())
+                .answer();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectDuplicateFields() {
+        session.form()
+                .field("name", session.ask("Name?"))
+                .field("name", session.ask("Name again?"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectQuestionOfOtherSession() {
+        session.form().field("name", ConsoleBuilder.session().ask("Name?"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectValidatorOfUnknownField() {
+        session.form()
+                .field("name", session.ask("Name?"))
+                .validateWith(ascending(), "age");
+    }
+
+    private FormValidator ascending() {
+        return new FormValidator() {
+            @Override
+            public boolean valid(FormResult answers) {
+                return answers.get("to", Integer.class) > answers.get("from", Integer.class);
+            }
+
+            @Override
+            public String message() {
+                return "to has to be greater than from";
+            }
+        };
+    }
+
+}
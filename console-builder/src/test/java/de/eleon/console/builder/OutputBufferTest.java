@@ -0,0 +1,105 @@
+/*
+* Copyright 2014 Dominik Foerderreuther <dominik@eleon.de>
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+* http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package de.eleon.console.builder;
+
+import com.google.common.base.Strings;
+import com.google.common.base.Ticker;
+import jline.console.ConsoleReader;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class OutputBufferTest {
+
+    private long now;
+
+    private OutputBuffer underTest;
+
+    @Before
+    public void setUp() {
+        underTest = new OutputBuffer(new Ticker() {
+            @Override
+            public long read() {
+                return now;
+            }
+        });
+    }
+
+    @Test
+    public void line_shouldAlwaysFlush() {
+        assertThat(underTest.append("a"), is(true));
+        assertThat(underTest.append("b"), is(true));
+    }
+
+    @Test
+    public void block_shouldCollectLines() {
+        underTest.policy(OutputPolicy.BLOCK);
+        assertThat(underTest.append("a"), is(false));
+        assertThat(underTest.append("b"), is(false));
+        assertThat(underTest.contents().toString(), is("a" + ConsoleReader.CR + "b" + ConsoleReader.CR));
+    }
+
+    @Test
+    public void block_shouldFlushIfFull() {
+        underTest.policy(OutputPolicy.BLOCK);
+        assertThat(underTest.append(Strings.repeat("x", OutputBuffer.SIZE_THRESHOLD)), is(true));
+    }
+
+    @Test
+    public void block_shouldFlushAfterTimeThreshold() {
+        underTest.policy(OutputPolicy.BLOCK);
+        assertThat(underTest.append("a"), is(false));
+        advance(OutputBuffer.TIME_THRESHOLD_MILLIS);
+        assertThat(underTest.append("b"), is(true));
+    }
+
+    @Test
+    public void adaptive_shouldFlushSparseLines() {
+        underTest.policy(OutputPolicy.ADAPTIVE);
+        assertThat(underTest.append("a"), is(true));
+        underTest.clear();
+        advance(OutputBuffer.TIME_THRESHOLD_MILLIS);
+        assertThat(underTest.append("b"), is(true));
+    }
+
+    @Test
+    public void adaptive_shouldCollectFastLines() {
+        underTest.policy(OutputPolicy.ADAPTIVE);
+        assertThat(underTest.append("a"), is(true));
+        underTest.clear();
+        advance(1);
+        assertThat(underTest.append("b"), is(false));
+        advance(1);
+        assertThat(underTest.append("c"), is(false));
+    }
+
+    @Test
+    public void shouldBeEmptyAfterClear() {
+        underTest.policy(OutputPolicy.BLOCK);
+        underTest.append("a");
+        underTest.clear();
+        assertThat(underTest.isEmpty(), is(true));
+    }
+
+    private void advance(long millis) {
+        now += TimeUnit.MILLISECONDS.toNanos(millis);
+    }
+
+}
@@ -0,0 +1,147 @@
+/*
+* Copyright 2014 Dominik Foerderreuther <dominik@eleon.de>
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+* http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package de.eleon.console.builder;
+
+import com.google.common.collect.AbstractIterator;
+import jline.UnsupportedTerminal;
+import jline.console.ConsoleReader;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class PagerTest {
+
+    private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+    private final Lines lines = new Lines(1000);
+
+    @Test
+    public void shouldShowFirstPageAndQuit() throws IOException {
+        page("q");
+        assertThat(out.toString(), containsString("line 2"));
+        assertThat(out.toString(), not(containsString("line 3")));
+        assertThat(lines.produced, is(4));
+        assertThat(lines.closed, is(true));
+    }
+
+    @Test
+    public void shouldShowNextPage() throws IOException {
+        page(" q");
+        assertThat(out.toString(), containsString("line 5"));
+        assertThat(out.toString(), not(containsString("line 6")));
+    }
+
+    @Test
+    public void shouldShowNextLine() throws IOException {
+        page("\nq");
+        assertThat(out.toString(), containsString("line 3"));
+        assertThat(out.toString(), not(containsString("line 4")));
+    }
+
+    @Test
+    public void shouldSearchForward() throws IOException {
+        page("/line 50\nq");
+        assertThat(out.toString(), containsString("...skipping"));
+        assertThat(out.toString(), containsString("line 50"));
+        assertThat(out.toString(), not(containsString("line 49")));
+        assertThat(out.toString(), not(containsString("line 52")));
+    }
+
+    @Test
+    public void shouldRepeatSearch() throws IOException {
+        page("/99\nnq");
+        assertThat(out.toString(), containsString("line 199"));
+        assertThat(out.toString(), not(containsString("line 201")));
+    }
+
+    @Test
+    public void shouldReportMissingPattern() throws IOException {
+        page("/unknown\n");
+        assertThat(out.toString(), containsString("Pattern not found"));
+        assertThat(lines.produced, is(1000));
+        assertThat(lines.closed, is(true));
+    }
+
+    @Test
+    public void shouldShowAllLinesAndQuitAtEnd() throws IOException {
+        Lines few = new Lines(5);
+        new Pager(consoleReader(" ")).page(few);
+        assertThat(out.toString(), containsString("line 4"));
+        assertThat(few.closed, is(true));
+    }
+
+    @Test
+    public void shouldQuitAtEndOfInput() throws IOException {
+        page("");
+        assertThat(lines.closed, is(true));
+    }
+
+    @Test
+    public void shouldKeepPromptAfterSearch() throws IOException {
+        ConsoleReader consoleReader = consoleReader("/line\nq");
+        consoleReader.setPrompt("> ");
+        new Pager(consoleReader).page(lines);
+        assertThat(consoleReader.getPrompt(), is("> "));
+    }
+
+    private void page(String input) throws IOException {
+        new Pager(consoleReader(input)).page(lines);
+    }
+
+    /**
+     * ConsoleReader on a terminal with a height of 4 lines, so pages have 3 lines
+     */
+    private ConsoleReader consoleReader(String input) throws IOException {
+        ConsoleReader consoleReader = new ConsoleReader(new ByteArrayInputStream(input.getBytes()), out, new UnsupportedTerminal() {
+            @Override
+            public int getHeight() {
+                return 4;
+            }
+        });
+        consoleReader.setBellEnabled(false);
+        return consoleReader;
+    }
+
+    private static class Lines extends AbstractIterator<CharSequence> implements Closeable {
+
+        private final int count;
+        private int produced;
+        private boolean closed;
+
+        private Lines(int count) {
+            this.count = count;
+        }
+
+        @Override
+        protected CharSequence computeNext() {
+            if (produced == count) return endOfData();
+            return "line " + produced++;
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+    }
+
+}
@@ -0,0 +1,71 @@
+/*
+* Copyright 2014 Dominik Foerderreuther <dominik@eleon.de>
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+* http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package de.eleon.console.builder;
+
+import com.google.common.collect.Lists;
+import jline.UnsupportedTerminal;
+import jline.console.ConsoleReader;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class PreservingCompletionHandlerTest {
+
+    ConsoleReader consoleReader;
+    PreservingCompletionHandler underTest = new PreservingCompletionHandler();
+
+    @Before
+    public void setUp() throws IOException {
+        consoleReader = new ConsoleReader(new ByteArrayInputStream(new byte[0]), new ByteArrayOutputStream(), new UnsupportedTerminal());
+        consoleReader.putString("al");
+    }
+
+    @Test
+    public void shouldCompleteCommonPrefix() throws IOException {
+        underTest.complete(consoleReader, candidates("alpha", "alpine"), 0);
+        assertThat(consoleReader.getCursorBuffer().toString(), is("alp"));
+    }
+
+    @Test
+    public void shouldKeepInputIfCandidatesDontStartWithIt() throws IOException {
+        underTest.complete(consoleReader, candidates("Alpha", "alpine"), 0);
+        assertThat(consoleReader.getCursorBuffer().toString(), is("al"));
+    }
+
+    @Test
+    public void shouldCompleteSingleCandidate() throws IOException {
+        underTest.complete(consoleReader, candidates("Alpha "), 0);
+        assertThat(consoleReader.getCursorBuffer().toString(), is("Alpha "));
+    }
+
+    @Test
+    public void shouldFindCommonPrefix() {
+        assertThat(PreservingCompletionHandler.commonPrefix(candidates("alpha", "alpine", "alp")), is("alp"));
+        assertThat(PreservingCompletionHandler.commonPrefix(candidates("alpha", "beta")), is(""));
+    }
+
+    private static List<CharSequence> candidates(CharSequence... candidates) {
+        return Lists.newArrayList(candidates);
+    }
+
+}
@@ -0,0 +1,187 @@
+/*
+* Copyright 2014 Dominik Foerderreuther <dominik@eleon.de>
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+* http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package de.eleon.console.builder;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.MoreExecutors;
+import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.anyListOf;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+public class PrintChannelTest {
+
+    private final ConsoleSession session = mock(ConsoleSession.class);
+    private final List<CharSequence> written = Collections.synchronizedList(Lists.<CharSequence>newArrayList());
+
+    @Test
+    public void shouldPrintLines() throws InterruptedException {
+        recordWrittenLines();
+        PrintChannel underTest = new PrintChannel(session, MoreExecutors.sameThreadExecutor());
+        underTest.print("first");
+        underTest.print(ImmutableList.of("second", "third"));
+        underTest.flush();
+        assertThat(written, contains((CharSequence) "first", "second", "third"));
+    }
+
+    @Test
+    public void shouldWriteQueuedLinesTogether() throws InterruptedException {
+        recordWrittenLines();
+        CountDownLatch release = new CountDownLatch(1);
+        Executor blocked = blockedUntil(release);
+        PrintChannel underTest = new PrintChannel(session, blocked);
+        underTest.print("first");
+        underTest.print("second");
+        release.countDown();
+        underTest.flush();
+        verify(session, times(1)).printAbovePrompt(anyListOf(CharSequence.class));
+        assertThat(written, contains((CharSequence) "first", "second"));
+    }
+
+    @Test
+    public void shouldWriteAtMostMaxBatchCallsTogether() throws InterruptedException {
+        recordWrittenLines();
+        CountDownLatch release = new CountDownLatch(1);
+        Executor blocked = blockedUntil(release);
+        PrintChannel underTest = new PrintChannel(session, blocked);
+        for (int i = 0; i < PrintChannel.MAX_BATCH + 1; i++) {
+            underTest.print("line " + i);
+        }
+        release.countDown();
+        underTest.flush();
+        verify(session, times(2)).printAbovePrompt(anyListOf(CharSequence.class));
+        assertThat(written.size(), is(PrintChannel.MAX_BATCH + 1));
+    }
+
+    @Test
+    public void shouldKeepLinesOfOneCallTogether() throws InterruptedException {
+        recordWrittenLines();
+        final PrintChannel underTest = new PrintChannel(session);
+        Thread[] threads = new Thread[8];
+        for (int i = 0; i < threads.length; i++) {
+            final int thread = i;
+            threads[i] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    for (int j = 0; j < 500; j++) {
+                        underTest.print(ImmutableList.of(thread + " begin", thread + " end"));
+                    }
+                }
+            });
+            threads[i].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        underTest.flush();
+
+        assertThat(written.size(), is(8 * 500 * 2));
+        for (int i = 0; i < written.size(); i += 2) {
+            String begin = written.get(i).toString();
+            assertThat(written.get(i + 1).toString(), is(begin.replace("begin", "end")));
+        }
+    }
+
+    @Test
+    public void shouldNotWaitForStalledSession() throws InterruptedException {
+        final CountDownLatch release = new CountDownLatch(1);
+        ConsoleSession stalled = mock(ConsoleSession.class);
+        doAnswer(new Answer<Void>() {
+            @Override
+            public Void answer(InvocationOnMock invocation) throws InterruptedException {
+                release.await();
+                return null;
+            }
+        }).when(stalled).printAbovePrompt(anyListOf(CharSequence.class));
+        recordWrittenLines();
+
+        new PrintChannel(stalled).print("stalled");
+        PrintChannel underTest = new PrintChannel(session);
+        underTest.print("first");
+        try {
+            assertTrue(flushed(underTest).await(5, TimeUnit.SECONDS));
+            assertThat(written, contains((CharSequence) "first"));
+        } finally {
+            release.countDown();
+        }
+    }
+
+    private CountDownLatch flushed(final PrintChannel channel) {
+        final CountDownLatch ret = new CountDownLatch(1);
+        new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    channel.flush();
+                    ret.countDown();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }).start();
+        return ret;
+    }
+
+    private Executor blockedUntil(final CountDownLatch release) {
+        return new Executor() {
+            private final Executor executor = Executors.newSingleThreadExecutor();
+
+            @Override
+            public void execute(final Runnable command) {
+                executor.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        try {
+                            release.await();
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                        command.run();
+                    }
+                });
+            }
+        };
+    }
+
+    private void recordWrittenLines() {
+        doAnswer(new Answer<Void>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public Void answer(InvocationOnMock invocation) {
+                written.addAll((List<CharSequence>) invocation.getArguments()[0]);
+                return null;
+            }
+        }).when(session).printAbovePrompt(anyListOf(CharSequence.class));
+    }
+
+}
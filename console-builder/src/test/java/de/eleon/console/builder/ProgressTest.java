@@ -0,0 +1,126 @@
+/*
+* Copyright 2014 Dominik Foerderreuther <dominik@eleon.de>
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+* http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package de.eleon.console.builder;
+
+import com.google.common.base.Ticker;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+public class ProgressTest {
+
+    private final AtomicLong nanos = new AtomicLong();
+    private final Ticker ticker = new Ticker() {
+        @Override
+        public long read() {
+            return nanos.get();
+        }
+    };
+    private final ConsoleSession session = mock(ConsoleSession.class);
+
+    @Test
+    public void shouldRenderBarWithThroughputAndEta() {
+        Progress underTest = new Progress(session, "import", 200, ticker);
+        underTest.add(50);
+        nanos.addAndGet(TimeUnit.SECONDS.toNanos(10));
+        assertThat(underTest.render(), is("import [=======>                      ] 25% 50/200 5.0/s ETA 0:30"));
+    }
+
+    @Test
+    public void shouldRenderFullBar() {
+        Progress underTest = new Progress(session, "import", 4, ticker);
+        underTest.add(5);
+        nanos.addAndGet(TimeUnit.SECONDS.toNanos(1));
+        assertThat(underTest.render(), is("import [==============================] 100% 5/4 5.0/s ETA 0:00"));
+    }
+
+    @Test
+    public void shouldRenderUnknownEtaWithoutProgress() {
+        Progress underTest = new Progress(session, "import", 10, ticker);
+        assertThat(underTest.render(), is("import [>                             ] 0% 0/10 0.0/s ETA --:--"));
+    }
+
+    @Test
+    public void shouldRenderLongEta() {
+        Progress underTest = new Progress(session, "import", 100000, ticker);
+        underTest.increment();
+        nanos.addAndGet(TimeUnit.SECONDS.toNanos(1));
+        assertThat(underTest.render().endsWith("ETA 27:46:39"), is(true));
+    }
+
+    @Test
+    public void shouldSpin() {
+        Progress underTest = new Progress(session, "scan", -1, ticker);
+        underTest.increment();
+        nanos.addAndGet(TimeUnit.SECONDS.toNanos(2));
+        underTest.redraw();
+        verify(session).status("scan / 1 0.5/s");
+        underTest.redraw();
+        verify(session).status("scan - 1 0.5/s");
+        underTest.done();
+        verify(session).endStatus("scan 1 0.5/s done");
+    }
+
+    @Test
+    public void shouldNotRedrawUnchangedBar() {
+        Progress underTest = new Progress(session, "import", 10, ticker);
+        underTest.redraw();
+        underTest.redraw();
+        verify(session, times(1)).status(any(CharSequence.class));
+    }
+
+    @Test
+    public void shouldFinishOnceAndStopRedrawing() {
+        Progress underTest = new Progress(session, "import", 10, ticker);
+        underTest.add(10);
+        underTest.done();
+        underTest.close();
+        underTest.redraw();
+        verify(session, times(1)).endStatus(any(CharSequence.class));
+        verify(session, never()).status(any(CharSequence.class));
+    }
+
+    @Test
+    public void shouldCountFromManyThreads() throws InterruptedException {
+        final Progress underTest = new Progress(session, "import", 10, ticker);
+        Thread[] threads = new Thread[8];
+        for (int i = 0; i < threads.length; i++) {
+            threads[i] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    for (int j = 0; j < 10000; j++) {
+                        underTest.increment();
+                    }
+                }
+            });
+            threads[i].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertThat(underTest.count(), is(80000L));
+    }
+
+}
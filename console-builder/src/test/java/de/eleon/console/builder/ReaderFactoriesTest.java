@@ -0,0 +1,169 @@
+/*
+* Copyright 2014 Dominik Foerderreuther <dominik@eleon.de>
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+* http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package de.eleon.console.builder;
+
+import jline.UnsupportedTerminal;
+import jline.console.ConsoleReader;
+import org.junit.After;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static com.jayway.awaitility.Awaitility.await;
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class ReaderFactoriesTest {
+
+    private final ReaderFactory delegate = mock(ReaderFactory.class);
+
+    @After
+    public void tearDown() {
+        ReaderFactories.configure(null);
+    }
+
+    @Test
+    public void shouldReuseReleasedReader() throws IOException {
+        ConsoleReader first = mock(ConsoleReader.class);
+        when(delegate.create()).thenReturn(first, mock(ConsoleReader.class));
+        ReaderFactory pooled = ReaderFactories.pooled(delegate);
+
+        assertThat(pooled.create(), is(first));
+        pooled.release(first);
+        assertThat(pooled.create(), is(first));
+        assertThat(pooled.create(), not(sameInstance(first)));
+        verify(delegate, times(2)).create();
+    }
+
+    @Test
+    public void shouldReleaseReadersExceedingMaxIdle() throws IOException {
+        ConsoleReader first = mock(ConsoleReader.class);
+        ConsoleReader second = mock(ConsoleReader.class);
+        ReaderFactories.Pooled pooled = (ReaderFactories.Pooled) ReaderFactories.pooled(delegate, 1);
+
+        pooled.release(first);
+        pooled.release(second);
+
+        assertThat(pooled.idle(), is(1));
+        verify(delegate).release(second);
+    }
+
+    @Test
+    public void shouldNotKeepReaderWhichIsStillReading() {
+        SearchingConsoleReader reading = mock(SearchingConsoleReader.class);
+        when(reading.isReading()).thenReturn(true);
+        ReaderFactories.Pooled pooled = (ReaderFactories.Pooled) ReaderFactories.pooled(delegate);
+
+        pooled.release(reading);
+
+        assertThat(pooled.idle(), is(0));
+        verify(delegate).release(reading);
+    }
+
+    @Test
+    public void shouldCreateFirstReaderInAdvance() throws Exception {
+        ConsoleReader warm = mock(ConsoleReader.class);
+        ConsoleReader later = mock(ConsoleReader.class);
+        when(delegate.create()).thenReturn(warm, later);
+        ReaderFactories.PreWarmed preWarmed = (ReaderFactories.PreWarmed) ReaderFactories.preWarmed(delegate);
+
+        preWarmed.awaitWarm();
+        verify(delegate).create();
+
+        assertThat(preWarmed.create(), is(warm));
+        assertThat(preWarmed.create(), is(later));
+    }
+
+    @Test
+    public void shouldUseConfiguredFactoryForSessions() throws IOException {
+        ConsoleReader consoleReader = mock(ConsoleReader.class);
+        when(delegate.create()).thenReturn(consoleReader);
+        ConsoleBuilder.readerFactory(delegate);
+
+        ConsoleSession session = ConsoleBuilder.session();
+        session.consoleReaderWrapper();
+        session.close();
+
+        verify(delegate).create();
+        verify(delegate).release(consoleReader);
+    }
+
+    @Test
+    public void shouldReleaseReaderToFactoryWhichCreatedIt() throws IOException {
+        ConsoleReader consoleReader = mock(ConsoleReader.class);
+        when(delegate.create()).thenReturn(consoleReader);
+        ReaderFactory other = mock(ReaderFactory.class);
+        ConsoleBuilder.readerFactory(delegate);
+
+        ConsoleSession session = ConsoleBuilder.session();
+        session.consoleReaderWrapper();
+        ConsoleBuilder.readerFactory(other);
+        session.close();
+
+        verify(delegate).release(consoleReader);
+        verify(other, never()).release(any(ConsoleReader.class));
+    }
+
+    @Test
+    public void shouldAbortPendingAsyncAnswerOnClose() throws Exception {
+        final SearchingConsoleReader consoleReader = SearchingConsoleReader.abortable(
+                new PipedInputStream(new PipedOutputStream()), new ByteArrayOutputStream(), new UnsupportedTerminal());
+        when(delegate.create()).thenReturn(consoleReader);
+        ConsoleBuilder.readerFactory(ReaderFactories.pooled(delegate));
+
+        ConsoleSession session = ConsoleBuilder.session();
+        Future<String> answer = session.ask("What is your name?").answerAsync();
+        await().atMost(5, TimeUnit.SECONDS).until(new Callable<Boolean>() {
+            @Override
+            public Boolean call() {
+                return consoleReader.isReading();
+            }
+        });
+        session.close();
+
+        try {
+            answer.get(5, TimeUnit.SECONDS);
+            fail("answer of closed session");
+        } catch (ExecutionException e) {
+            assertThat(e.getCause(), instanceOf(CancellationException.class));
+        }
+        await().atMost(5, TimeUnit.SECONDS).until(new Callable<Boolean>() {
+            @Override
+            public Boolean call() {
+                return !consoleReader.isReading();
+            }
+        });
+    }
+
+}
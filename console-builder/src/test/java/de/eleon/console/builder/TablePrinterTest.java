@@ -0,0 +1,130 @@
+/*
+* Copyright 2014 Dominik Foerderreuther <dominik@eleon.de>
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+* http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package de.eleon.console.builder;
+
+import com.google.common.base.Joiner;
+import com.google.common.collect.AbstractIterator;
+import com.google.common.collect.ImmutableList;
+import jline.console.ConsoleReader;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+public class TablePrinterTest {
+
+    private final StringWriter out = new StringWriter();
+
+    @Test
+    public void shouldMeasureColumns() throws IOException {
+        print(ImmutableList.of(column("Host", 0, Alignment.LEFT), column("Load", 0, Alignment.RIGHT)),
+                rows(row("db-1", "0.5"), row("web-10.example.com", "12.25")));
+        assertThat(out.toString(), is(lines(
+                "+--------------------+-------+",
+                "| Host               |  Load |",
+                "+--------------------+-------+",
+                "| db-1               |   0.5 |",
+                "| web-10.example.com | 12.25 |",
+                "+--------------------+-------+")));
+    }
+
+    @Test
+    public void shouldTruncateCellsOfFixedWidth() throws IOException {
+        print(ImmutableList.of(column("Host", 8, Alignment.LEFT), column("Id", 2, Alignment.LEFT)),
+                rows(row("web-10.example.com", "123")));
+        assertThat(out.toString(), is(lines(
+                "+----------+----+",
+                "| Host     | Id |",
+                "+----------+----+",
+                "| web-1... | 12 |",
+                "+----------+----+")));
+    }
+
+    @Test
+    public void shouldCenterCells() throws IOException {
+        print(ImmutableList.of(column("Status", 0, Alignment.CENTER)), rows(row("ok"), row("fail")));
+        assertThat(out.toString(), is(lines(
+                "+--------+",
+                "| Status |",
+                "+--------+",
+                "|   ok   |",
+                "|  fail  |",
+                "+--------+")));
+    }
+
+    @Test
+    public void shouldPrintMissingCellsEmpty() throws IOException {
+        print(ImmutableList.of(column("A", 0, Alignment.LEFT), column("B", 0, Alignment.LEFT)),
+                rows(row("1"), Arrays.<CharSequence>asList("2", null)));
+        assertThat(out.toString(), is(lines(
+                "+---+---+",
+                "| A | B |",
+                "+---+---+",
+                "| 1 |   |",
+                "| 2 |   |",
+                "+---+---+")));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldFailOnRowWithTooManyCells() throws IOException {
+        print(ImmutableList.of(column("A", 1, Alignment.LEFT)), rows(row("1", "2")));
+    }
+
+    @Test
+    public void shouldPrintRowsWhileReadingIfAllColumnsHaveWidth() throws IOException {
+        Iterator<List<String>> rows = new AbstractIterator<List<String>>() {
+            private int count;
+
+            @Override
+            protected List<String> computeNext() {
+                if (count == 2) {
+                    assertThat(out.toString(), is(lines("+---+", "| n |", "+---+", "| 0 |", "| 1 |")));
+                    return endOfData();
+                }
+                return ImmutableList.of(String.valueOf(count++));
+            }
+        };
+        new TablePrinter(ImmutableList.of(column("n", 1, Alignment.LEFT)), rows).print(out, 80);
+    }
+
+    private void print(List<TablePrinter.Column> columns, Iterator<? extends List<? extends CharSequence>> rows)
+            throws IOException {
+        new TablePrinter(columns, rows).print(out, 80);
+    }
+
+    private static TablePrinter.Column column(String header, int width, Alignment alignment) {
+        return new TablePrinter.Column(header, width, alignment);
+    }
+
+    private static List<CharSequence> row(CharSequence... cells) {
+        return Arrays.asList(cells);
+    }
+
+    private static Iterator<List<CharSequence>> rows(List<CharSequence>... rows) {
+        return Arrays.asList(rows).iterator();
+    }
+
+    private static String lines(String... lines) {
+        return Joiner.on(ConsoleReader.CR).join(lines) + ConsoleReader.CR;
+    }
+
+}
@@ -0,0 +1,204 @@
+/*
+* Copyright 2014 Dominik Foerderreuther <dominik@eleon.de>
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+* http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package de.eleon.console.builder.completer;
+
+import com.google.common.base.Ticker;
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.MoreExecutors;
+import jline.console.completer.Completer;
+import jline.console.completer.StringsCompleter;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+
+public class AsyncCompleterTest {
+
+    private final CountingCompleter delegate = new CountingCompleter(new StringsCompleter("alpha", "beta", "betamax"));
+
+    @Test
+    public void shouldCompleteLikeDelegate() {
+        AsyncCompleter underTest = AsyncCompleter.builder(delegate).executor(MoreExecutors.sameThreadExecutor()).build();
+
+        List<CharSequence> candidates = Lists.newArrayList();
+        assertThat(underTest.complete("be", 2, candidates), is(0));
+        assertThat(candidates, contains((CharSequence) "beta", "betamax"));
+    }
+
+    @Test
+    public void shouldCacheCompletion() {
+        AsyncCompleter underTest = AsyncCompleter.builder(delegate).executor(MoreExecutors.sameThreadExecutor()).build();
+
+        complete(underTest, "be");
+        assertThat(complete(underTest, "be"), contains((CharSequence) "beta", "betamax"));
+        assertThat(delegate.calls.get(), is(1));
+
+        complete(underTest, "al");
+        assertThat(delegate.calls.get(), is(2));
+    }
+
+    @Test
+    public void shouldExpireCompletionAfterTtl() {
+        final AtomicLong nanos = new AtomicLong();
+        AsyncCompleter underTest = AsyncCompleter.builder(delegate)
+                .executor(MoreExecutors.sameThreadExecutor())
+                .ttl(1, TimeUnit.SECONDS)
+                .ticker(new Ticker() {
+                    @Override
+                    public long read() {
+                        return nanos.get();
+                    }
+                })
+                .build();
+
+        complete(underTest, "be");
+        nanos.addAndGet(TimeUnit.MILLISECONDS.toNanos(999));
+        complete(underTest, "be");
+        assertThat(delegate.calls.get(), is(1));
+
+        nanos.addAndGet(TimeUnit.MILLISECONDS.toNanos(1));
+        complete(underTest, "be");
+        assertThat(delegate.calls.get(), is(2));
+    }
+
+    @Test
+    public void shouldEvictCompletionsAboveMaximumSize() {
+        AsyncCompleter underTest = AsyncCompleter.builder(delegate)
+                .executor(MoreExecutors.sameThreadExecutor())
+                .maximumSize(1)
+                .build();
+
+        complete(underTest, "be");
+        complete(underTest, "al");
+        complete(underTest, "be");
+        assertThat(delegate.calls.get(), is(3));
+    }
+
+    @Test
+    public void shouldPrefetchEmptyBuffer() {
+        AsyncCompleter underTest = AsyncCompleter.builder(delegate).executor(MoreExecutors.sameThreadExecutor()).build();
+
+        underTest.prefetch();
+        assertThat(delegate.calls.get(), is(1));
+        assertThat(complete(underTest, "").size(), is(3));
+        assertThat(delegate.calls.get(), is(1));
+    }
+
+    @Test
+    public void shouldReturnNoCandidatesBeforeDelegateFinished() throws Exception {
+        final CountDownLatch release = new CountDownLatch(1);
+        Completer slow = new Completer() {
+            @Override
+            public int complete(String buffer, int cursor, List<CharSequence> candidates) {
+                candidates.add("first");
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                candidates.add("second");
+                return 2;
+            }
+        };
+        AsyncCompleter underTest = AsyncCompleter.builder(slow)
+                .executor(Executors.newSingleThreadExecutor())
+                .deadline(50, TimeUnit.MILLISECONDS)
+                .build();
+
+        List<CharSequence> candidates = Lists.newArrayList();
+        assertThat(underTest.complete("ab", 2, candidates), is(-1));
+        assertThat(candidates, is(empty()));
+
+        release.countDown();
+        candidates = Lists.newArrayList();
+        assertThat(underTest.complete("ab", 2, candidates), is(2));
+        assertThat(candidates, contains((CharSequence) "first", "second"));
+    }
+
+    @Test
+    public void shouldNotWaitWithoutDeadline() {
+        final CountDownLatch release = new CountDownLatch(1);
+        Completer blocking = new Completer() {
+            @Override
+            public int complete(String buffer, int cursor, List<CharSequence> candidates) {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return -1;
+            }
+        };
+        AsyncCompleter underTest = AsyncCompleter.builder(blocking)
+                .executor(Executors.newSingleThreadExecutor())
+                .deadline(0, TimeUnit.MILLISECONDS)
+                .build();
+
+        List<CharSequence> candidates = Lists.newArrayList();
+        assertThat(underTest.complete("x", 1, candidates), is(-1));
+        assertThat(candidates, is(empty()));
+        release.countDown();
+    }
+
+    @Test
+    public void shouldRetryFailedCompletion() {
+        final AtomicInteger calls = new AtomicInteger();
+        Completer failing = new Completer() {
+            @Override
+            public int complete(String buffer, int cursor, List<CharSequence> candidates) {
+                if (calls.incrementAndGet() == 1) throw new IllegalStateException("daemon not available");
+                candidates.add("ok");
+                return 0;
+            }
+        };
+        AsyncCompleter underTest = AsyncCompleter.builder(failing).executor(MoreExecutors.sameThreadExecutor()).build();
+
+        assertThat(complete(underTest, ""), is(empty()));
+        assertThat(complete(underTest, ""), contains((CharSequence) "ok"));
+    }
+
+    private List<CharSequence> complete(Completer completer, String buffer) {
+        List<CharSequence> candidates = Lists.newArrayList();
+        completer.complete(buffer, buffer.length(), candidates);
+        return candidates;
+    }
+
+    private static class CountingCompleter implements Completer {
+
+        private final Completer delegate;
+        private final AtomicInteger calls = new AtomicInteger();
+
+        private CountingCompleter(Completer delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public int complete(String buffer, int cursor, List<CharSequence> candidates) {
+            calls.incrementAndGet();
+            return delegate.complete(buffer, cursor, candidates);
+        }
+    }
+
+}
@@ -0,0 +1,129 @@
+/*
+* Copyright 2014 Dominik Foerderreuther <dominik@eleon.de>
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+* http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package de.eleon.console.builder.completer;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import jline.console.completer.Completer;
+import jline.console.completer.StringsCompleter;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+
+public class CompletionPipelineTest {
+
+    private final CountingCompleter colors = new CountingCompleter(new StringsCompleter("red", "green", "blue"));
+    private final CountingCompleter moreColors = new CountingCompleter(new StringsCompleter("green", "grey"));
+    private final CountingCompleter expensive = new CountingCompleter(new StringsCompleter("gold", "silver"));
+
+    @Test
+    public void shouldRunEachCompleterOnceAndMergeWithoutDuplicates() {
+        CompletionPipeline underTest = CompletionPipeline.of(ImmutableList.<Completer>of(colors, moreColors));
+
+        List<CharSequence> candidates = Lists.newArrayList();
+        assertThat(underTest.complete("g", 1, candidates), is(0));
+        assertThat(candidates, contains((CharSequence) "green", "grey"));
+        assertThat(colors.calls.get(), is(1));
+        assertThat(moreColors.calls.get(), is(1));
+    }
+
+    @Test
+    public void shouldAppendSingleSpaceToSingleCandidateOfSameGroup() {
+        CompletionPipeline underTest = CompletionPipeline.of(ImmutableList.<Completer>of(
+                new StringsCompleter("foo"), new StringsCompleter("bar")));
+
+        List<CharSequence> candidates = Lists.newArrayList();
+        assertThat(underTest.complete("f", 1, candidates), is(0));
+        assertThat(candidates, contains((CharSequence) "foo "));
+    }
+
+    @Test
+    public void shouldNotConsultLaterPriorityIfEarlierFoundCandidates() {
+        CompletionPipeline underTest = CompletionPipeline.builder().add(expensive, 10).add(colors, 1).build();
+
+        assertThat(complete(underTest, "gr"), contains((CharSequence) "green "));
+        assertThat(expensive.calls.get(), is(0));
+    }
+
+    @Test
+    public void shouldConsultLaterPriorityIfEarlierFoundNothing() {
+        CompletionPipeline underTest = CompletionPipeline.builder().add(expensive, 10).add(colors, 1).build();
+
+        assertThat(complete(underTest, "si"), contains((CharSequence) "silver "));
+        assertThat(colors.calls.get(), is(1));
+        assertThat(expensive.calls.get(), is(1));
+    }
+
+    @Test
+    public void shouldReturnCandidatesOfHighestPositionOnly() {
+        Completer lastWord = new Completer() {
+            @Override
+            public int complete(String buffer, int cursor, List<CharSequence> candidates) {
+                candidates.add("word");
+                return 3;
+            }
+        };
+        CompletionPipeline underTest = CompletionPipeline.of(ImmutableList.<Completer>of(colors, lastWord));
+
+        List<CharSequence> candidates = Lists.newArrayList();
+        assertThat(underTest.complete("re ", 3, candidates), is(3));
+        assertThat(candidates, contains((CharSequence) "word"));
+    }
+
+    @Test
+    public void shouldReturnMinusOneWithoutCandidates() {
+        CompletionPipeline underTest = CompletionPipeline.builder().add(colors).add(expensive, 1).build();
+
+        List<CharSequence> candidates = Lists.newArrayList();
+        assertThat(underTest.complete("x", 1, candidates), is(-1));
+        assertThat(candidates, is(empty()));
+    }
+
+    @Test
+    public void shouldUseSingleCompleterDirectly() {
+        assertThat(CompletionPipeline.builder().add(colors).build().toCompleter(), is(sameInstance((Completer) colors)));
+    }
+
+    private List<CharSequence> complete(Completer completer, String buffer) {
+        List<CharSequence> candidates = Lists.newArrayList();
+        completer.complete(buffer, buffer.length(), candidates);
+        return candidates;
+    }
+
+    private static class CountingCompleter implements Completer {
+
+        private final Completer delegate;
+        private final AtomicInteger calls = new AtomicInteger();
+
+        private CountingCompleter(Completer delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public int complete(String buffer, int cursor, List<CharSequence> candidates) {
+            calls.incrementAndGet();
+            return delegate.complete(buffer, cursor, candidates);
+        }
+    }
+
+}
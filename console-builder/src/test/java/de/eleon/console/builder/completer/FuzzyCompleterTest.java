@@ -0,0 +1,123 @@
+/*
+* Copyright 2014 Dominik Foerderreuther <dominik@eleon.de>
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+* http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package de.eleon.console.builder.completer;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import jline.console.history.MemoryHistory;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+
+public class FuzzyCompleterTest {
+
+    private final List<String> hosts = ImmutableList.of(
+            "db-0042.example.com", "host-0042.example.com", "host-0043.example.com", "web-1.example.com", "0042-backup");
+
+    private final FuzzyCompleter underTest = FuzzyCompleter.of(hosts);
+
+    @Test
+    public void shouldRankPrefixBeforeSubstringAndShorterFirst() {
+        assertThat(underTest.search("0042"), contains("0042-backup", "db-0042.example.com", "host-0042.example.com"));
+    }
+
+    @Test
+    public void shouldMatchIgnoringCase() {
+        assertThat(underTest.search("WEB-1"), contains("web-1.example.com"));
+    }
+
+    @Test
+    public void shouldMatchSubsequence() {
+        assertThat(underTest.search("hst43"), contains("host-0043.example.com"));
+    }
+
+    @Test
+    public void shouldMatchSimilarTrigrams() {
+        assertThat(underTest.search("host-0043.exmaple"), contains("host-0043.example.com"));
+    }
+
+    @Test
+    public void shouldMatchShortFragmentsByScan() {
+        assertThat(underTest.search("b-"), contains("web-1.example.com", "db-0042.example.com"));
+    }
+
+    @Test
+    public void shouldNotMatchUnknownFragment() {
+        assertThat(underTest.search("mail"), empty());
+    }
+
+    @Test
+    public void shouldLimitResults() {
+        FuzzyCompleter limited = FuzzyCompleter.builder().addAll(hosts).maxResults(2).build();
+        assertThat(limited.search("example"), contains("web-1.example.com", "db-0042.example.com"));
+    }
+
+    @Test
+    public void shouldBoundWorkOfCommonFragments() {
+        List<String> many = Lists.newArrayList();
+        for (int i = 0; i < 4 * FuzzyCompleter.WORK_LIMIT; i++) {
+            many.add(String.format("host-%06d.example.com", i));
+        }
+        many.add("host-rare.example.org");
+        FuzzyCompleter completer = FuzzyCompleter.builder().addAll(many).maxResults(2).build();
+
+        assertThat(completer.search("com"), contains("host-000000.example.com", "host-000001.example.com"));
+        assertThat(completer.search("co"), contains("host-000000.example.com", "host-000001.example.com"));
+        assertThat(completer.search("example.org").get(0), is("host-rare.example.org"));
+        assertThat(completer.search("hrareorg").get(0), is("host-rare.example.org"));
+    }
+
+    @Test
+    public void shouldRankRecentlyUsedFirst() {
+        MemoryHistory history = new MemoryHistory();
+        history.add("host-0042.example.com");
+        history.add("db-0042.example.com");
+        assertThat(underTest.withHistory(history).search("0042.example").subList(0, 2),
+                contains("db-0042.example.com", "host-0042.example.com"));
+
+        history.add("host-0042.example.com");
+        assertThat(underTest.withHistory(history).search("0042.example").subList(0, 2),
+                contains("host-0042.example.com", "db-0042.example.com"));
+    }
+
+    @Test
+    public void shouldCompleteRankedCandidates() {
+        List<CharSequence> candidates = Lists.newArrayList();
+        assertThat(underTest.complete("0042", 4, candidates), is(0));
+        assertThat(candidates.size(), is(3));
+        assertThat(candidates.get(0).toString(), is("0042-backup"));
+    }
+
+    @Test
+    public void shouldCompleteBestMatchOnly() {
+        FuzzyCompleter bestMatch = FuzzyCompleter.builder().addAll(hosts).completeBestMatch().build();
+        List<CharSequence> candidates = Lists.newArrayList();
+        assertThat(bestMatch.complete("0043", 4, candidates), is(0));
+        assertThat(candidates, contains((CharSequence) "host-0043.example.com "));
+    }
+
+    @Test
+    public void shouldNotCompleteWithoutMatch() {
+        List<CharSequence> candidates = Lists.newArrayList();
+        assertThat(underTest.complete("mail", 4, candidates), is(-1));
+    }
+
+}
@@ -0,0 +1,126 @@
+/*
+* Copyright 2014 Dominik Foerderreuther <dominik@eleon.de>
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+* http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package de.eleon.console.builder.completer;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import jline.console.completer.Completer;
+import jline.console.completer.StringsCompleter;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+
+public class TrieCompleterTest {
+
+    private final TrieCompleter underTest = TrieCompleter.of(ImmutableList.of(
+            "host-1.example.com", "host-2.example.com", "host-10.example.com", "host", "hostname", "db-1.example.com"));
+
+    @Test
+    public void shouldCompletePrefix() {
+        assertThat(complete(underTest, "host-1"), contains("host-1.example.com", "host-10.example.com"));
+    }
+
+    @Test
+    public void shouldCompleteWithinLabel() {
+        assertThat(complete(underTest, "hostn"), contains("hostname "));
+    }
+
+    @Test
+    public void shouldCompleteExactCandidateAndLongerOnes() {
+        assertThat(complete(underTest, "host"), contains(
+                "host", "host-1.example.com", "host-10.example.com", "host-2.example.com", "hostname"));
+    }
+
+    @Test
+    public void shouldCompleteAllForEmptyBuffer() {
+        assertThat(complete(underTest, "").size(), is(6));
+        assertThat(complete(underTest, null).size(), is(6));
+    }
+
+    @Test
+    public void shouldNotCompleteUnknownPrefix() {
+        List<CharSequence> candidates = Lists.newArrayList();
+        assertThat(underTest.complete("web", 3, candidates), is(-1));
+        assertThat(candidates, empty());
+        assertThat(complete(underTest, "host-3"), empty());
+        assertThat(complete(underTest, "host-1.example.comx"), empty());
+    }
+
+    @Test
+    public void shouldCompleteIgnoringCase() {
+        TrieCompleter ignoringCase = TrieCompleter.builder().addAll("Alpha", "alpine", "BETA").ignoringCase().build();
+        assertThat(complete(ignoringCase, "AL"), contains("Alpha", "alpine"));
+        assertThat(complete(ignoringCase, "be"), contains("BETA "));
+    }
+
+    @Test
+    public void shouldRemoveDuplicates() {
+        TrieCompleter duplicates = TrieCompleter.builder().addAll("Foo", "foo", "Foo").ignoringCase().build();
+        assertThat(duplicates.size(), is(2));
+        assertThat(complete(duplicates, "f"), contains("Foo", "foo"));
+    }
+
+    @Test
+    public void shouldLimitResults() {
+        TrieCompleter limited = TrieCompleter.builder().addAll("a1", "a2", "a3").maxResults(2).build();
+        assertThat(complete(limited, "a"), contains("a1", "a2"));
+    }
+
+    @Test
+    public void shouldCompleteWithoutCandidates() {
+        assertThat(complete(TrieCompleter.of(ImmutableList.<String>of()), "a"), empty());
+    }
+
+    @Test
+    public void shouldCompleteLikeStringsCompleter() {
+        Random random = new Random(42);
+        List<String> strings = Lists.newArrayList();
+        for (int i = 0; i < 2000; i++) {
+            strings.add(randomString(random, 1 + random.nextInt(8)));
+        }
+        Completer expected = new StringsCompleter(strings);
+        TrieCompleter trie = TrieCompleter.of(strings);
+        for (int i = 0; i < 500; i++) {
+            String prefix = randomString(random, random.nextInt(4));
+            assertThat(prefix, complete(trie, prefix), is(complete(expected, prefix)));
+        }
+    }
+
+    private static String randomString(Random random, int length) {
+        StringBuilder ret = new StringBuilder();
+        for (int i = 0; i < length; i++) {
+            ret.append((char) ('a' + random.nextInt(3)));
+        }
+        return ret.toString();
+    }
+
+    private static List<String> complete(Completer completer, String buffer) {
+        List<CharSequence> candidates = Lists.newArrayList();
+        completer.complete(buffer, buffer == null ? 0 : buffer.length(), candidates);
+        List<String> ret = Lists.newArrayList();
+        for (CharSequence candidate : candidates) {
+            ret.add(candidate.toString());
+        }
+        return ret;
+    }
+
+}
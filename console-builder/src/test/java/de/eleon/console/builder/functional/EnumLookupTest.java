@@ -0,0 +1,70 @@
+package de.eleon.console.builder.functional;
+
+import com.google.common.collect.Lists;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+public class EnumLookupTest {
+
+    public enum TestEnum {
+        FIRST, SECOND, first;
+    }
+
+    public enum Labeled {
+        ONE("one label"), TWO("two label");
+
+        private final String label;
+
+        Labeled(String label) {
+            this.label = label;
+        }
+
+        @Override
+        public String toString() {
+            return label;
+        }
+    }
+
+    @Test
+    public void shouldShareLookupPerEnum() {
+        assertThat(EnumLookup.of(TestEnum.class), sameInstance(EnumLookup.of(TestEnum.class)));
+        assertThat(EnumLookup.of(TestEnum.class).completer(), sameInstance(EnumLookup.of(TestEnum.class).completer()));
+    }
+
+    @Test
+    public void shouldFindIgnoringCase() {
+        assertThat(EnumLookup.of(TestEnum.class).find("second").get(), is(TestEnum.SECOND));
+        assertThat(EnumLookup.of(TestEnum.class).find("SeCoNd").get(), is(TestEnum.SECOND));
+    }
+
+    @Test
+    public void shouldPreferFirstDeclaredValueOnCollision() {
+        assertThat(EnumLookup.of(TestEnum.class).find("first").get(), is(TestEnum.FIRST));
+    }
+
+    @Test
+    public void shouldFindByToString() {
+        assertThat(EnumLookup.of(Labeled.class).find("ONE LABEL").get(), is(Labeled.ONE));
+        assertThat(EnumLookup.of(Labeled.class).contains("ONE"), is(false));
+    }
+
+    @Test
+    public void shouldNotFindUnknownOrNullValue() {
+        assertThat(EnumLookup.of(TestEnum.class).find("third").isPresent(), is(false));
+        assertThat(EnumLookup.of(TestEnum.class).find(null).isPresent(), is(false));
+        assertThat(EnumLookup.of(TestEnum.class).contains(null), is(false));
+    }
+
+    @Test
+    public void shouldCompleteEnumValues() {
+        List<CharSequence> candidates = Lists.newArrayList();
+        EnumLookup.of(TestEnum.class).completer().complete("s", 1, candidates);
+        assertThat(candidates, is((List<CharSequence>) Lists.<CharSequence>newArrayList("second ")));
+    }
+
+}
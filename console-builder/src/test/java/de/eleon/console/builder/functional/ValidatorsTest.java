@@ -1,7 +1,20 @@
 package de.eleon.console.builder.functional;
 
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.ExpectedException;
 
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+import static com.jayway.awaitility.Awaitility.await;
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.MatcherAssert.assertThat;
 
@@ -9,6 +22,9 @@ public class ValidatorsTest {
 
     public enum TestEnum {a, b}
 
+    @Rule
+    public final ExpectedException thrown = ExpectedException.none();
+
     @Test
     public void notEmpty_shouldBeValid() {
         assertThat(Validators.notEmpty("error message").valid("test"), is(true));
@@ -39,6 +55,32 @@ public class ValidatorsTest {
         assertThat(Validators.regex("[0-9].", "error message").message(), is("error message"));
     }
 
+    @Test
+    public void regex_shouldMatchWholeInput() {
+        assertThat(Validators.regex("[0-9]", "error message").valid("12"), is(false));
+    }
+
+    @Test
+    public void regex_shouldFailOnInvalidRegex() {
+        thrown.expect(PatternSyntaxException.class);
+        Validators.regex("[0-9", "error message");
+    }
+
+    @Test
+    public void pattern_shouldBeValid() {
+        assertThat(Validators.pattern(Pattern.compile("[0-9]."), "error message").valid("21"), is(true));
+    }
+
+    @Test
+    public void pattern_shouldNotBeValid() {
+        assertThat(Validators.pattern(Pattern.compile("[0-9]."), "error message").valid("aa"), is(false));
+    }
+
+    @Test
+    public void pattern_shouldNotBeValidForNull() {
+        assertThat(Validators.pattern(Pattern.compile(".*"), "error message").valid(null), is(false));
+    }
+
     @Test
     public void enumValidator_shouldBeValid() {
         assertThat(
@@ -87,4 +129,205 @@ public class ValidatorsTest {
         );
     }
 
-}
\ No newline at end of file
+    @Test
+    public void validate_shouldEvaluateEachValidatorOnce() {
+        CountingValidator first = new CountingValidator(false, "first");
+        CountingValidator second = new CountingValidator(true, "second");
+        CountingValidator third = new CountingValidator(false, "third");
+
+        ValidationResult result = Validators.validate(Arrays.asList(first, second, third), "input", ValidationMode.COLLECT_ALL);
+
+        assertThat(result.isValid(), is(false));
+        assertThat(result.errors(), is(Arrays.asList("first", "third")));
+        assertThat(first.calls + second.calls + third.calls, is(3));
+    }
+
+    @Test
+    public void validate_shouldStopAtFirstFailureInFailFastMode() {
+        CountingValidator first = new CountingValidator(true, "first");
+        CountingValidator second = new CountingValidator(false, "second");
+        CountingValidator third = new CountingValidator(false, "third");
+
+        ValidationResult result = Validators.validate(Arrays.asList(first, second, third), "input", ValidationMode.FAIL_FAST);
+
+        assertThat(result.errors(), is(Arrays.asList("second")));
+        assertThat(third.calls, is(0));
+    }
+
+    @Test
+    public void validate_shouldBeValidWithoutFailures() {
+        ValidationResult result = Validators.validate(Arrays.asList(new CountingValidator(true, "first")), "input", ValidationMode.COLLECT_ALL);
+
+        assertThat(result.isValid(), is(true));
+        assertThat(result.errors().isEmpty(), is(true));
+    }
+
+    @Test
+    public void validate_shouldTreatExceptionAsFailure() {
+        ValidationResult result = Validators.validate(Arrays.asList(Validators.notEmpty("not empty")), null, ValidationMode.COLLECT_ALL);
+
+        assertThat(result.errors(), is(Arrays.asList("not empty")));
+    }
+
+    @Test
+    public void validateInParallel_shouldTakeAsLongAsSlowestValidator() {
+        ExecutorService executor = Executors.newCachedThreadPool();
+        try {
+            List<SlowValidator> validators = Arrays.asList(new SlowValidator(200, false, "first"),
+                    new SlowValidator(200, true, "second"), new SlowValidator(200, false, "third"));
+
+            long start = System.nanoTime();
+            ValidationResult result = Validators.validate(validators, "input", ValidationMode.COLLECT_ALL, executor, 5, TimeUnit.SECONDS);
+
+            assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 550, is(true));
+            assertThat(result.errors(), is(Arrays.asList("first", "third")));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void validateInParallel_shouldFailValidatorExceedingTimeout() {
+        ExecutorService executor = Executors.newCachedThreadPool();
+        try {
+            SlowValidator slow = new SlowValidator(5000, true, "slow");
+            List<SlowValidator> validators = Arrays.asList(slow, new SlowValidator(0, true, "fast"));
+
+            ValidationResult result = Validators.validate(validators, "input", ValidationMode.COLLECT_ALL, executor, 100, TimeUnit.MILLISECONDS);
+
+            assertThat(result.errors(), is(Arrays.asList(Validators.TIMEOUT_MESSAGE)));
+            await().atMost(1, TimeUnit.SECONDS).until(interrupted(slow));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void validateInParallel_shouldNotCountTimeInQueue() {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            List<SlowValidator> validators = Arrays.asList(new SlowValidator(200, false, "first"),
+                    new SlowValidator(200, false, "second"));
+
+            ValidationResult result = Validators.validate(validators, "input", ValidationMode.COLLECT_ALL, executor, 300, TimeUnit.MILLISECONDS);
+
+            assertThat(result.errors(), is(Arrays.asList("first", "second")));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void validateInParallel_shouldTimeOutValidatorWhichNeverStarts() {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        final CountDownLatch release = new CountDownLatch(1);
+        try {
+            Validator stuck = new Validator() {
+                @Override
+                public boolean valid(String input) {
+                    while (release.getCount() > 0) {
+                        try {
+                            release.await();
+                        } catch (InterruptedException e) {
+                            // ignores cancellation
+                        }
+                    }
+                    return true;
+                }
+
+                @Override
+                public String message() {
+                    return "stuck";
+                }
+            };
+            List<Validator> validators = Arrays.asList(stuck, new SlowValidator(0, false, "queued"));
+
+            long start = System.nanoTime();
+            ValidationResult result = Validators.validate(validators, "input", ValidationMode.COLLECT_ALL, executor, 100, TimeUnit.MILLISECONDS);
+
+            assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 1000, is(true));
+            assertThat(result.errors(), is(Arrays.asList(Validators.TIMEOUT_MESSAGE)));
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void validateInParallel_shouldCancelRemainingValidatorsInFailFastMode() {
+        ExecutorService executor = Executors.newCachedThreadPool();
+        try {
+            SlowValidator slow = new SlowValidator(5000, false, "slow");
+            List<SlowValidator> validators = Arrays.asList(new SlowValidator(100, false, "first"), slow);
+
+            ValidationResult result = Validators.validate(validators, "input", ValidationMode.FAIL_FAST, executor, 10, TimeUnit.SECONDS);
+
+            assertThat(result.errors(), is(Arrays.asList("first")));
+            await().atMost(1, TimeUnit.SECONDS).until(interrupted(slow));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private Callable<Boolean> interrupted(final SlowValidator validator) {
+        return new Callable<Boolean>() {
+            @Override
+            public Boolean call() {
+                return validator.interrupted;
+            }
+        };
+    }
+
+    private static class SlowValidator implements Validator {
+
+        private final long millis;
+        private final boolean valid;
+        private final String message;
+        private volatile boolean interrupted;
+
+        SlowValidator(long millis, boolean valid, String message) {
+            this.millis = millis;
+            this.valid = valid;
+            this.message = message;
+        }
+
+        @Override
+        public boolean valid(String input) {
+            try {
+                Thread.sleep(millis);
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+            return valid;
+        }
+
+        @Override
+        public String message() {
+            return message;
+        }
+    }
+
+    private static class CountingValidator implements Validator {
+
+        private final boolean valid;
+        private final String message;
+        private int calls;
+
+        CountingValidator(boolean valid, String message) {
+            this.valid = valid;
+            this.message = message;
+        }
+
+        @Override
+        public boolean valid(String input) {
+            calls++;
+            return valid;
+        }
+
+        @Override
+        public String message() {
+            return message;
+        }
+    }
+
+}
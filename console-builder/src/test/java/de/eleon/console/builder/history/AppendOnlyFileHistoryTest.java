@@ -0,0 +1,194 @@
+/*
+* Copyright 2014 Dominik Foerderreuther <dominik@eleon.de>
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+* http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package de.eleon.console.builder.history;
+
+import com.google.common.base.Charsets;
+import com.google.common.collect.Lists;
+import com.google.common.io.Files;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+import static com.jayway.awaitility.Awaitility.await;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+
+public class AppendOnlyFileHistoryTest {
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    private File file;
+
+    @Before
+    public void setUp() throws IOException {
+        file = folder.newFile("history");
+    }
+
+    @Test
+    public void shouldLoadEntries() throws IOException {
+        write("first\nsecond\n");
+        AppendOnlyFileHistory underTest = new AppendOnlyFileHistory(file);
+        assertThat(underTest.size(), is(2));
+        assertThat(underTest.get(1).toString(), is("second"));
+    }
+
+    @Test
+    public void shouldLoadOnlyLastEntries() throws IOException {
+        write("first\nsecond\nthird\nfourth\n");
+        AppendOnlyFileHistory underTest = new AppendOnlyFileHistory(file);
+        underTest.setMaxSize(2);
+        assertThat(values(underTest), contains("third", "fourth"));
+    }
+
+    @Test
+    public void shouldLoadEntriesWithoutTrailingNewline() throws IOException {
+        write("first\r\nsecond");
+        AppendOnlyFileHistory underTest = new AppendOnlyFileHistory(file);
+        assertThat(values(underTest), contains("first", "second"));
+    }
+
+    @Test
+    public void shouldAppendOnFlush() throws IOException {
+        write("first\n");
+        AppendOnlyFileHistory underTest = new AppendOnlyFileHistory(file);
+        underTest.add("second");
+        underTest.add("third");
+        underTest.flush();
+        assertThat(read(), is("first\nsecond\nthird\n"));
+    }
+
+    @Test
+    public void shouldIgnoreDuplicates() throws IOException {
+        AppendOnlyFileHistory underTest = new AppendOnlyFileHistory(file);
+        underTest.add("first");
+        underTest.add("first");
+        underTest.flush();
+        assertThat(read(), is("first\n"));
+    }
+
+    @Test
+    public void shouldNotWriteWithoutNewEntries() throws IOException {
+        write("first\n");
+        AppendOnlyFileHistory underTest = new AppendOnlyFileHistory(file);
+        underTest.size();
+        underTest.flush();
+        assertThat(read(), is("first\n"));
+    }
+
+    @Test
+    public void shouldRewriteAfterRemove() throws IOException {
+        write("first\nsecond\n");
+        AppendOnlyFileHistory underTest = new AppendOnlyFileHistory(file);
+        underTest.removeFirst();
+        underTest.flush();
+        assertThat(read(), is("second\n"));
+    }
+
+    @Test
+    public void shouldCompactFile() throws IOException {
+        AppendOnlyFileHistory underTest = new AppendOnlyFileHistory(file);
+        underTest.setMaxSize(2);
+        underTest.setMaxFileEntries(3);
+        for (String entry : new String[]{"a", "b", "c", "d"}) {
+            underTest.add(entry);
+            underTest.flush();
+        }
+        await().until(fileContentIs("c\nd\n"));
+    }
+
+    @Test
+    public void shouldCompactOversizedFileOnLoad() throws IOException {
+        write("a\nb\nc\nd\ne\n");
+        AppendOnlyFileHistory underTest = new AppendOnlyFileHistory(file);
+        underTest.setMaxSize(2);
+        underTest.setMaxFileEntries(3);
+        assertThat(values(underTest), contains("d", "e"));
+        await().until(fileContentIs("d\ne\n"));
+    }
+
+    @Test
+    public void shouldPurge() throws IOException {
+        write("first\n");
+        AppendOnlyFileHistory underTest = new AppendOnlyFileHistory(file);
+        underTest.purge();
+        assertThat(underTest.isEmpty(), is(true));
+        assertThat(file.exists(), is(false));
+    }
+
+    @Test
+    public void shouldNotRestorePurgedEntriesByCompaction() throws IOException {
+        AppendOnlyFileHistory underTest = new AppendOnlyFileHistory(file);
+        underTest.setMaxSize(2);
+        underTest.setMaxFileEntries(3);
+        synchronized (underTest) {
+            for (String entry : new String[]{"a", "b", "c", "d"}) {
+                underTest.add(entry);
+                underTest.flush();
+            }
+            underTest.purge();
+        }
+
+        final File other = folder.newFile("other");
+        Files.write("a\nb\nc\nd\n", other, Charsets.UTF_8);
+        AppendOnlyFileHistory compactedAfter = new AppendOnlyFileHistory(other);
+        compactedAfter.setMaxSize(2);
+        compactedAfter.setMaxFileEntries(3);
+        compactedAfter.size();
+        await().until(new Callable<Boolean>() {
+            @Override
+            public Boolean call() throws Exception {
+                return Files.toString(other, Charsets.UTF_8).equals("c\nd\n");
+            }
+        });
+
+        assertThat(file.exists(), is(false));
+        assertThat(new AppendOnlyFileHistory(file).isEmpty(), is(true));
+    }
+
+    private Callable<Boolean> fileContentIs(final String content) {
+        return new Callable<Boolean>() {
+            @Override
+            public Boolean call() throws Exception {
+                return read().equals(content);
+            }
+        };
+    }
+
+    private List<String> values(AppendOnlyFileHistory history) {
+        List<String> values = Lists.newArrayList();
+        for (jline.console.history.History.Entry entry : history) {
+            values.add(entry.value().toString());
+        }
+        return values;
+    }
+
+    private void write(String content) throws IOException {
+        Files.write(content, file, Charsets.UTF_8);
+    }
+
+    private String read() throws IOException {
+        return Files.toString(file, Charsets.UTF_8);
+    }
+
+}
@@ -0,0 +1,90 @@
+/*
+* Copyright 2014 Dominik Foerderreuther <dominik@eleon.de>
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+* http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package de.eleon.console.builder.history;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class HistoryViewTest {
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    private AppendOnlyFileHistory history;
+    private HistoryView first;
+    private HistoryView second;
+
+    @Before
+    public void setUp() throws IOException {
+        history = new AppendOnlyFileHistory(folder.newFile("history"));
+        first = new HistoryView(history);
+        second = new HistoryView(history);
+        first.add("one");
+        second.add("two");
+    }
+
+    @Test
+    public void shouldShareEntries() {
+        assertThat(first.size(), is(2));
+        assertThat(second.get(0).toString(), is("one"));
+    }
+
+    @Test
+    public void shouldNavigateIndependently() {
+        assertTrue(first.previous());
+        assertTrue(first.previous());
+        assertThat(first.current().toString(), is("one"));
+        assertThat(second.index(), is(2));
+        assertThat(second.current().toString(), is(""));
+        assertTrue(second.previous());
+        assertThat(second.current().toString(), is("two"));
+    }
+
+    @Test
+    public void shouldStayAtEndIfOthersAddEntries() {
+        second.add("three");
+        assertThat(first.index(), is(3));
+        assertTrue(first.previous());
+        assertThat(first.current().toString(), is("three"));
+    }
+
+    @Test
+    public void shouldKeepIndexesOfHistoryWithMaximumSize() {
+        history.setMaxSize(2);
+        first.add("three");
+        assertTrue(first.moveToFirst());
+        assertThat(first.index(), is(1));
+        assertThat(first.current().toString(), is("two"));
+        assertFalse(first.previous());
+    }
+
+    @Test
+    public void shouldSearchEntriesOfHistoryWithoutSearch() {
+        assertThat(first.searchBackwards("tw", 2, true), is(1));
+        assertThat(first.searchBackwards("n", 2, false), is(0));
+        assertThat(first.searchBackwards("x", 2, false), is(-1));
+    }
+
+}
@@ -0,0 +1,170 @@
+/*
+* Copyright 2014 Dominik Foerderreuther <dominik@eleon.de>
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+* http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package de.eleon.console.builder.history;
+
+import com.google.common.base.Charsets;
+import com.google.common.collect.Lists;
+import com.google.common.io.Files;
+import jline.console.history.History;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.ListIterator;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+
+public class MappedFileHistoryTest {
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    private File file;
+
+    @Before
+    public void setUp() throws IOException {
+        file = folder.newFile("history");
+    }
+
+    @Test
+    public void shouldLoadEntries() throws IOException {
+        write("first\r\nsecond\nthird");
+        MappedFileHistory underTest = new MappedFileHistory(file);
+        assertThat(values(underTest), contains("first", "second", "third"));
+        assertThat(underTest.index(), is(3));
+    }
+
+    @Test
+    public void shouldAppendEntry() throws IOException {
+        write("first");
+        MappedFileHistory underTest = new MappedFileHistory(file);
+        underTest.add("second");
+        underTest.add("second");
+        assertThat(values(underTest), contains("first", "second"));
+        assertThat(read(), is("first\nsecond\n"));
+    }
+
+    @Test
+    public void shouldIgnoreDuplicateOfLoadedLastEntry() throws IOException {
+        write("first\r\nsecond\r\n");
+        MappedFileHistory underTest = new MappedFileHistory(file);
+        underTest.add("second");
+        assertThat(underTest.size(), is(2));
+    }
+
+    @Test
+    public void shouldReadEntriesAppendedAfterRead() throws IOException {
+        MappedFileHistory underTest = new MappedFileHistory(file);
+        underTest.add("first");
+        assertThat(underTest.get(0).toString(), is("first"));
+        for (int i = 0; i < 100; i++) {
+            underTest.add("entry " + i);
+        }
+        assertThat(underTest.get(100).toString(), is("entry 99"));
+        assertThat(underTest.searchBackwards("entry 42", 101, true), is(43));
+    }
+
+    @Test
+    public void shouldNavigate() throws IOException {
+        write("first\nsecond\n");
+        MappedFileHistory underTest = new MappedFileHistory(file);
+        assertThat(underTest.current().toString(), is(""));
+        assertThat(underTest.previous(), is(true));
+        assertThat(underTest.current().toString(), is("second"));
+        assertThat(underTest.previous(), is(true));
+        assertThat(underTest.previous(), is(false));
+        assertThat(underTest.current().toString(), is("first"));
+        underTest.moveToEnd();
+        assertThat(underTest.index(), is(2));
+    }
+
+    @Test
+    public void shouldIterateBackwards() throws IOException {
+        write("first\nsecond\n");
+        MappedFileHistory underTest = new MappedFileHistory(file);
+        ListIterator<History.Entry> entries = underTest.entries(2);
+        assertThat(entries.previous().value().toString(), is("second"));
+        assertThat(entries.previous().index(), is(0));
+        assertThat(entries.hasPrevious(), is(false));
+    }
+
+    @Test
+    public void shouldSearchBackwards() throws IOException {
+        write("ssh host-1\nls\nssh host-2\ncd /tmp\n");
+        MappedFileHistory underTest = new MappedFileHistory(file);
+        assertThat(underTest.searchBackwards("host", 4, false), is(2));
+        assertThat(underTest.searchBackwards("host", 2, false), is(0));
+        assertThat(underTest.searchBackwards("host", 0, false), is(-1));
+        assertThat(underTest.searchBackwards("unknown", 4, false), is(-1));
+    }
+
+    @Test
+    public void shouldSearchBackwardsWithShortTerm() throws IOException {
+        write("ssh host-1\nls\ncd /tmp\n");
+        MappedFileHistory underTest = new MappedFileHistory(file);
+        assertThat(underTest.searchBackwards("s", 3, false), is(1));
+        assertThat(underTest.searchBackwards("s", 3, true), is(0));
+    }
+
+    @Test
+    public void shouldSearchBackwardsWithStartsWith() throws IOException {
+        write("ssh host-1\nping host-2\n");
+        MappedFileHistory underTest = new MappedFileHistory(file);
+        assertThat(underTest.searchBackwards("host", 2, true), is(-1));
+        assertThat(underTest.searchBackwards("ssh", 2, true), is(0));
+    }
+
+    @Test
+    public void shouldSearchAddedEntries() throws IOException {
+        write("ssh host-1\n");
+        MappedFileHistory underTest = new MappedFileHistory(file);
+        assertThat(underTest.searchBackwards("host-2", 1, false), is(-1));
+        underTest.add("ssh host-2");
+        assertThat(underTest.searchBackwards("host-2", 2, false), is(1));
+    }
+
+    @Test
+    public void shouldClear() throws IOException {
+        write("first\n");
+        MappedFileHistory underTest = new MappedFileHistory(file);
+        underTest.clear();
+        assertThat(underTest.isEmpty(), is(true));
+        assertThat(read(), is(""));
+    }
+
+    private List<String> values(History history) {
+        List<String> values = Lists.newArrayList();
+        for (History.Entry entry : history) {
+            values.add(entry.value().toString());
+        }
+        return values;
+    }
+
+    private void write(String content) throws IOException {
+        Files.write(content, file, Charsets.UTF_8);
+    }
+
+    private String read() throws IOException {
+        return Files.toString(file, Charsets.UTF_8);
+    }
+
+}
@@ -0,0 +1,92 @@
+/*
+* Copyright 2014 Dominik Foerderreuther <dominik@eleon.de>
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+* http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package de.eleon.console.builder.script;
+
+import com.google.common.base.Charsets;
+import com.google.common.base.Optional;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.io.Files;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class AnswerSourcesTest {
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void shouldAnswerFromMapById() {
+        AnswerSource underTest = AnswerSources.fromMap(ImmutableMap.of("name", "Dominik"));
+        assertThat(underTest.answer("name", "What is your name?"), is(Optional.of("Dominik")));
+        assertThat(underTest.answer("age", "How old are you?"), is(Optional.<String>absent()));
+    }
+
+    @Test
+    public void shouldAnswerFromPropertiesFile() throws IOException {
+        File file = folder.newFile("answers.properties");
+        Files.write("name=Dominik\nfirst\\ name=Dominik\n", file, Charsets.ISO_8859_1);
+        AnswerSource underTest = AnswerSources.fromProperties(file);
+        assertThat(underTest.answer("name", "?"), is(Optional.of("Dominik")));
+        assertThat(underTest.answer("first name", "?"), is(Optional.of("Dominik")));
+    }
+
+    @Test
+    public void shouldAnswerFromEnvironment() {
+        AnswerSource underTest = AnswerSources.fromEnvironment("APP_", ImmutableMap.of("APP_FIRST_NAME", "Dominik"));
+        assertThat(underTest.answer("first name", "?"), is(Optional.of("Dominik")));
+        assertThat(underTest.answer("first-name", "?"), is(Optional.of("Dominik")));
+        assertThat(underTest.answer("name", "?"), is(Optional.<String>absent()));
+    }
+
+    @Test
+    public void shouldAnswerWithLinesInOrder() {
+        AnswerSource underTest = AnswerSources.fromLines(new StringReader("first\nsecond\n"));
+        assertThat(underTest.answer("a", "?"), is(Optional.of("first")));
+        assertThat(underTest.answer("b", "?"), is(Optional.of("second")));
+        assertThat(underTest.answer("c", "?"), is(Optional.<String>absent()));
+    }
+
+    @Test
+    public void shouldReadLinesOfFileAtOnce() throws IOException {
+        File file = folder.newFile("answers.txt");
+        Files.write("J\u00fcrgen\nsecond\n", file, Charsets.UTF_8);
+
+        AnswerSource underTest = AnswerSources.fromLines(file, Charsets.UTF_8);
+        Files.write("changed\n", file, Charsets.UTF_8);
+
+        assertThat(underTest.answer("a", "?"), is(Optional.of("J\u00fcrgen")));
+        assertThat(underTest.answer("b", "?"), is(Optional.of("second")));
+        assertThat(underTest.answer("c", "?"), is(Optional.<String>absent()));
+    }
+
+    @Test
+    public void shouldAnswerFromFirstSourceWithAnswer() {
+        AnswerSource underTest = AnswerSources.firstOf(
+                AnswerSources.fromMap(ImmutableMap.of("a", "map")),
+                AnswerSources.fromLines(new StringReader("line\n")));
+        assertThat(underTest.answer("a", "?"), is(Optional.of("map")));
+        assertThat(underTest.answer("b", "?"), is(Optional.of("line")));
+    }
+
+}